@@ -0,0 +1,78 @@
+package com.jpereira30.library_api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.jpereira30.library_api.config.JacksonConfig;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+// A keyset page of 100 books read and written as the JSON response body, with every field vs
+// only id, title and author (?fields=id,title,author). Response bytes are reported per second;
+// run with -prof gc for the allocations per response.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BookFieldsBenchmark {
+
+  private static final int PAGE_SIZE = 100;
+
+  private static final List<String> FIELDS = List.of("id", "title", "author");
+
+  @State(Scope.Benchmark)
+  public static class Writers {
+
+    ObjectWriter full;
+
+    ObjectWriter sparse;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+      ObjectMapper objectMapper = catalog.context.getBean(ObjectMapper.class);
+      MappingJacksonValue sparseValue = JacksonConfig.withFields(List.of(), FIELDS);
+      full = objectMapper.writer();
+      sparse = objectMapper.writer(sparseValue.getFilters());
+    }
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class ResponseBytes {
+
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  @Benchmark
+  public byte[] fullPage(CatalogState catalog, Writers writers, ResponseBytes counter)
+      throws JsonProcessingException {
+    byte[] body =
+        writers.full.writeValueAsBytes(
+            catalog.bookService.retrieveBooksAfter(catalog.randomId(), PAGE_SIZE));
+    counter.bytes += body.length;
+    return body;
+  }
+
+  @Benchmark
+  public byte[] sparsePage(CatalogState catalog, Writers writers, ResponseBytes counter)
+      throws JsonProcessingException {
+    byte[] body =
+        writers.sparse.writeValueAsBytes(
+            catalog.bookService.retrieveBookSummariesAfter(catalog.randomId(), PAGE_SIZE));
+    counter.bytes += body.length;
+    return body;
+  }
+}
@@ -0,0 +1,84 @@
+package com.jpereira30.library_api.benchmark;
+
+import com.jpereira30.library_api.dto.BookBatchResult;
+import com.jpereira30.library_api.entity.Book;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Lookup, search and list paths of BookService over a seeded catalog
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BookReadBenchmark {
+
+  private static final int LIST_SIZE = 50;
+
+  @Benchmark
+  public Optional<Book> lookupById(CatalogState catalog) {
+    return catalog.bookService.retrieveBookById(catalog.randomId());
+  }
+
+  @Benchmark
+  public Optional<Book> lookupByIdUncached(CatalogState catalog) {
+    return catalog.bookRepository.findById(catalog.randomId());
+  }
+
+  // A reading list of 50 books: one lookup per book against one multi-get
+  @Benchmark
+  public List<Book> lookupListOneByOneUncached(CatalogState catalog) {
+    List<Book> books = new ArrayList<>(LIST_SIZE);
+    for (Long id : catalog.randomIds(LIST_SIZE)) {
+      catalog.bookRepository.findById(id).ifPresent(books::add);
+    }
+    return books;
+  }
+
+  @Benchmark
+  public List<Book> lookupListInOneQueryUncached(CatalogState catalog) {
+    return catalog.bookRepository.findAllById(catalog.randomIds(LIST_SIZE));
+  }
+
+  @Benchmark
+  public BookBatchResult lookupList(CatalogState catalog) {
+    return catalog.bookService.retrieveBooksByIds(catalog.randomIds(LIST_SIZE));
+  }
+
+  @Benchmark
+  public List<Long> searchIndexOnly(CatalogState catalog) {
+    return catalog.searchIndex.search(CatalogData.randomTerm());
+  }
+
+  @Benchmark
+  public List<Long> searchIndexPrefix(CatalogState catalog) {
+    return catalog.searchIndex.search(CatalogData.randomTerm().substring(0, 3), "");
+  }
+
+  @Benchmark
+  public List<Book> searchBooks(CatalogState catalog) {
+    return catalog.bookService.searchBooks(
+        CatalogData.randomTerm() + " " + CatalogData.randomTerm(), 50);
+  }
+
+  @Benchmark
+  public List<Book> listPage(CatalogState catalog) {
+    return catalog.bookService.retrieveBooksAfter(catalog.randomId(), 100);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MINUTES)
+  public List<Book> listAll(CatalogState catalog) {
+    return catalog.bookService.retrieveAllBooks();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MINUTES)
+  public void streamAll(CatalogState catalog, Blackhole blackhole) {
+    catalog.bookService.streamAllBooks(blackhole::consume);
+  }
+}
@@ -0,0 +1,83 @@
+package com.jpereira30.library_api.benchmark;
+
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.service.BookSearchIndex;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Searches of the in-memory index alone, without the application or a database, up to a catalog
+// of one million books. The heap held by the index is printed once it is built.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookSearchIndexBenchmark {
+
+  private static final int LIMIT = 50;
+
+  @State(Scope.Benchmark)
+  public static class Index {
+
+    @Param({"10000", "1000000"})
+    public int catalogSize;
+
+    BookSearchIndex searchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+      System.gc();
+      long before = memory.getHeapMemoryUsage().getUsed();
+
+      searchIndex = new BookSearchIndex();
+      BookSearchIndex.Rebuild rebuild = searchIndex.rebuild();
+      Random random = new Random(42);
+      for (long id = 1; id <= catalogSize; id++) {
+        Book book = CatalogData.randomBook(random);
+        book.setId(id);
+        rebuild.add(book);
+      }
+      rebuild.publish();
+
+      System.gc();
+      long retained = memory.getHeapMemoryUsage().getUsed() - before;
+      System.out.printf(
+          "%nSearch index of %d books: %d MB, %d bytes per book%n",
+          catalogSize, retained >> 20, retained / catalogSize);
+    }
+  }
+
+  @Benchmark
+  public List<Long> searchTerm(Index index) {
+    return index.searchIndex.search(CatalogData.randomTerm(), LIMIT);
+  }
+
+  @Benchmark
+  public List<Long> searchTwoTerms(Index index) {
+    return index.searchIndex.search(
+        CatalogData.randomTerm() + " " + CatalogData.randomTerm(), LIMIT);
+  }
+
+  @Benchmark
+  public List<Long> searchTitlePrefix(Index index) {
+    return index.searchIndex.search(CatalogData.randomTerm().substring(0, 3), "", LIMIT);
+  }
+
+  // A one-letter query matches most of the catalog; only the best LIMIT are kept
+  @Benchmark
+  public List<Long> searchOneLetter(Index index) {
+    return index.searchIndex.search(
+        String.valueOf((char) ('a' + ThreadLocalRandom.current().nextInt(26))), LIMIT);
+  }
+}
@@ -0,0 +1,59 @@
+package com.jpereira30.library_api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpereira30.library_api.entity.Book;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// JSON serialization of Book with the same ObjectMapper configuration the application uses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BookSerializationBenchmark {
+
+  private ObjectMapper objectMapper;
+
+  private Book book;
+
+  private List<Book> page;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    Random random = new Random(42);
+    book = CatalogData.randomBook(random);
+    book.setId(1L);
+    page = new ArrayList<>();
+    for (long id = 1; id <= 100; id++) {
+      Book pageBook = CatalogData.randomBook(random);
+      pageBook.setId(id);
+      page.add(pageBook);
+    }
+  }
+
+  @Benchmark
+  public byte[] serializeBook() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(book);
+  }
+
+  @Benchmark
+  public byte[] serializePage() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public Book deserializeBook() throws Exception {
+    return objectMapper.readValue(objectMapper.writeValueAsBytes(book), Book.class);
+  }
+}
@@ -0,0 +1,60 @@
+package com.jpereira30.library_api.benchmark;
+
+import com.jpereira30.library_api.dto.BulkItemResult;
+import com.jpereira30.library_api.entity.Book;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+// Write paths in rows per second: single vs bulk creates, and single-statement updates vs the
+// previous existsById + save round trips
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BookWriteBenchmark {
+
+  private static final int BULK_SIZE = 100;
+
+  @Benchmark
+  public Book createSingle(CatalogState catalog) {
+    return catalog.bookService.createBook(CatalogData.randomBook(random()));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BULK_SIZE)
+  public List<BulkItemResult> createBulk(CatalogState catalog) {
+    List<Book> books = new ArrayList<>(BULK_SIZE);
+    for (int i = 0; i < BULK_SIZE; i++) {
+      books.add(CatalogData.randomBook(random()));
+    }
+    return catalog.bookBulkService.createBooks(books);
+  }
+
+  @Benchmark
+  public Book updateSingleStatement(CatalogState catalog) {
+    long id = catalog.randomId();
+    return catalog.bookService.updateBook(id, CatalogData.randomBook(random()));
+  }
+
+  @Benchmark
+  public Book updateExistsThenSave(CatalogState catalog) {
+    long id = catalog.randomId();
+    Book book = CatalogData.randomBook(random());
+    if (!catalog.bookRepository.existsById(id)) {
+      throw new IllegalStateException("Missing book " + id);
+    }
+    book.setId(id);
+    book.setVersion(catalog.bookRepository.findById(id).orElseThrow().getVersion());
+    return catalog.bookRepository.save(book);
+  }
+
+  private static Random random() {
+    return ThreadLocalRandom.current();
+  }
+}
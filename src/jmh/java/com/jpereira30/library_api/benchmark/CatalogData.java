@@ -0,0 +1,58 @@
+package com.jpereira30.library_api.benchmark;
+
+import com.jpereira30.library_api.entity.Book;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Deterministic synthetic catalog: words are built from syllables, giving a few thousand terms
+final class CatalogData {
+
+  private static final String[] SYLLABLES = {
+    "ka", "lo", "mi", "ra", "ten", "vo", "shi", "dar", "el", "quin", "bor", "na", "sol", "ith",
+    "gre", "mun", "pa", "zel", "or", "tha"
+  };
+
+  // ISBNs are unique, so they are handed out in sequence rather than drawn at random
+  private static final AtomicLong NEXT_ISBN = new AtomicLong(9_780_000_000_000L);
+
+  private CatalogData() {}
+
+  static Book randomBook(Random random) {
+    return Book.builder()
+        .title(words(random, 3))
+        .author(capitalize(word(random)) + " " + capitalize(word(random)))
+        .isbn(String.valueOf(NEXT_ISBN.getAndIncrement()))
+        .publicationYear(1900 + random.nextInt(125))
+        .description(words(random, 25))
+        .build();
+  }
+
+  static String randomTerm() {
+    return word(ThreadLocalRandom.current());
+  }
+
+  private static String words(Random random, int count) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        text.append(' ');
+      }
+      text.append(word(random));
+    }
+    return capitalize(text.toString());
+  }
+
+  private static String word(Random random) {
+    int syllables = 2 + random.nextInt(2);
+    StringBuilder word = new StringBuilder();
+    for (int i = 0; i < syllables; i++) {
+      word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+    }
+    return word.toString();
+  }
+
+  private static String capitalize(String text) {
+    return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+  }
+}
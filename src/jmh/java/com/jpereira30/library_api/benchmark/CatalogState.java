@@ -0,0 +1,96 @@
+package com.jpereira30.library_api.benchmark;
+
+import com.jpereira30.library_api.LibraryApiApplication;
+import com.jpereira30.library_api.dto.BulkItemResult;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.repository.BookRepository;
+import com.jpereira30.library_api.service.BookBulkService;
+import com.jpereira30.library_api.service.BookSearchIndex;
+import com.jpereira30.library_api.service.BookService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Boots the application without a web server against an in-memory H2 catalog of catalogSize books
+@State(Scope.Benchmark)
+public class CatalogState {
+
+  private static final int SEED_CHUNK = 5_000;
+
+  @Param({"10000"})
+  public int catalogSize;
+
+  ConfigurableApplicationContext context;
+
+  BookService bookService;
+
+  BookBulkService bookBulkService;
+
+  BookRepository bookRepository;
+
+  BookSearchIndex searchIndex;
+
+  private long minId = Long.MAX_VALUE;
+
+  private long maxId;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context =
+        new SpringApplicationBuilder(LibraryApiApplication.class)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .run(
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--openai.api.url=http://localhost:9",
+                "--openai.api.key=benchmark",
+                "--openai.model=benchmark");
+    bookService = context.getBean(BookService.class);
+    bookBulkService = context.getBean(BookBulkService.class);
+    bookRepository = context.getBean(BookRepository.class);
+    searchIndex = context.getBean(BookSearchIndex.class);
+
+    Random random = new Random(42);
+    for (int seeded = 0; seeded < catalogSize; seeded += SEED_CHUNK) {
+      List<Book> books = new ArrayList<>(SEED_CHUNK);
+      for (int i = 0; i < Math.min(SEED_CHUNK, catalogSize - seeded); i++) {
+        books.add(CatalogData.randomBook(random));
+      }
+      for (BulkItemResult result : bookBulkService.createBooks(books)) {
+        minId = Math.min(minId, result.getId());
+        maxId = Math.max(maxId, result.getId());
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  long randomId() {
+    return ThreadLocalRandom.current().nextLong(minId, maxId + 1);
+  }
+
+  List<Long> randomIds(int count) {
+    List<Long> ids = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      ids.add(randomId());
+    }
+    return ids;
+  }
+}
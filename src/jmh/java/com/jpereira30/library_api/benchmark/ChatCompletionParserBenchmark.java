@@ -0,0 +1,51 @@
+package com.jpereira30.library_api.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpereira30.library_api.dto.ChatCompletion;
+import com.jpereira30.library_api.service.ChatCompletionParser;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// Reading a recorded chat completion with the streaming parser vs building the full JSON tree;
+// run with -prof gc to compare allocation per response
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ChatCompletionParserBenchmark {
+
+  private ObjectMapper objectMapper;
+
+  private ChatCompletionParser parser;
+
+  private byte[] response;
+
+  @Setup
+  public void setUp() throws IOException {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    parser = new ChatCompletionParser(objectMapper);
+    try (InputStream in = getClass().getResourceAsStream("/openai/chat-completion.json")) {
+      response = in.readAllBytes();
+    }
+  }
+
+  @Benchmark
+  public ChatCompletion streamingParser() throws IOException {
+    return parser.parse(response);
+  }
+
+  @Benchmark
+  public String jsonTree() throws IOException {
+    JsonNode root = objectMapper.readTree(response);
+    return root.path("choices").path(0).path("message").path("content").asText(null);
+  }
+}
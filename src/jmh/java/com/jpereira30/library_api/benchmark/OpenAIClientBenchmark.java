@@ -0,0 +1,143 @@
+package com.jpereira30.library_api.benchmark;
+
+import com.jpereira30.library_api.config.OpenAIClientConfig;
+import com.jpereira30.library_api.support.OpenAIStubServer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+// Sustained chat completion requests against the local stub: a client opening a connection per
+// request, the default Reactor Netty client, and the tuned OpenAI connector. The connections
+// counter reports new TCP connections per iteration.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OpenAIClientBenchmark {
+
+  private static final int CONCURRENCY = 64;
+
+  private static final Map<String, Object> PAYLOAD =
+      Map.of(
+          "model",
+          "benchmark",
+          "messages",
+          List.of(Map.of("role", "user", "content", "Tagline for a benchmark")),
+          "max_tokens",
+          60);
+
+  private static final AtomicLong connections = new AtomicLong();
+
+  @Param({"0"})
+  public int stubLatencyMillis;
+
+  private OpenAIStubServer stub;
+
+  private ConnectionProvider tunedPool;
+
+  private WebClient unpooledClient;
+
+  private WebClient defaultClient;
+
+  private WebClient tunedClient;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    stub = new OpenAIStubServer().latency(Duration.ofMillis(stubLatencyMillis));
+    unpooledClient = client(HttpClient.newConnection());
+    defaultClient = client(HttpClient.create());
+    tunedPool = ConnectionProvider.builder("benchmark").maxConnections(CONCURRENCY).build();
+    tunedClient =
+        client(
+            OpenAIClientConfig.httpClient(tunedPool, Duration.ofSeconds(2), Duration.ofSeconds(8)));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    tunedPool.dispose();
+    stub.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONCURRENCY)
+  public void unpooledConnector(ConnectionCounter counter) {
+    send(unpooledClient);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONCURRENCY)
+  public void defaultConnector(ConnectionCounter counter) {
+    send(defaultClient);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONCURRENCY)
+  public void tunedConnector(ConnectionCounter counter) {
+    send(tunedClient);
+  }
+
+  private static void send(WebClient client) {
+    Flux.range(0, CONCURRENCY)
+        .flatMap(
+            i ->
+                client
+                    .post()
+                    .uri(OpenAIStubServer.COMPLETIONS_PATH)
+                    .bodyValue(PAYLOAD)
+                    .retrieve()
+                    .bodyToMono(byte[].class),
+            CONCURRENCY)
+        .blockLast();
+  }
+
+  private WebClient client(HttpClient httpClient) {
+    return WebClient.builder()
+        .clientConnector(
+            new ReactorClientHttpConnector(
+                httpClient.observe(
+                    (connection, state) -> {
+                      if (state == ConnectionObserver.State.CONNECTED) {
+                        connections.incrementAndGet();
+                      }
+                    })))
+        .baseUrl(stub.url())
+        .defaultHeader("Content-Type", "application/json")
+        .build();
+  }
+
+  // Reported alongside the score: TCP connections opened during the iteration
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ConnectionCounter {
+
+    private long start;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      start = connections.get();
+    }
+
+    public long connections() {
+      return connections.get() - start;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.jpereira30.library_api.benchmark;
+
+import com.jpereira30.library_api.LibraryApiApplication;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Time to start and stop the application context against an empty in-memory database, by how
+// the schema is managed:
+//   hibernate-update  Hibernate creates and updates the schema from the entities (no migrations)
+//   flyway-validate   Flyway migrates, then Hibernate validates the entities against the schema
+//   flyway-none       Flyway migrates and Hibernate does not inspect the schema
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class StartupBenchmark {
+
+  private static final AtomicInteger DATABASES = new AtomicInteger();
+
+  @Param({"hibernate-update", "flyway-validate", "flyway-none"})
+  public String schema;
+
+  @Benchmark
+  public void startAndStop() {
+    boolean flyway = !schema.equals("hibernate-update");
+    String ddlAuto = schema.substring(schema.indexOf('-') + 1);
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(LibraryApiApplication.class)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .run(
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:startup"
+                    + DATABASES.incrementAndGet()
+                    + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.flyway.enabled=" + flyway,
+                "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--openai.api.url=http://localhost:9",
+                "--openai.api.key=benchmark",
+                "--openai.model=benchmark")) {
+      context.getBean(LibraryApiApplication.class);
+    }
+  }
+}
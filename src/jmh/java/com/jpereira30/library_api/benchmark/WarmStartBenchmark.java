@@ -0,0 +1,145 @@
+package com.jpereira30.library_api.benchmark;
+
+import com.jpereira30.library_api.LibraryApiApplication;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.service.BookBulkService;
+import com.jpereira30.library_api.service.BookExportService;
+import com.jpereira30.library_api.service.CatalogFormat;
+import com.jpereira30.library_api.service.CatalogSnapshotService;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Time until a node serves a catalog of catalogSize books, started with the persistent profile:
+//   restartFromFile      reopening the database file it was stopped with
+//   restoreFromSnapshot  an empty node seeded from a snapshot of that database
+//   reimport             an empty node importing an NDJSON export of the catalog
+// Each start includes Flyway validation and the search index rebuild.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class WarmStartBenchmark {
+
+  private static final int SEED_CHUNK = 5_000;
+
+  @Param({"100000"})
+  public int catalogSize;
+
+  private Path workDir;
+
+  private Path storedDir;
+
+  private Path snapshot;
+
+  private Path export;
+
+  private Path emptyDir;
+
+  private ConfigurableApplicationContext context;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    workDir = Files.createTempDirectory("warm-start");
+    storedDir = workDir.resolve("stored");
+    try (ConfigurableApplicationContext seeded = start(storedDir)) {
+      BookBulkService bookBulkService = seeded.getBean(BookBulkService.class);
+      Random random = new Random(42);
+      for (int done = 0; done < catalogSize; done += SEED_CHUNK) {
+        List<Book> books = new ArrayList<>(SEED_CHUNK);
+        for (int i = 0; i < Math.min(SEED_CHUNK, catalogSize - done); i++) {
+          books.add(CatalogData.randomBook(random));
+        }
+        bookBulkService.createBooks(books);
+      }
+      snapshot = seeded.getBean(CatalogSnapshotService.class).createSnapshot();
+      export = workDir.resolve("catalog.ndjson");
+      try (OutputStream out = Files.newOutputStream(export)) {
+        seeded.getBean(BookExportService.class).export(out, CatalogFormat.NDJSON, false);
+      }
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void newEmptyDir() throws IOException {
+    emptyDir = Files.createTempDirectory(workDir, "empty");
+  }
+
+  @TearDown(Level.Invocation)
+  public void stop() throws IOException {
+    context.close();
+    delete(emptyDir);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    delete(workDir);
+  }
+
+  @Benchmark
+  public void restartFromFile() {
+    context = start(storedDir);
+  }
+
+  @Benchmark
+  public void restoreFromSnapshot() {
+    context = start(emptyDir, "--library.storage.restore-from=" + snapshot);
+  }
+
+  @Benchmark
+  public void reimport() {
+    context = start(emptyDir, "--import=" + export);
+  }
+
+  private static ConfigurableApplicationContext start(Path storageDir, String... extraArgs) {
+    List<String> args =
+        new ArrayList<>(
+            List.of(
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.profiles.active=persistent",
+                "--library.storage.dir=" + storageDir,
+                "--spring.h2.console.enabled=false",
+                "--openai.api.url=http://localhost:9",
+                "--openai.api.key=benchmark",
+                "--openai.model=benchmark"));
+    args.addAll(List.of(extraArgs));
+    return new SpringApplicationBuilder(LibraryApiApplication.class)
+        .web(WebApplicationType.NONE)
+        .logStartupInfo(false)
+        .run(args.toArray(String[]::new));
+  }
+
+  private static void delete(Path dir) throws IOException {
+    try (Stream<Path> files = Files.walk(dir)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+}
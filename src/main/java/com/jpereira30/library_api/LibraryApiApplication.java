@@ -1,16 +1,53 @@
 package com.jpereira30.library_api;
 
+import com.jpereira30.library_api.dto.ImportReport;
+import com.jpereira30.library_api.service.BookImportService;
 import io.github.cdimascio.dotenv.Dotenv;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC is configured by R2dbcConfig alongside the JDBC DataSource instead. Scheduling runs the
+// periodic purge of expired insights.
+@SpringBootApplication(
+    exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@EnableScheduling
 public class LibraryApiApplication {
 
+  private static final Logger log = LoggerFactory.getLogger(LibraryApiApplication.class);
+
   public static void main(String[] args) {
     Dotenv dotenv = Dotenv.load();
     dotenv.entries().forEach(entry -> System.setProperty(entry.getKey(), entry.getValue()));
 
     SpringApplication.run(LibraryApiApplication.class, args);
   }
+
+  // Offline catalog loads: --import=books.csv (or .ndjson) imports each file on startup
+  @Bean
+  public ApplicationRunner catalogImportRunner(BookImportService bookImportService) {
+    return args -> {
+      if (!args.containsOption("import")) {
+        return;
+      }
+      for (String file : args.getOptionValues("import")) {
+        ImportReport report = bookImportService.importFile(Path.of(file));
+        log.info(
+            "Imported {}: {} books imported, {} rows rejected",
+            file,
+            report.getImported(),
+            report.getRejected());
+        report
+            .getRejectedLines()
+            .forEach(rejected -> log.warn("Line {}: {}", rejected.getLine(), rejected.getErrors()));
+      }
+    };
+  }
 }
@@ -0,0 +1,26 @@
+package com.jpereira30.library_api.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jpereira30.library_api.entity.Book;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+  // Bounded cache of books by ID, evicted by size and age. Entries are futures, so a book can be
+  // loaded outside the cache's locks while concurrent readers wait for it.
+  @Bean
+  public AsyncCache<Long, Book> bookCache(
+      @Value("${library.cache.books.maximum-size:10000}") long maximumSize,
+      @Value("${library.cache.books.expire-after-write:10m}") Duration expireAfterWrite) {
+    return Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .buildAsync();
+  }
+}
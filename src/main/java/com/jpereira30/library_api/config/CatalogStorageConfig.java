@@ -0,0 +1,37 @@
+package com.jpereira30.library_api.config;
+
+import com.jpereira30.library_api.service.CatalogSnapshotService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+// Persistent catalog storage: a node without a database file is seeded from
+// library.storage.restore-from, if set
+@Configuration
+@Profile("persistent")
+public class CatalogStorageConfig {
+
+  // Runs before any bean is created, so the file is in place before the database is opened
+  @Bean
+  public static BeanFactoryPostProcessor catalogSnapshotRestore(Environment environment) {
+    return beanFactory -> {
+      String snapshot = environment.getProperty("library.storage.restore-from", "");
+      if (snapshot.isBlank()) {
+        return;
+      }
+      try {
+        CatalogSnapshotService.restore(
+            Path.of(snapshot),
+            Path.of(environment.getRequiredProperty("library.storage.dir")),
+            environment.getRequiredProperty("library.storage.database"));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not restore snapshot " + snapshot, e);
+      }
+    };
+  }
+}
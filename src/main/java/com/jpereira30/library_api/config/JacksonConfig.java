@@ -0,0 +1,46 @@
+package com.jpereira30.library_api.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.jpereira30.library_api.dto.BookSummary;
+import com.jpereira30.library_api.entity.Book;
+import java.util.Collection;
+import java.util.Set;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+// Sparse fieldsets: books and book summaries are written through a property filter, which writes
+// every field unless a response asks for only some of them (?fields=)
+@Configuration
+public class JacksonConfig {
+
+  static final String BOOK_FIELDS_FILTER = "bookFields";
+
+  @JsonFilter(BOOK_FIELDS_FILTER)
+  interface BookFieldsMixin {}
+
+  @Bean
+  public Jackson2ObjectMapperBuilderCustomizer bookFieldsFilter() {
+    return builder ->
+        builder
+            .mixIn(Book.class, BookFieldsMixin.class)
+            .mixIn(BookSummary.class, BookFieldsMixin.class)
+            .filters(
+                new SimpleFilterProvider()
+                    .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+  }
+
+  // Response body writing only the given fields of each book in it
+  public static MappingJacksonValue withFields(Object body, Collection<String> fields) {
+    MappingJacksonValue value = new MappingJacksonValue(body);
+    value.setFilters(
+        new SimpleFilterProvider()
+            .addFilter(
+                BOOK_FIELDS_FILTER,
+                SimpleBeanPropertyFilter.filterOutAllExcept(Set.copyOf(fields))));
+    return value;
+  }
+}
@@ -0,0 +1,29 @@
+package com.jpereira30.library_api.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.jpereira30.library_api.entity.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Metrics not covered by Spring Boot's auto-configuration. Endpoint latencies come from
+// http.server.requests and repository timings from spring.data.repository.invocations.
+@Configuration
+public class MetricsConfig {
+
+  // Size, hit, miss and eviction counts of the book lookup cache
+  @Bean
+  public MeterBinder bookCacheMetrics(AsyncCache<Long, Book> bookCache) {
+    return registry -> CaffeineCacheMetrics.monitor(registry, bookCache, "books");
+  }
+
+  // Static so repository factory beans are post-processed before the registry is created
+  @Bean
+  public static RepositoryRowMetricsPostProcessor repositoryRowMetricsPostProcessor(
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    return new RepositoryRowMetricsPostProcessor(meterRegistry);
+  }
+}
@@ -0,0 +1,73 @@
+package com.jpereira30.library_api.config;
+
+import io.netty.channel.ChannelOption;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class OpenAIClientConfig {
+
+  // Dedicated connection pool for the OpenAI API, so insight traffic cannot starve other clients.
+  // Idle connections are evicted before typical server and load balancer idle timeouts close them.
+  @Bean(destroyMethod = "dispose")
+  public ConnectionProvider openAIConnectionProvider(
+      @Value("${openai.client.pool.max-connections:100}") int maxConnections,
+      @Value("${openai.client.pool.pending-acquire-max:500}") int pendingAcquireMax,
+      @Value("${openai.client.pool.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+      @Value("${openai.client.pool.max-idle-time:30s}") Duration maxIdleTime,
+      @Value("${openai.client.pool.max-life-time:5m}") Duration maxLifeTime) {
+    return ConnectionProvider.builder("openai")
+        .maxConnections(maxConnections)
+        .pendingAcquireMaxCount(pendingAcquireMax)
+        .pendingAcquireTimeout(pendingAcquireTimeout)
+        .maxIdleTime(maxIdleTime)
+        .maxLifeTime(maxLifeTime)
+        .evictInBackground(maxIdleTime)
+        .lifo()
+        .metrics(true)
+        .build();
+  }
+
+  // WebClient for the OpenAI API with the base URL and headers shared by every request; the
+  // timeouts apply to each attempt, retries are added by AIService
+  @Bean
+  public WebClient openAIWebClient(
+      WebClient.Builder webClientBuilder,
+      ConnectionProvider openAIConnectionProvider,
+      @Value("${openai.api.url}") String apiUrl,
+      @Value("${openai.api.key}") String apiKey,
+      @Value("${openai.client.connect-timeout:2s}") Duration connectTimeout,
+      @Value("${openai.client.read-timeout:8s}") Duration readTimeout) {
+    return webClientBuilder
+        .clientConnector(
+            new ReactorClientHttpConnector(
+                httpClient(openAIConnectionProvider, connectTimeout, readTimeout)))
+        .baseUrl(apiUrl)
+        .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+        .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+        .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+        .build();
+  }
+
+  // HTTP/2 is negotiated over TLS and falls back to HTTP/1.1 keep-alive; responses may be gzipped
+  public static HttpClient httpClient(
+      ConnectionProvider connectionProvider, Duration connectTimeout, Duration readTimeout) {
+    return HttpClient.create(connectionProvider)
+        .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+        .compress(true)
+        .keepAlive(true)
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+        .option(ChannelOption.SO_KEEPALIVE, true)
+        .option(ChannelOption.TCP_NODELAY, true)
+        .responseTimeout(readTimeout);
+  }
+}
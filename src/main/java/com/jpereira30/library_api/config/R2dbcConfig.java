@@ -0,0 +1,48 @@
+package com.jpereira30.library_api.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+// R2DBC access for the reactive stack, built from the spring.r2dbc.* properties. Spring Boot's
+// DataSource auto-configuration, which JPA and Flyway rely on, backs off as soon as a
+// ConnectionFactory bean exists, so the pool stays private to this class and only the
+// DatabaseClient is a bean. The pool opens connections on first use.
+@Configuration
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class R2dbcConfig {
+
+  private ConnectionPool connectionPool;
+
+  @Bean
+  public DatabaseClient databaseClient(R2dbcProperties properties) {
+    ConnectionFactory connectionFactory =
+        ConnectionFactoryBuilder.withUrl(properties.getUrl())
+            .username(properties.getUsername())
+            .password(properties.getPassword())
+            .build();
+    R2dbcProperties.Pool pool = properties.getPool();
+    connectionPool =
+        new ConnectionPool(
+            ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .build());
+    return DatabaseClient.create(connectionPool);
+  }
+
+  @PreDestroy
+  public void closeConnectionPool() {
+    if (connectionPool != null) {
+      connectionPool.dispose();
+    }
+  }
+}
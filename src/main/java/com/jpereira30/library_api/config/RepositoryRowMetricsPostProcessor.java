@@ -0,0 +1,98 @@
+package com.jpereira30.library_api.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Records the rows returned or affected by each repository method as the {@code
+ * library.repository.rows} summary, tagged by repository and method.
+ *
+ * <p>Collections and iterables count their elements, optionals count zero or one, and modifying
+ * queries count the affected rows. Streams are not counted, since that would consume them.
+ */
+public class RepositoryRowMetricsPostProcessor implements BeanPostProcessor {
+
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+
+  public RepositoryRowMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Object postProcessBeforeInitialization(Object bean, String beanName) {
+    if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+      factoryBean.addRepositoryFactoryCustomizer(
+          factory ->
+              factory.addRepositoryProxyPostProcessor(
+                  (proxyFactory, repositoryInformation) ->
+                      proxyFactory.addAdvice(
+                          new RowCountInterceptor(
+                              meterRegistry,
+                              repositoryInformation.getRepositoryInterface().getSimpleName()))));
+    }
+    return bean;
+  }
+
+  private static class RowCountInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final String repository;
+
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    RowCountInterceptor(ObjectProvider<MeterRegistry> meterRegistry, String repository) {
+      this.meterRegistry = meterRegistry;
+      this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+      Object result = invocation.proceed();
+      long rows = rows(result);
+      if (rows >= 0) {
+        summaries.computeIfAbsent(invocation.getMethod(), this::summary).record(rows);
+      }
+      return result;
+    }
+
+    private DistributionSummary summary(Method method) {
+      return DistributionSummary.builder("library.repository.rows")
+          .description("Rows returned or affected by repository methods")
+          .tag("repository", repository)
+          .tag("method", method.getName())
+          .register(meterRegistry.getObject());
+    }
+
+    // Row count of a repository result, or -1 when it cannot be counted
+    private static long rows(Object result) {
+      if (result instanceof Collection<?> collection) {
+        return collection.size();
+      }
+      if (result instanceof Optional<?> optional) {
+        return optional.isPresent() ? 1 : 0;
+      }
+      if (result instanceof Integer count) {
+        return count;
+      }
+      if (result instanceof Iterable<?> iterable) {
+        long count = 0;
+        for (Object ignored : iterable) {
+          count++;
+        }
+        return count;
+      }
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.jpereira30.library_api.config;
+
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+// Scheduler for the blocking work (JPA lookups and stores) inside reactive insight pipelines.
+// Follows spring.threads.virtual.enabled, which also moves Tomcat and the async task executor to
+// virtual threads.
+@Configuration
+public class ThreadingConfig {
+
+  // One virtual thread per task, so blocked lookups do not queue behind a bounded pool
+  @Bean(destroyMethod = "dispose")
+  @ConditionalOnThreading(Threading.VIRTUAL)
+  public Scheduler virtualBlockingScheduler() {
+    return Schedulers.fromExecutorService(
+        Executors.newVirtualThreadPerTaskExecutor(), "blocking-virtual");
+  }
+
+  // Reactor's shared bounded elastic pool; shared, so it is not disposed with the context
+  @Bean(destroyMethod = "")
+  @ConditionalOnThreading(Threading.PLATFORM)
+  public Scheduler platformBlockingScheduler() {
+    return Schedulers.boundedElastic();
+  }
+}
@@ -1,37 +1,97 @@
 package com.jpereira30.library_api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jpereira30.library_api.config.JacksonConfig;
+import com.jpereira30.library_api.dto.BookBatchResult;
+import com.jpereira30.library_api.dto.BookSummary;
+import com.jpereira30.library_api.dto.BulkItemResult;
+import com.jpereira30.library_api.dto.ImportReport;
 import com.jpereira30.library_api.entity.Book;
-import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.exception.BookNotFoundException;
+import com.jpereira30.library_api.exception.BookVersionConflictException;
+import com.jpereira30.library_api.exception.DuplicateIsbnException;
+import com.jpereira30.library_api.exception.InsightsUnavailableException;
+import com.jpereira30.library_api.service.BookBulkService;
+import com.jpereira30.library_api.service.BookExportService;
+import com.jpereira30.library_api.service.BookImportService;
 import com.jpereira30.library_api.service.BookService;
+import com.jpereira30.library_api.service.CatalogFormat;
+import com.jpereira30.library_api.service.CatalogVersion;
+import com.jpereira30.library_api.service.InsightService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/books")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "Books", description = "API endpoints for managing books")
 public class BookController {
 
+  static final String NEXT_AFTER_HEADER = "X-Next-After";
+
+  static final String TEXT_CSV_VALUE = "text/csv";
+
   private final BookService bookService;
 
-  private final AIService aiService;
+  private final BookBulkService bookBulkService;
+
+  private final BookImportService bookImportService;
+
+  private final BookExportService bookExportService;
+
+  private final InsightService insightService;
+
+  private final CatalogVersion catalogVersion;
 
-  public BookController(BookService bookService, AIService aiService) {
+  private final ObjectMapper objectMapper;
+
+  public BookController(
+      BookService bookService,
+      BookBulkService bookBulkService,
+      BookImportService bookImportService,
+      BookExportService bookExportService,
+      InsightService insightService,
+      CatalogVersion catalogVersion,
+      ObjectMapper objectMapper) {
     this.bookService = bookService;
-    this.aiService = aiService;
+    this.bookBulkService = bookBulkService;
+    this.bookImportService = bookImportService;
+    this.bookExportService = bookExportService;
+    this.insightService = insightService;
+    this.catalogVersion = catalogVersion;
+    this.objectMapper = objectMapper;
   }
 
   // Create new book
@@ -39,41 +99,239 @@ public class BookController {
   @Operation(summary = "Create a new book", description = "Adds a new book to the library")
   public ResponseEntity<Book> createBook(@Valid @RequestBody Book book) {
     Book newBook = bookService.createBook(book);
-    return ResponseEntity.ok(newBook);
+    return ResponseEntity.ok().eTag(etag(newBook)).body(newBook);
+  }
+
+  // Create books in bulk
+  @PostMapping("/bulk")
+  @Operation(
+      summary = "Create books in bulk",
+      description =
+          "Validates each book and creates the valid ones, returning one result per book in"
+              + " request order")
+  public ResponseEntity<List<BulkItemResult>> createBooks(@RequestBody List<Book> books) {
+    return ResponseEntity.ok(bookBulkService.createBooks(books));
+  }
+
+  // Update books in bulk
+  @PutMapping("/bulk")
+  @Operation(
+      summary = "Update books in bulk",
+      description =
+          "Validates each book and updates the valid ones by ID, returning one result per book"
+              + " in request order")
+  public ResponseEntity<List<BulkItemResult>> updateBooks(@RequestBody List<Book> books) {
+    return ResponseEntity.ok(bookBulkService.updateBooks(books));
+  }
+
+  // Delete books in bulk
+  @DeleteMapping("/bulk")
+  @Operation(
+      summary = "Delete books in bulk",
+      description = "Deletes the books with the given IDs, returning one result per ID")
+  public ResponseEntity<List<BulkItemResult>> deleteBooks(@RequestBody List<Long> ids) {
+    return ResponseEntity.ok(bookBulkService.deleteBooks(ids));
   }
 
-  // Retrieve all books
+  // Import books from a CSV or NDJSON stream
+  @PostMapping(
+      value = "/import",
+      consumes = {TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  @Operation(
+      summary = "Import books",
+      description =
+          "Streams a CSV file (with a header row) or newline-delimited JSON into the library,"
+              + " validating each row and reporting rejected lines")
+  public ResponseEntity<ImportReport> importBooks(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body)
+      throws IOException {
+    CatalogFormat format =
+        contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+            ? CatalogFormat.NDJSON
+            : CatalogFormat.CSV;
+    return ResponseEntity.ok(bookImportService.importBooks(body, format));
+  }
+
+  // Export the whole catalog as CSV or NDJSON
+  @GetMapping("/export")
+  @Operation(
+      summary = "Export books",
+      description = "Streams every book as CSV or newline-delimited JSON, optionally gzip-encoded")
+  public ResponseEntity<StreamingResponseBody> exportBooks(
+      @RequestParam(required = false, defaultValue = "ndjson") String format,
+      @RequestParam(required = false, defaultValue = "false") boolean gzip) {
+    Optional<CatalogFormat> catalogFormat = CatalogFormat.fromName(format);
+    if (catalogFormat.isEmpty()) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    CatalogFormat exportFormat = catalogFormat.get();
+    ResponseEntity.BodyBuilder response =
+        ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment()
+                    .filename("books" + exportFormat.getExtension())
+                    .build()
+                    .toString());
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(
+        outputStream -> bookExportService.export(outputStream, exportFormat, gzip));
+  }
+
+  // Retrieve all books, or a keyset page when a limit is given
   @GetMapping
   @Operation(
       summary = "Retrieve all books",
-      description = "Fetches a list of all books in the library")
-  public ResponseEntity<List<Book>> retrieveAllBooks() {
-    return ResponseEntity.ok(bookService.retrieveAllBooks());
+      description =
+          "Fetches a list of all books in the library. When 'limit' is given, returns at most"
+              + " that many books with an ID greater than 'after', and sets the X-Next-After"
+              + " header when more books may follow. 'fields' limits each book to the given"
+              + " comma-separated fields. Answers 304 while the catalog is unchanged.")
+  public ResponseEntity<Object> retrieveAllBooks(
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false, defaultValue = "") List<String> fields,
+      WebRequest webRequest) {
+    if (!BookService.FIELDS.containsAll(fields)) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (catalogNotModified(webRequest)) {
+      return null;
+    }
+    boolean summaries = BookService.summaryCovers(fields);
+    if (limit == null) {
+      return withFields(
+          ResponseEntity.ok(),
+          summaries ? bookService.retrieveBookSummaries() : bookService.retrieveAllBooks(),
+          fields);
+    }
+
+    return summaries
+        ? keysetPage(
+            bookService.retrieveBookSummariesAfter(after, limit), limit, BookSummary::id, fields)
+        : keysetPage(bookService.retrieveBooksAfter(after, limit), limit, Book::getId, fields);
+  }
+
+  // Retrieve several books by ID in one request
+  @GetMapping(params = "ids")
+  @Operation(
+      summary = "Retrieve books by IDs",
+      description =
+          "Fetches the books with the given comma-separated IDs (at most 1000) in the order"
+              + " requested, and lists the IDs that were not found. Answers 304 while the catalog"
+              + " is unchanged.")
+  public ResponseEntity<BookBatchResult> retrieveBooksByIds(
+      @RequestParam List<Long> ids, WebRequest webRequest) {
+    if (catalogNotModified(webRequest)) {
+      return null;
+    }
+    return batchGet(ids);
+  }
+
+  // Retrieve several books by ID, for ID lists too long for a query string
+  @PostMapping("/batch-get")
+  @Operation(
+      summary = "Retrieve books by IDs",
+      description =
+          "Fetches the books with the given IDs (at most 1000) in the order requested, and lists"
+              + " the IDs that were not found")
+  public ResponseEntity<BookBatchResult> batchGetBooks(@RequestBody List<Long> ids) {
+    return batchGet(ids);
+  }
+
+  // Stream all books as newline-delimited JSON
+  @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(
+      summary = "Stream all books",
+      description = "Streams every book in the library as newline-delimited JSON")
+  public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+    StreamingResponseBody body =
+        outputStream -> {
+          ObjectWriter writer =
+              objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+          try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            bookService.streamAllBooks(
+                book -> {
+                  try {
+                    writer.writeValue(generator, book);
+                    generator.writeRaw('\n');
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+          }
+        };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
   }
 
   // Retrieve single  book by ID
   @GetMapping("/{id}")
   @Operation(
       summary = "Retrieve a book by ID",
-      description = "Fetches the details of a single book by its ID")
-  public ResponseEntity<Book> getBookById(@PathVariable Long id) {
-    return bookService
-        .retrieveBookById(id)
-        .map(ResponseEntity::ok)
-        .orElseGet(() -> ResponseEntity.notFound().build());
+      description =
+          "Fetches the details of a single book by its ID. Answers 304 when If-None-Match or"
+              + " If-Modified-Since shows the client's copy is current.")
+  public ResponseEntity<Book> getBookById(@PathVariable Long id, WebRequest webRequest) {
+    Optional<Book> book = bookService.retrieveBookById(id);
+    if (book.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    return notModified(webRequest, book.get()) ? null : ResponseEntity.ok(book.get());
+  }
+
+  // Retrieve a book by ISBN
+  @GetMapping("/isbn/{isbn}")
+  @Operation(
+      summary = "Retrieve a book by ISBN",
+      description =
+          "Fetches the details of a single book by its ISBN. Answers 304 when If-None-Match or"
+              + " If-Modified-Since shows the client's copy is current.")
+  public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn, WebRequest webRequest) {
+    Optional<Book> book = bookService.retrieveBookByIsbn(isbn);
+    if (book.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    return notModified(webRequest, book.get()) ? null : ResponseEntity.ok(book.get());
   }
 
   // Update book
   @PutMapping("/{id}")
   @Operation(
       summary = "Update a book",
-      description = "Updates the details of an existing book by its ID")
-  public ResponseEntity<Book> updateBook(@PathVariable Long id, @Valid @RequestBody Book book) {
+      description =
+          "Updates the details of an existing book by its ID. If the book includes a version,"
+              + " the update is rejected with 409 when the stored book has moved on. An If-Match"
+              + " ETag takes the place of the version, and a mismatch is answered with 412.")
+  public ResponseEntity<Book> updateBook(
+      @PathVariable Long id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @Valid @RequestBody Book book) {
+    boolean conditional = ifMatch != null && !ifMatch.isBlank();
+    if (conditional && !ifMatch.strip().equals("*")) {
+      Long version = versionOf(ifMatch);
+      if (version == null) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+      }
+      book.setVersion(version);
+    }
     try {
       Book updatedBook = bookService.updateBook(id, book);
-      return ResponseEntity.ok(updatedBook);
-    } catch (RuntimeException e) {
-      return ResponseEntity.notFound().build();
+      return ResponseEntity.ok().eTag(etag(updatedBook)).body(updatedBook);
+    } catch (DuplicateIsbnException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    } catch (BookVersionConflictException e) {
+      return ResponseEntity.status(
+              conditional ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+          .build();
+    } catch (BookNotFoundException e) {
+      return conditional
+          ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()
+          : ResponseEntity.notFound().build();
     }
   }
 
@@ -89,35 +347,177 @@ public class BookController {
     }
   }
 
-  // Search books by title or author
+  // Search books by title or author, or by free text across all fields
   @GetMapping("/search")
   @Operation(
       summary = "Search for books",
-      description = "Searches for books by title and/or author")
-  public ResponseEntity<List<Book>> searchBooks(
+      description =
+          "Searches for books by title and/or author, or by words in the title, author or"
+              + " description when 'q' is given. Words match as prefixes and results are ranked"
+              + " by relevance, returning at most 'limit' of the best matches. 'fields' limits"
+              + " each book to the given comma-separated fields. Answers 304 while the catalog"
+              + " is unchanged.")
+  public ResponseEntity<Object> searchBooks(
       @RequestParam(required = false, defaultValue = "") String title,
-      @RequestParam(required = false, defaultValue = "") String author) {
-    return ResponseEntity.ok(bookService.searchBooks(title, author));
+      @RequestParam(required = false, defaultValue = "") String author,
+      @RequestParam(required = false, defaultValue = "") String q,
+      @RequestParam(required = false, defaultValue = "50") int limit,
+      @RequestParam(required = false, defaultValue = "") List<String> fields,
+      WebRequest webRequest) {
+    if (!BookService.FIELDS.containsAll(fields)) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (catalogNotModified(webRequest)) {
+      return null;
+    }
+    List<?> books;
+    if (BookService.summaryCovers(fields)) {
+      books =
+          !q.isBlank()
+              ? bookService.searchBookSummaries(q, limit)
+              : bookService.searchBookSummaries(title, author, limit);
+    } else {
+      books =
+          !q.isBlank()
+              ? bookService.searchBooks(q, limit)
+              : bookService.searchBooks(title, author, limit);
+    }
+    return withFields(ResponseEntity.ok(), books, fields);
   }
 
+  // Browse books alphabetically by title or author prefix
+  @GetMapping("/browse")
+  @Operation(
+      summary = "Browse books by prefix",
+      description =
+          "Lists books whose title, or else author, starts with the given prefix ignoring case,"
+              + " in alphabetical order. Answers 304 while the catalog is unchanged.")
+  public ResponseEntity<List<Book>> browseBooks(
+      @RequestParam(required = false, defaultValue = "") String title,
+      @RequestParam(required = false, defaultValue = "") String author,
+      @RequestParam(required = false, defaultValue = "50") int limit,
+      WebRequest webRequest) {
+    if (title.isBlank() && author.isBlank()) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (catalogNotModified(webRequest)) {
+      return null;
+    }
+    return ResponseEntity.ok(bookService.browseBooks(title, author, limit));
+  }
+
+  // Responds asynchronously so no servlet thread waits on the AI provider
   @GetMapping("/{id}/ai-insights")
   @Operation(
       summary = "Get AI-generated insights for a book",
       description = "Retrieves an AI-generated tagline based on the book's description.")
-  public ResponseEntity<Map<String, Object>> getAIInsights(@PathVariable Long id) {
+  public Mono<ResponseEntity<Map<String, Object>>> getAIInsights(@PathVariable Long id) {
     Optional<Book> optionalBook = bookService.retrieveBookById(id);
 
     if (optionalBook.isEmpty()) {
-      return ResponseEntity.notFound().build();
+      return Mono.just(ResponseEntity.notFound().build());
     }
 
     Book book = optionalBook.get();
-    String description = book.getDescription();
-    String insights = aiService.generateInsights(description).block();
+    return insightService
+        .generateInsights(book.getDescription())
+        .map(insights -> ResponseEntity.ok(Map.of("book", book, "insights", insights)));
+  }
+
+  // Forwards tokens as server-sent events while the AI provider generates them
+  @GetMapping(value = "/{id}/ai-insights/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary = "Stream AI-generated insights for a book",
+      description =
+          "Streams the tagline as it is generated: a 'token' event per chunk, then a 'done' event"
+              + " with the full tagline, or an 'error' event if generation fails.")
+  public ResponseEntity<Flux<ServerSentEvent<String>>> streamAIInsights(@PathVariable Long id) {
+    Optional<Book> optionalBook = bookService.retrieveBookById(id);
+
+    if (optionalBook.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
 
-    Map<String, Object> response =
-        Map.of("book", book, "insights", insights != null ? insights : "No insights available");
+    StringBuilder insights = new StringBuilder();
+    Flux<ServerSentEvent<String>> events =
+        insightService
+            .streamInsights(optionalBook.get().getDescription())
+            .doOnNext(insights::append)
+            .map(token -> ServerSentEvent.builder(token).event("token").build())
+            .concatWith(
+                Mono.fromSupplier(
+                    () ->
+                        ServerSentEvent.builder(
+                                insights.isEmpty()
+                                    ? InsightService.NO_INSIGHTS
+                                    : insights.toString())
+                            .event("done")
+                            .build()))
+            .onErrorResume(
+                e ->
+                    Mono.just(
+                        ServerSentEvent.builder(
+                                e instanceof InsightsUnavailableException
+                                    ? e.getMessage()
+                                    : "Failed to generate insights.")
+                            .event("error")
+                            .build()));
+    return ResponseEntity.ok(events);
+  }
+
+  // A book's ETag: its version, which every update increments
+  static String etag(Book book) {
+    return "\"" + book.getVersion() + "\"";
+  }
+
+  // The version a single strong ETag in If-Match stands for, or null when it names none
+  static Long versionOf(String ifMatch) {
+    String etag = ifMatch.strip();
+    if (etag.length() < 3 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+      return null;
+    }
+    try {
+      return Long.valueOf(etag.substring(1, etag.length() - 1));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
 
-    return ResponseEntity.ok(response);
+  // Whether the client's copy of the book is current; sets its ETag and Last-Modified otherwise
+  private static boolean notModified(WebRequest webRequest, Book book) {
+    long lastModified = book.getUpdatedAt() != null ? book.getUpdatedAt().toEpochMilli() : -1;
+    return webRequest.checkNotModified(etag(book), lastModified);
+  }
+
+  // Whether the client's copy of a collection response is current, judged by the catalog version
+  // before any book is read; sets the catalog's ETag and Last-Modified otherwise
+  private boolean catalogNotModified(WebRequest webRequest) {
+    CatalogVersion.Snapshot catalog = catalogVersion.current();
+    return webRequest.checkNotModified(catalog.etag(), catalog.lastModified().toEpochMilli());
+  }
+
+  // Sets X-Next-After to the last ID when the page is full, as more books may follow
+  private static <T> ResponseEntity<Object> keysetPage(
+      List<T> page, int limit, Function<T, Long> id, List<String> fields) {
+    if (page.isEmpty() || page.size() < Math.clamp(limit, 1, BookService.MAX_PAGE_SIZE)) {
+      return withFields(ResponseEntity.ok(), page, fields);
+    }
+    return withFields(
+        ResponseEntity.ok().header(NEXT_AFTER_HEADER, String.valueOf(id.apply(page.getLast()))),
+        page,
+        fields);
+  }
+
+  // Every field of each book unless the client selected some with ?fields=
+  private static ResponseEntity<Object> withFields(
+      ResponseEntity.BodyBuilder response, List<?> books, List<String> fields) {
+    return response.body(fields.isEmpty() ? books : JacksonConfig.withFields(books, fields));
+  }
+
+  private ResponseEntity<BookBatchResult> batchGet(List<Long> ids) {
+    if (ids.size() > BookService.MAX_PAGE_SIZE || ids.contains(null)) {
+      return ResponseEntity.badRequest().build();
+    }
+    return ResponseEntity.ok(bookService.retrieveBooksByIds(ids));
   }
 }
@@ -0,0 +1,362 @@
+package com.jpereira30.library_api.controller;
+
+import com.jpereira30.library_api.config.JacksonConfig;
+import com.jpereira30.library_api.dto.BookSummary;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.exception.BookNotFoundException;
+import com.jpereira30.library_api.exception.BookVersionConflictException;
+import com.jpereira30.library_api.exception.DuplicateIsbnException;
+import com.jpereira30.library_api.exception.InsightsUnavailableException;
+import com.jpereira30.library_api.service.BookService;
+import com.jpereira30.library_api.service.CatalogVersion;
+import com.jpereira30.library_api.service.InsightService;
+import com.jpereira30.library_api.service.ReactiveBookService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Handlers for the functional /books routes of the reactive stack. Responses match BookController
+// for the same requests. Nothing here waits on the AI provider, but the H2 R2DBC driver runs its
+// statements on the subscribing thread and searches briefly take the index's read lock, so those
+// steps still run on the event loop.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class BookHandler {
+
+  private final ReactiveBookService bookService;
+
+  private final InsightService insightService;
+
+  private final CatalogVersion catalogVersion;
+
+  private final Validator validator;
+
+  public BookHandler(
+      ReactiveBookService bookService,
+      InsightService insightService,
+      CatalogVersion catalogVersion,
+      Validator validator) {
+    this.bookService = bookService;
+    this.insightService = insightService;
+    this.catalogVersion = catalogVersion;
+    this.validator = validator;
+  }
+
+  // Create new book
+  public Mono<ServerResponse> createBook(ServerRequest request) {
+    return request
+        .bodyToMono(Book.class)
+        .flatMap(
+            book -> {
+              Map<String, String> errors = validate(book);
+              if (!errors.isEmpty()) {
+                return ServerResponse.badRequest().bodyValue(errors);
+              }
+              return bookService
+                  .createBook(book)
+                  .flatMap(
+                      created ->
+                          ServerResponse.ok()
+                              .eTag(BookController.etag(created))
+                              .bodyValue(created));
+            })
+        .switchIfEmpty(ServerResponse.badRequest().build())
+        .onErrorResume(
+            DuplicateIsbnException.class,
+            e -> ServerResponse.status(HttpStatus.CONFLICT).bodyValue(e.getMessage()));
+  }
+
+  // Retrieve all books, or a keyset page when a limit is given
+  public Mono<ServerResponse> retrieveAllBooks(ServerRequest request) {
+    List<String> fields = fields(request);
+    if (!BookService.FIELDS.containsAll(fields)) {
+      return ServerResponse.badRequest().build();
+    }
+    boolean summaries = BookService.summaryCovers(fields);
+    Integer limit = intParam(request, "limit").orElse(null);
+    if (limit == null) {
+      if (fields.isEmpty()) {
+        return ServerResponse.ok().body(bookService.retrieveAllBooks(), Book.class);
+      }
+      return withFields(
+          summaries ? bookService.retrieveBookSummaries() : bookService.retrieveAllBooks(), fields);
+    }
+
+    Long after = longParam(request, "after").orElse(null);
+    return summaries
+        ? keysetPage(
+            bookService.retrieveBookSummariesAfter(after, limit), limit, BookSummary::id, fields)
+        : keysetPage(bookService.retrieveBooksAfter(after, limit), limit, Book::getId, fields);
+  }
+
+  // Retrieve several books by ID, from ?ids=1,2,3 or a JSON array body
+  public Mono<ServerResponse> retrieveBooksByIds(ServerRequest request) {
+    List<Long> ids = new ArrayList<>();
+    for (String value : request.queryParams().getOrDefault("ids", List.of())) {
+      for (String id : value.split(",")) {
+        ids.add(parseId(id.trim()));
+      }
+    }
+    return batchGet(ids);
+  }
+
+  // Retrieve several books by ID, for ID lists too long for a query string
+  public Mono<ServerResponse> batchGetBooks(ServerRequest request) {
+    return request
+        .bodyToMono(new ParameterizedTypeReference<List<Long>>() {})
+        .flatMap(this::batchGet)
+        .switchIfEmpty(ServerResponse.badRequest().build());
+  }
+
+  // Retrieve single book by ID; 304 when the client's copy is current
+  public Mono<ServerResponse> getBookById(ServerRequest request) {
+    return bookService
+        .retrieveBookById(bookId(request))
+        .flatMap(book -> okUnlessNotModified(request, book))
+        .switchIfEmpty(ServerResponse.notFound().build());
+  }
+
+  // Retrieve a book by ISBN; 304 when the client's copy is current
+  public Mono<ServerResponse> getBookByIsbn(ServerRequest request) {
+    return bookService
+        .retrieveBookByIsbn(request.pathVariable("isbn"))
+        .flatMap(book -> okUnlessNotModified(request, book))
+        .switchIfEmpty(ServerResponse.notFound().build());
+  }
+
+  // Update book; 409 when the book carries a stale version or another book holds the ISBN, 412
+  // when an If-Match ETag does not match the stored book
+  public Mono<ServerResponse> updateBook(ServerRequest request) {
+    Long id = bookId(request);
+    String ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+    boolean conditional = ifMatch != null && !ifMatch.isBlank();
+    Long ifMatchVersion = null;
+    if (conditional && !ifMatch.strip().equals("*")) {
+      ifMatchVersion = BookController.versionOf(ifMatch);
+      if (ifMatchVersion == null) {
+        return ServerResponse.status(HttpStatus.PRECONDITION_FAILED).build();
+      }
+    }
+    Long expectedVersion = ifMatchVersion;
+    return request
+        .bodyToMono(Book.class)
+        .flatMap(
+            book -> {
+              Map<String, String> errors = validate(book);
+              if (!errors.isEmpty()) {
+                return ServerResponse.badRequest().bodyValue(errors);
+              }
+              if (expectedVersion != null) {
+                book.setVersion(expectedVersion);
+              }
+              return bookService
+                  .updateBook(id, book)
+                  .flatMap(
+                      updated ->
+                          ServerResponse.ok()
+                              .eTag(BookController.etag(updated))
+                              .bodyValue(updated));
+            })
+        .switchIfEmpty(ServerResponse.badRequest().build())
+        .onErrorResume(
+            DuplicateIsbnException.class, e -> ServerResponse.status(HttpStatus.CONFLICT).build())
+        .onErrorResume(
+            BookVersionConflictException.class,
+            e ->
+                ServerResponse.status(
+                        conditional ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                    .build())
+        .onErrorResume(
+            BookNotFoundException.class,
+            e ->
+                conditional
+                    ? ServerResponse.status(HttpStatus.PRECONDITION_FAILED).build()
+                    : ServerResponse.notFound().build());
+  }
+
+  // Delete a book
+  public Mono<ServerResponse> deleteBook(ServerRequest request) {
+    return bookService
+        .deleteBook(bookId(request))
+        .then(ServerResponse.noContent().build())
+        .onErrorResume(BookNotFoundException.class, e -> ServerResponse.notFound().build());
+  }
+
+  // Search books by title or author, or by free text across all fields
+  public Mono<ServerResponse> searchBooks(ServerRequest request) {
+    List<String> fields = fields(request);
+    if (!BookService.FIELDS.containsAll(fields)) {
+      return ServerResponse.badRequest().build();
+    }
+    String q = request.queryParam("q").orElse("");
+    String title = request.queryParam("title").orElse("");
+    String author = request.queryParam("author").orElse("");
+    int limit = intParam(request, "limit").orElse(50);
+    if (BookService.summaryCovers(fields)) {
+      return withFields(
+          !q.isBlank()
+              ? bookService.searchBookSummaries(q, limit)
+              : bookService.searchBookSummaries(title, author, limit),
+          fields);
+    }
+    Flux<Book> books =
+        !q.isBlank()
+            ? bookService.searchBooks(q, limit)
+            : bookService.searchBooks(title, author, limit);
+    return fields.isEmpty()
+        ? ServerResponse.ok().body(books, Book.class)
+        : withFields(books, fields);
+  }
+
+  // Browse books alphabetically by title or author prefix
+  public Mono<ServerResponse> browseBooks(ServerRequest request) {
+    String title = request.queryParam("title").orElse("");
+    String author = request.queryParam("author").orElse("");
+    int limit = intParam(request, "limit").orElse(50);
+    if (title.isBlank() && author.isBlank()) {
+      return ServerResponse.badRequest().build();
+    }
+    return ServerResponse.ok().body(bookService.browseBooks(title, author, limit), Book.class);
+  }
+
+  // Looks the book up and waits for the AI provider without holding a thread
+  public Mono<ServerResponse> getAIInsights(ServerRequest request) {
+    return bookService
+        .retrieveBookById(bookId(request))
+        .flatMap(
+            book ->
+                insightService
+                    .generateInsights(book.getDescription())
+                    .flatMap(
+                        insights ->
+                            ServerResponse.ok()
+                                .bodyValue(Map.of("book", book, "insights", insights))))
+        .switchIfEmpty(ServerResponse.notFound().build())
+        .onErrorResume(
+            InsightsUnavailableException.class,
+            e -> ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE).bodyValue(e.getMessage()));
+  }
+
+  // Route filter for collection reads: 304 when the client's copy is current by the catalog
+  // version, before any book is read. The exchange carries the catalog's ETag and Last-Modified
+  // into the full response otherwise.
+  public Mono<ServerResponse> checkCatalogNotModified(
+      ServerRequest request, HandlerFunction<ServerResponse> next) {
+    CatalogVersion.Snapshot catalog = catalogVersion.current();
+    return request
+        .checkNotModified(catalog.lastModified(), catalog.etag())
+        .switchIfEmpty(Mono.defer(() -> next.handle(request)));
+  }
+
+  private static Mono<ServerResponse> okUnlessNotModified(ServerRequest request, Book book) {
+    String etag = BookController.etag(book);
+    Mono<ServerResponse> notModified =
+        book.getUpdatedAt() != null
+            ? request.checkNotModified(book.getUpdatedAt(), etag)
+            : request.checkNotModified(etag);
+    return notModified.switchIfEmpty(Mono.defer(() -> ServerResponse.ok().bodyValue(book)));
+  }
+
+  // Field errors in the shape GlobalExceptionHandler uses for invalid request bodies
+  private Map<String, String> validate(Book book) {
+    Map<String, String> errors = new HashMap<>();
+    for (ConstraintViolation<Book> violation : validator.validate(book)) {
+      errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+    }
+    return errors;
+  }
+
+  // Sets X-Next-After to the last ID when the page is full, as more books may follow
+  private static <T> Mono<ServerResponse> keysetPage(
+      Flux<T> books, int limit, Function<T, Long> id, List<String> fields) {
+    return books
+        .collectList()
+        .flatMap(
+            page -> {
+              Object body = fields.isEmpty() ? page : JacksonConfig.withFields(page, fields);
+              if (page.isEmpty() || page.size() < Math.clamp(limit, 1, BookService.MAX_PAGE_SIZE)) {
+                return ServerResponse.ok().bodyValue(body);
+              }
+              return ServerResponse.ok()
+                  .header(
+                      BookController.NEXT_AFTER_HEADER, String.valueOf(id.apply(page.getLast())))
+                  .bodyValue(body);
+            });
+  }
+
+  // Only the selected fields of each book; the books are collected to write them through a filter
+  private static Mono<ServerResponse> withFields(Flux<?> books, List<String> fields) {
+    return books
+        .collectList()
+        .flatMap(page -> ServerResponse.ok().bodyValue(JacksonConfig.withFields(page, fields)));
+  }
+
+  // Fields selected with ?fields=a,b,c, or none when every field is wanted
+  private static List<String> fields(ServerRequest request) {
+    List<String> fields = new ArrayList<>();
+    for (String value : request.queryParams().getOrDefault("fields", List.of())) {
+      for (String field : value.split(",")) {
+        if (!field.isBlank()) {
+          fields.add(field.trim());
+        }
+      }
+    }
+    return fields;
+  }
+
+  private Mono<ServerResponse> batchGet(List<Long> ids) {
+    if (ids.size() > BookService.MAX_PAGE_SIZE || ids.contains(null)) {
+      return ServerResponse.badRequest().build();
+    }
+    return bookService
+        .retrieveBooksByIds(ids)
+        .flatMap(result -> ServerResponse.ok().bodyValue(result));
+  }
+
+  private static Long bookId(ServerRequest request) {
+    return parseId(request.pathVariable("id"));
+  }
+
+  private static Optional<Integer> intParam(ServerRequest request, String name) {
+    return longParam(request, name)
+        .map(
+            value -> {
+              if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new ServerWebInputException(name + " is out of range");
+              }
+              return value.intValue();
+            });
+  }
+
+  private static Optional<Long> longParam(ServerRequest request, String name) {
+    try {
+      return request.queryParam(name).map(Long::valueOf);
+    } catch (NumberFormatException e) {
+      throw new ServerWebInputException(name + " must be a number");
+    }
+  }
+
+  private static Long parseId(String id) {
+    try {
+      return Long.valueOf(id);
+    } catch (NumberFormatException e) {
+      throw new ServerWebInputException("Book ID must be a number");
+    }
+  }
+}
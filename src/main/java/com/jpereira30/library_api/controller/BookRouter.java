@@ -0,0 +1,44 @@
+package com.jpereira30.library_api.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+// The /books API of the reactive stack (spring.main.web-application-type=reactive). Covers the
+// single-book, multi-get, lookup and insight routes of BookController; bulk, import, export and
+// streaming routes are only served by the servlet stack.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class BookRouter {
+
+  // Fixed paths are declared before /books/{id} so they are not taken for IDs. Collection reads
+  // are validated against the catalog version before they run.
+  @Bean
+  public RouterFunction<ServerResponse> bookRoutes(BookHandler handler) {
+    RouterFunction<ServerResponse> collections =
+        RouterFunctions.route()
+            .GET(
+                "/books",
+                RequestPredicates.queryParam("ids", ids -> true),
+                handler::retrieveBooksByIds)
+            .GET("/books", handler::retrieveAllBooks)
+            .GET("/books/search", handler::searchBooks)
+            .GET("/books/browse", handler::browseBooks)
+            .filter(handler::checkCatalogNotModified)
+            .build();
+    return RouterFunctions.route()
+        .add(collections)
+        .POST("/books", handler::createBook)
+        .POST("/books/batch-get", handler::batchGetBooks)
+        .GET("/books/isbn/{isbn}", handler::getBookByIsbn)
+        .GET("/books/{id}", handler::getBookById)
+        .PUT("/books/{id}", handler::updateBook)
+        .DELETE("/books/{id}", handler::deleteBook)
+        .GET("/books/{id}/ai-insights", handler::getAIInsights)
+        .build();
+  }
+}
@@ -0,0 +1,36 @@
+package com.jpereira30.library_api.controller;
+
+import com.jpereira30.library_api.service.CatalogSnapshotService;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// Operator endpoint for catalog snapshots, exposed at /actuator/snapshots
+@Component
+@Profile("persistent")
+@Endpoint(id = "snapshots")
+public class CatalogSnapshotEndpoint {
+
+  private final CatalogSnapshotService snapshotService;
+
+  public CatalogSnapshotEndpoint(CatalogSnapshotService snapshotService) {
+    this.snapshotService = snapshotService;
+  }
+
+  // List snapshot files, newest first
+  @ReadOperation
+  public List<String> snapshots() throws IOException {
+    return snapshotService.listSnapshots().stream().map(Path::toString).toList();
+  }
+
+  // Take a snapshot; returns its file
+  @WriteOperation
+  public String createSnapshot() throws IOException {
+    return snapshotService.createSnapshot().toString();
+  }
+}
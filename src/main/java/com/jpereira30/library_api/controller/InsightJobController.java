@@ -0,0 +1,45 @@
+package com.jpereira30.library_api.controller;
+
+import com.jpereira30.library_api.dto.InsightJobStatus;
+import com.jpereira30.library_api.service.InsightBatchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/books/ai-insights/batch")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Tag(name = "Insight batch", description = "API endpoints for generating insights in bulk")
+public class InsightJobController {
+
+  private final InsightBatchService insightBatchService;
+
+  public InsightJobController(InsightBatchService insightBatchService) {
+    this.insightBatchService = insightBatchService;
+  }
+
+  // Start generating insights for the whole catalog
+  @PostMapping
+  @Operation(
+      summary = "Start the insight batch",
+      description =
+          "Starts generating insights for every book in the background, unless a run is already"
+              + " in progress")
+  public ResponseEntity<InsightJobStatus> startBatch() {
+    return ResponseEntity.accepted().body(insightBatchService.start());
+  }
+
+  // Progress of the current or last run
+  @GetMapping
+  @Operation(
+      summary = "Get insight batch progress",
+      description = "Returns progress and throughput of the current or last insight batch")
+  public ResponseEntity<InsightJobStatus> getBatchStatus() {
+    return ResponseEntity.ok(insightBatchService.status());
+  }
+}
@@ -0,0 +1,23 @@
+package com.jpereira30.library_api.dto;
+
+import com.jpereira30.library_api.entity.Book;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+// Books found for a multi-get, in the order their IDs were requested, and the IDs not found
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class BookBatchResult {
+
+  private List<Book> books;
+  private List<Long> missing;
+}
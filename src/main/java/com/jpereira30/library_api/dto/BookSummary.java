@@ -0,0 +1,14 @@
+package com.jpereira30.library_api.dto;
+
+import java.time.Instant;
+
+// Book without its description, selected by the repository as a projection: only these columns
+// are read and no entity is managed, for list responses that do not ask for the description
+public record BookSummary(
+    Long id,
+    String title,
+    String author,
+    String isbn,
+    Integer publicationYear,
+    Long version,
+    Instant updatedAt) {}
@@ -0,0 +1,33 @@
+package com.jpereira30.library_api.dto;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+// Outcome of one item of a bulk request, at the same position as the item in the request
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class BulkItemResult {
+
+  public enum Status {
+    CREATED,
+    UPDATED,
+    DELETED,
+    INVALID,
+    NOT_FOUND,
+    CONFLICT
+  }
+
+  private int index;
+  private Long id;
+  private Status status;
+  private Map<String, String> errors;
+}
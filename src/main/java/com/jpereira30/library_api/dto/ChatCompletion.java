@@ -0,0 +1,23 @@
+package com.jpereira30.library_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// The parts of a chat completion, or of a streamed chunk, that the service uses
+@Setter
+@Getter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatCompletion {
+  // Message content of the first choice (delta content for a streamed chunk)
+  private String content;
+
+  // Token counts; only present on the last chunk of a stream
+  private Usage usage;
+}
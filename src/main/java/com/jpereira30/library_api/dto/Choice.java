@@ -1,14 +0,0 @@
-package com.jpereira30.library_api.dto;
-
-import lombok.EqualsAndHashCode;
-import lombok.Getter;
-import lombok.Setter;
-import lombok.ToString;
-
-@Setter
-@Getter
-@ToString
-@EqualsAndHashCode
-public class Choice {
-  private String text;
-}
@@ -0,0 +1,35 @@
+package com.jpereira30.library_api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// Summary of a catalog import; only the first rejected lines are listed
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class ImportReport {
+
+  @Getter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @ToString
+  @EqualsAndHashCode
+  public static class RejectedLine {
+    private long line;
+    private Map<String, String> errors;
+  }
+
+  private long imported;
+  private long rejected;
+  private List<RejectedLine> rejectedLines = new ArrayList<>();
+}
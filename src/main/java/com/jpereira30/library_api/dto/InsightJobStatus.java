@@ -0,0 +1,25 @@
+package com.jpereira30.library_api.dto;
+
+import com.jpereira30.library_api.entity.InsightJob;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class InsightJobStatus {
+  private InsightJob.Status status;
+  private boolean active;
+  private long lastBookId;
+  private long processed;
+  private long failed;
+  private Instant startedAt;
+  private Instant updatedAt;
+  private double booksPerSecond;
+}
@@ -1,15 +0,0 @@
-package com.jpereira30.library_api.dto;
-
-import java.util.List;
-import lombok.EqualsAndHashCode;
-import lombok.Getter;
-import lombok.Setter;
-import lombok.ToString;
-
-@Setter
-@Getter
-@ToString
-@EqualsAndHashCode
-public class OpenAIResponse {
-  private List<Choice> choices;
-}
@@ -0,0 +1,23 @@
+package com.jpereira30.library_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Setter
+@Getter
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class Usage {
+
+  private long promptTokens;
+
+  private long completionTokens;
+
+  private long totalTokens;
+}
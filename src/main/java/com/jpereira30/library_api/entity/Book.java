@@ -5,10 +5,16 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -24,11 +30,14 @@ import lombok.Setter;
 @Builder
 public class Book {
 
+  // Pooled sequence so Hibernate can batch inserts; IDENTITY would force one insert per row
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+  @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
   private Long id;
 
   @NotBlank(message = "Title is required")
+  @Size(max = 180, message = "Title must be at most 180 characters")
   @Column(nullable = false, length = 180)
   private String title;
 
@@ -38,6 +47,7 @@ public class Book {
 
   @NotBlank(message = "ISBN is required")
   @Size(min = 10, max = 13, message = "ISBN must be between 10 and 13 characters")
+  @Column(unique = true)
   private String isbn;
 
   @NotNull(message = "Publication year is required")
@@ -46,4 +56,42 @@ public class Book {
   @NotBlank(message = "Description is required")
   @Size(max = 500, message = "Description must be at most 500 characters")
   private String description;
+
+  // Incremented on every update; when a client sends it back, stale updates are rejected
+  @Version
+  @Column(nullable = false)
+  private Long version;
+
+  // Time of the latest insert or update, set by touch(); any client-supplied value is replaced
+  @Column(nullable = false)
+  private Instant updatedAt;
+
+  public Book(
+      Long id,
+      String title,
+      String author,
+      String isbn,
+      Integer publicationYear,
+      String description) {
+    this(id, title, author, isbn, publicationYear, description, null);
+  }
+
+  public Book(
+      Long id,
+      String title,
+      String author,
+      String isbn,
+      Integer publicationYear,
+      String description,
+      Long version) {
+    this(id, title, author, isbn, publicationYear, description, version, null);
+  }
+
+  // Stamps the time of a write, to the microsecond like the column. Writes that bypass the
+  // persistence context (single-statement updates, R2DBC) call it themselves.
+  @PrePersist
+  @PreUpdate
+  public void touch() {
+    updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+  }
 }
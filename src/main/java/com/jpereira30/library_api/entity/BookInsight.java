@@ -0,0 +1,36 @@
+package com.jpereira30.library_api.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Generated insight, keyed by a hash of the model and the prompt it was generated from
+@Entity
+@Table(name = "book_insights")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookInsight {
+
+  @Id
+  @Column(length = 64)
+  private String cacheKey;
+
+  @Column(nullable = false, length = 100)
+  private String model;
+
+  @Column(nullable = false, length = 1000)
+  private String insight;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+}
@@ -0,0 +1,52 @@
+package com.jpereira30.library_api.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Checkpoint of the catalog-wide insight batch, saved after every page so a run can resume
+@Entity
+@Table(name = "insight_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InsightJob {
+
+  public enum Status {
+    RUNNING,
+    COMPLETED
+  }
+
+  @Id private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private Status status;
+
+  // Highest book ID already processed
+  @Column(nullable = false)
+  private Long lastBookId;
+
+  @Column(nullable = false)
+  private Long processed;
+
+  @Column(nullable = false)
+  private Long failed;
+
+  @Column(nullable = false)
+  private Instant startedAt;
+
+  @Column(nullable = false)
+  private Instant updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.jpereira30.library_api.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// A book whose insight failed during the insight batch, kept so the run can try it again
+@Entity
+@Table(name = "insight_job_failures")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InsightJobFailure {
+
+  @Id private Long bookId;
+}
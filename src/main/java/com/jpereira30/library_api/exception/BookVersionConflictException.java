@@ -0,0 +1,8 @@
+package com.jpereira30.library_api.exception;
+
+public class BookVersionConflictException extends RuntimeException {
+
+  public BookVersionConflictException(Long id, Long version) {
+    super("Book with ID " + id + " is no longer at version " + version + ".");
+  }
+}
@@ -0,0 +1,8 @@
+package com.jpereira30.library_api.exception;
+
+public class DuplicateIsbnException extends RuntimeException {
+
+  public DuplicateIsbnException(String isbn) {
+    super("A book with ISBN " + isbn + " already exists.");
+  }
+}
@@ -8,6 +8,8 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ResponseStatusException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -19,6 +21,20 @@ public class GlobalExceptionHandler {
         .body("Internal server error: " + ex.getMessage());
   }
 
+  // Handle ResponseStatusException (e.g. ServerWebInputException) with its own status
+  @ExceptionHandler(ResponseStatusException.class)
+  public ResponseEntity<String> handleResponseStatusException(ResponseStatusException ex) {
+    return ResponseEntity.status(ex.getStatusCode()).body(ex.getReason());
+  }
+
+  // Handle malformed path variables and query parameters, e.g. ?limit=abc
+  @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+  public ResponseEntity<String> handleMethodArgumentTypeMismatchException(
+      MethodArgumentTypeMismatchException ex) {
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+        .body("Invalid value for " + ex.getName() + ": " + ex.getValue());
+  }
+
   // Handle validation exceptions
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<Map<String, String>> handleValidationException(
@@ -47,4 +63,17 @@ public class GlobalExceptionHandler {
   public ResponseEntity<String> handleBookNotFoundException(BookNotFoundException ex) {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
   }
+
+  // Handle DuplicateIsbnException
+  @ExceptionHandler(DuplicateIsbnException.class)
+  public ResponseEntity<String> handleDuplicateIsbnException(DuplicateIsbnException ex) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+  }
+
+  // Handle InsightsUnavailableException
+  @ExceptionHandler(InsightsUnavailableException.class)
+  public ResponseEntity<String> handleInsightsUnavailableException(
+      InsightsUnavailableException ex) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+  }
 }
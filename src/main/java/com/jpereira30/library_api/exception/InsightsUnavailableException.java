@@ -0,0 +1,12 @@
+package com.jpereira30.library_api.exception;
+
+public class InsightsUnavailableException extends RuntimeException {
+
+  public InsightsUnavailableException(String message) {
+    super(message);
+  }
+
+  public InsightsUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
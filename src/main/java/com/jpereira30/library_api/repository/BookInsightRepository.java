@@ -0,0 +1,20 @@
+package com.jpereira30.library_api.repository;
+
+import com.jpereira30.library_api.entity.BookInsight;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface BookInsightRepository extends JpaRepository<BookInsight, String> {
+
+  // Delete in a single statement the insights stored before the cutoff; returns the rows deleted
+  @Transactional
+  @Modifying
+  @Query("delete from BookInsight i where i.createdAt < :cutoff")
+  int deleteByCreatedAtBefore(@Param("cutoff") Instant cutoff);
+}
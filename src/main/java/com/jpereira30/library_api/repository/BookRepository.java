@@ -1,14 +1,103 @@
 package com.jpereira30.library_api.repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+import com.jpereira30.library_api.dto.BookSummary;
 import com.jpereira30.library_api.entity.Book;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
 
-  // Custom query to search by title or author
-  List<Book> findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(
-      String title, String author);
+  // Update in a single statement; returns the number of rows updated
+  @Transactional
+  @Modifying
+  @Query(
+      "update Book b set b.title = :#{#book.title}, b.author = :#{#book.author},"
+          + " b.isbn = :#{#book.isbn}, b.publicationYear = :#{#book.publicationYear},"
+          + " b.description = :#{#book.description}, b.updatedAt = :#{#book.updatedAt},"
+          + " b.version = b.version + 1"
+          + " where b.id = :id")
+  int updateBook(@Param("id") Long id, @Param("book") Book book);
+
+  // Update only if the stored version matches; returns the number of rows updated
+  @Transactional
+  @Modifying
+  @Query(
+      "update Book b set b.title = :#{#book.title}, b.author = :#{#book.author},"
+          + " b.isbn = :#{#book.isbn}, b.publicationYear = :#{#book.publicationYear},"
+          + " b.description = :#{#book.description}, b.updatedAt = :#{#book.updatedAt},"
+          + " b.version = b.version + 1"
+          + " where b.id = :id and b.version = :#{#book.version}")
+  int updateBookIfVersion(@Param("id") Long id, @Param("book") Book book);
+
+  // Delete in a single statement; returns the number of rows deleted
+  @Transactional
+  @Modifying
+  @Query("delete from Book b where b.id = :id")
+  int deleteBookById(@Param("id") Long id);
+
+  // Stored version of a book
+  @Query("select b.version from Book b where b.id = :id")
+  Optional<Long> findVersionById(@Param("id") Long id);
+
+  // IDs among the given ones that exist
+  @Query("select b.id from Book b where b.id in :ids")
+  List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+  // Lookup through the unique ISBN index
+  Optional<Book> findByIsbn(String isbn);
+
+  // Books holding any of the given ISBNs
+  List<Book> findByIsbnIn(Collection<String> isbns);
+
+  // Case-insensitive title prefix match in title order, range-scanning idx_books_title_lower.
+  // The prefix must be lowercased, LIKE-escaped and end with '%'.
+  @Query(
+      value =
+          "select * from books where title_lower like :prefix escape '\\'"
+              + " order by title_lower, id fetch first :limit rows only",
+      nativeQuery = true)
+  List<Book> findByTitlePrefix(@Param("prefix") String prefix, @Param("limit") int limit);
+
+  // Case-insensitive author prefix match in author order, range-scanning idx_books_author_lower
+  @Query(
+      value =
+          "select * from books where author_lower like :prefix escape '\\'"
+              + " order by author_lower, id fetch first :limit rows only",
+      nativeQuery = true)
+  List<Book> findByAuthorPrefix(@Param("prefix") String prefix, @Param("limit") int limit);
+
+  // Keyset page: next books after the given id, in id order
+  List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  // The whole catalog as summaries in id order, leaving the description column unread
+  List<BookSummary> findSummariesByOrderByIdAsc();
+
+  // Keyset page of summaries: next books after the given id, in id order
+  List<BookSummary> findSummariesByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  // Summaries of the books with any of the given IDs, in no particular order
+  List<BookSummary> findSummariesByIdIn(Collection<Long> ids);
+
+  // Forward-only cursor over the whole catalog; must be consumed inside a transaction
+  @QueryHints({
+    @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+    @QueryHint(name = HINT_READ_ONLY, value = "true")
+  })
+  @Query("select b from Book b order by b.id")
+  Stream<Book> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,14 @@
+package com.jpereira30.library_api.repository;
+
+import com.jpereira30.library_api.entity.InsightJobFailure;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InsightJobFailureRepository extends JpaRepository<InsightJobFailure, Long> {
+
+  // Keyset page of failed books after the given book ID
+  List<InsightJobFailure> findByBookIdGreaterThanOrderByBookIdAsc(Long bookId, Limit limit);
+}
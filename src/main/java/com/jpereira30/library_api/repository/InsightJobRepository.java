@@ -0,0 +1,8 @@
+package com.jpereira30.library_api.repository;
+
+import com.jpereira30.library_api.entity.InsightJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InsightJobRepository extends JpaRepository<InsightJob, Long> {}
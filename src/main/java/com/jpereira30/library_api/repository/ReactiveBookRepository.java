@@ -0,0 +1,229 @@
+package com.jpereira30.library_api.repository;
+
+import com.jpereira30.library_api.dto.BookSummary;
+import com.jpereira30.library_api.entity.Book;
+import io.r2dbc.spi.Readable;
+import java.time.Instant;
+import java.util.Collection;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking access to the books table over R2DBC for the reactive web stack. Plain SQL against
+// the schema owned by the Flyway migrations, mapped to the same Book entity as BookRepository.
+@Repository
+public class ReactiveBookRepository {
+
+  private static final String SELECT_BOOKS =
+      "select id, title, author, isbn, publication_year, description, version, updated_at"
+          + " from books";
+
+  private static final String SELECT_SUMMARIES =
+      "select id, title, author, isbn, publication_year, version, updated_at from books";
+
+  private static final String UPDATE_BOOK =
+      "update books set title = :title, author = :author, isbn = :isbn,"
+          + " publication_year = :publicationYear, description = :description,"
+          + " updated_at = :updatedAt, version = version + 1 where id = :id";
+
+  private final DatabaseClient databaseClient;
+
+  public ReactiveBookRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  // Lookup by primary key
+  public Mono<Book> findById(Long id) {
+    return databaseClient
+        .sql(SELECT_BOOKS + " where id = :id")
+        .bind("id", id)
+        .map(ReactiveBookRepository::toBook)
+        .one();
+  }
+
+  // Books with any of the given IDs, in no particular order
+  public Flux<Book> findAllById(Collection<Long> ids) {
+    return databaseClient
+        .sql(SELECT_BOOKS + " where id in (:ids)")
+        .bind("ids", ids)
+        .map(ReactiveBookRepository::toBook)
+        .all();
+  }
+
+  // Lookup through the unique ISBN index
+  public Mono<Book> findByIsbn(String isbn) {
+    return databaseClient
+        .sql(SELECT_BOOKS + " where isbn = :isbn")
+        .bind("isbn", isbn)
+        .map(ReactiveBookRepository::toBook)
+        .one();
+  }
+
+  // The whole catalog in id order
+  public Flux<Book> findAll() {
+    return databaseClient
+        .sql(SELECT_BOOKS + " order by id")
+        .map(ReactiveBookRepository::toBook)
+        .all();
+  }
+
+  // Keyset page: next books after the given id, in id order
+  public Flux<Book> findByIdGreaterThan(long id, int limit) {
+    return databaseClient
+        .sql(SELECT_BOOKS + " where id > :id order by id fetch first :limit rows only")
+        .bind("id", id)
+        .bind("limit", limit)
+        .map(ReactiveBookRepository::toBook)
+        .all();
+  }
+
+  // The whole catalog as summaries in id order, leaving the description column unread
+  public Flux<BookSummary> findAllSummaries() {
+    return databaseClient
+        .sql(SELECT_SUMMARIES + " order by id")
+        .map(ReactiveBookRepository::toSummary)
+        .all();
+  }
+
+  // Keyset page of summaries: next books after the given id, in id order
+  public Flux<BookSummary> findSummariesByIdGreaterThan(long id, int limit) {
+    return databaseClient
+        .sql(SELECT_SUMMARIES + " where id > :id order by id fetch first :limit rows only")
+        .bind("id", id)
+        .bind("limit", limit)
+        .map(ReactiveBookRepository::toSummary)
+        .all();
+  }
+
+  // Summaries of the books with any of the given IDs, in no particular order
+  public Flux<BookSummary> findSummariesById(Collection<Long> ids) {
+    return databaseClient
+        .sql(SELECT_SUMMARIES + " where id in (:ids)")
+        .bind("ids", ids)
+        .map(ReactiveBookRepository::toSummary)
+        .all();
+  }
+
+  // Case-insensitive title prefix match in title order; see BookRepository.findByTitlePrefix
+  public Flux<Book> findByTitlePrefix(String prefix, int limit) {
+    return databaseClient
+        .sql(
+            SELECT_BOOKS
+                + " where title_lower like :prefix escape '\\'"
+                + " order by title_lower, id fetch first :limit rows only")
+        .bind("prefix", prefix)
+        .bind("limit", limit)
+        .map(ReactiveBookRepository::toBook)
+        .all();
+  }
+
+  // Case-insensitive author prefix match in author order; see BookRepository.findByAuthorPrefix
+  public Flux<Book> findByAuthorPrefix(String prefix, int limit) {
+    return databaseClient
+        .sql(
+            SELECT_BOOKS
+                + " where author_lower like :prefix escape '\\'"
+                + " order by author_lower, id fetch first :limit rows only")
+        .bind("prefix", prefix)
+        .bind("limit", limit)
+        .map(ReactiveBookRepository::toBook)
+        .all();
+  }
+
+  // Insert a new book at version 0 and return it with its ID. Each insert takes one value of
+  // books_seq as its ID; Hibernate's pooled optimizer only hands out IDs below the values it
+  // fetched itself, so the two never collide.
+  public Mono<Book> insert(Book book) {
+    return bindFields(
+            databaseClient.sql(
+                "insert into books (id, title, author, isbn, publication_year, description,"
+                    + " updated_at, version) values (next value for books_seq, :title, :author,"
+                    + " :isbn, :publicationYear, :description, :updatedAt, 0)"),
+            book)
+        .filter(statement -> statement.returnGeneratedValues("id"))
+        .map(row -> row.get("id", Long.class))
+        .one()
+        .map(
+            id -> {
+              book.setId(id);
+              book.setVersion(0L);
+              return book;
+            });
+  }
+
+  // Update in a single statement; emits the number of rows updated
+  public Mono<Long> updateBook(Long id, Book book) {
+    return bindFields(databaseClient.sql(UPDATE_BOOK), book).bind("id", id).fetch().rowsUpdated();
+  }
+
+  // Update only if the stored version matches; emits the number of rows updated
+  public Mono<Long> updateBookIfVersion(Long id, Book book) {
+    return bindFields(databaseClient.sql(UPDATE_BOOK + " and version = :version"), book)
+        .bind("id", id)
+        .bind("version", book.getVersion())
+        .fetch()
+        .rowsUpdated();
+  }
+
+  // Delete in a single statement; emits the number of rows deleted
+  public Mono<Long> deleteBookById(Long id) {
+    return databaseClient
+        .sql("delete from books where id = :id")
+        .bind("id", id)
+        .fetch()
+        .rowsUpdated();
+  }
+
+  // Stored version of a book
+  public Mono<Long> findVersionById(Long id) {
+    return databaseClient
+        .sql("select version from books where id = :id")
+        .bind("id", id)
+        .map(row -> row.get("version", Long.class))
+        .first();
+  }
+
+  // Whether a book with the given ID exists
+  public Mono<Boolean> existsById(Long id) {
+    return databaseClient
+        .sql("select 1 from books where id = :id")
+        .bind("id", id)
+        .fetch()
+        .first()
+        .hasElement();
+  }
+
+  private static DatabaseClient.GenericExecuteSpec bindFields(
+      DatabaseClient.GenericExecuteSpec spec, Book book) {
+    return spec.bind("title", book.getTitle())
+        .bind("author", book.getAuthor())
+        .bind("isbn", book.getIsbn())
+        .bind("publicationYear", book.getPublicationYear())
+        .bind("description", book.getDescription())
+        .bind("updatedAt", book.getUpdatedAt());
+  }
+
+  private static Book toBook(Readable row) {
+    return new Book(
+        row.get("id", Long.class),
+        row.get("title", String.class),
+        row.get("author", String.class),
+        row.get("isbn", String.class),
+        row.get("publication_year", Integer.class),
+        row.get("description", String.class),
+        row.get("version", Long.class),
+        row.get("updated_at", Instant.class));
+  }
+
+  private static BookSummary toSummary(Readable row) {
+    return new BookSummary(
+        row.get("id", Long.class),
+        row.get("title", String.class),
+        row.get("author", String.class),
+        row.get("isbn", String.class),
+        row.get("publication_year", Integer.class),
+        row.get("version", Long.class),
+        row.get("updated_at", Instant.class));
+  }
+}
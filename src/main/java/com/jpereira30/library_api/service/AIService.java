@@ -1,65 +1,281 @@
 package com.jpereira30.library_api.service;
 
-import com.jpereira30.library_api.dto.Choice;
-import com.jpereira30.library_api.dto.OpenAIResponse;
+import com.jpereira30.library_api.dto.ChatCompletion;
+import com.jpereira30.library_api.dto.Usage;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.SynchronousSink;
 
+// Client for the OpenAI chat completions API. Each call is retried on transient failures and goes
+// through the "openai" circuit breaker and bulkhead configured under resilience4j.*.
 @Service
 public class AIService {
 
+  static final String RESILIENCE_INSTANCE = "openai";
+
+  static final String SYSTEM_PROMPT = "You are a helpful assistant.";
+
+  static final String USER_PROMPT =
+      "Generate a short and engaging tagline for the following book: ";
+
+  static final String COMPLETIONS_PATH = "/v1/chat/completions";
+
+  private static final Map<String, String> SYSTEM_MESSAGE =
+      Map.of("role", "system", "content", SYSTEM_PROMPT);
+
+  private static final int MAX_TOKENS = 60;
+
+  // Data of the final event of a streamed completion
+  private static final String STREAM_DONE = "[DONE]";
+
+  private static final ParameterizedTypeReference<ServerSentEvent<String>> STREAM_EVENT =
+      new ParameterizedTypeReference<>() {};
+
   private final WebClient webClient;
 
-  @Value("${openai.api.url}")
-  private String apiUrl;
+  private final MeterRegistry meterRegistry;
+
+  private final ChatCompletionParser completionParser;
+
+  private final Retry retry;
+
+  private final CircuitBreaker circuitBreaker;
+
+  private final Bulkhead bulkhead;
 
-  @Value("${openai.api.key}")
-  private String apiKey;
+  // Upstream call latency by outcome: success, empty, error, or cancelled (e.g. by a timeout)
+  private final Timer successTimer;
+
+  private final Timer emptyTimer;
+
+  private final Timer errorTimer;
+
+  private final Timer cancelledTimer;
+
+  // Streamed calls: time to the first content delta, and to the end of the stream by outcome
+  private final Timer firstTokenTimer;
+
+  private final Timer streamSuccessTimer;
+
+  private final Timer streamEmptyTimer;
+
+  private final Timer streamErrorTimer;
+
+  private final Timer streamCancelledTimer;
+
+  private final Counter promptTokens;
+
+  private final Counter completionTokens;
 
   @Value("${openai.model}")
   private String model;
 
-  public AIService(WebClient.Builder webClientBuilder) {
-    this.webClient = webClientBuilder.build();
+  public AIService(
+      WebClient openAIWebClient,
+      MeterRegistry meterRegistry,
+      ChatCompletionParser completionParser,
+      RetryRegistry retryRegistry,
+      CircuitBreakerRegistry circuitBreakerRegistry,
+      BulkheadRegistry bulkheadRegistry) {
+    this.webClient = openAIWebClient;
+    this.meterRegistry = meterRegistry;
+    this.completionParser = completionParser;
+    this.retry = retryRegistry.retry(RESILIENCE_INSTANCE);
+    this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(RESILIENCE_INSTANCE);
+    this.bulkhead = bulkheadRegistry.bulkhead(RESILIENCE_INSTANCE);
+    this.successTimer = requestTimer(meterRegistry, "library.ai.requests", "success");
+    this.emptyTimer = requestTimer(meterRegistry, "library.ai.requests", "empty");
+    this.errorTimer = requestTimer(meterRegistry, "library.ai.requests", "error");
+    this.cancelledTimer = requestTimer(meterRegistry, "library.ai.requests", "cancelled");
+    this.firstTokenTimer =
+        Timer.builder("library.ai.streams.first-token")
+            .description("Time to the first streamed token from the OpenAI API")
+            .register(meterRegistry);
+    this.streamSuccessTimer = requestTimer(meterRegistry, "library.ai.streams", "success");
+    this.streamEmptyTimer = requestTimer(meterRegistry, "library.ai.streams", "empty");
+    this.streamErrorTimer = requestTimer(meterRegistry, "library.ai.streams", "error");
+    this.streamCancelledTimer = requestTimer(meterRegistry, "library.ai.streams", "cancelled");
+    this.promptTokens = tokenCounter(meterRegistry, "prompt");
+    this.completionTokens = tokenCounter(meterRegistry, "completion");
+  }
+
+  public String getModel() {
+    return model;
+  }
+
+  // Full prompt sent for a description; insights are cached by model and prompt
+  public String promptFor(String description) {
+    return SYSTEM_PROMPT + "\n" + USER_PROMPT + description;
+  }
+
+  // Call the chat endpoint; empty when no insight is returned. Errors left after retries are
+  // propagated, including CallNotPermittedException while the circuit breaker is open and
+  // BulkheadFullException when too many calls are in flight.
+  public Mono<String> requestInsights(String description) {
+    Map<String, Object> requestPayload = payload(description);
+
+    return Mono.defer(
+            () -> {
+              Timer.Sample sample = Timer.start(meterRegistry);
+              boolean[] found = new boolean[1];
+              return webClient
+                  .post()
+                  .uri(COMPLETIONS_PATH)
+                  .bodyValue(requestPayload)
+                  .retrieve()
+                  .bodyToMono(byte[].class)
+                  .handle(
+                      (byte[] body, SynchronousSink<String> sink) -> {
+                        ChatCompletion completion;
+                        try {
+                          completion = completionParser.parse(body);
+                        } catch (IOException e) {
+                          sink.error(e);
+                          return;
+                        }
+                        recordUsage(completion);
+                        emitContent(completion, sink);
+                      })
+                  .doOnNext(insight -> found[0] = true)
+                  .doOnError(this::recordError)
+                  .doFinally(signal -> sample.stop(timerFor(signal, found[0])));
+            })
+        .transform(BulkheadOperator.of(bulkhead))
+        .transform(CircuitBreakerOperator.of(circuitBreaker))
+        .transform(RetryOperator.of(retry));
+  }
+
+  // Stream the completion as content deltas while they arrive; empty when no content is returned.
+  // Streams go through the circuit breaker and bulkhead but are not retried, since tokens already
+  // forwarded to a client cannot be taken back.
+  public Flux<String> streamInsights(String description) {
+    Map<String, Object> requestPayload = new HashMap<>(payload(description));
+    requestPayload.put("stream", true);
+    requestPayload.put("stream_options", Map.of("include_usage", true));
+
+    return Flux.defer(
+            () -> {
+              Timer.Sample sample = Timer.start(meterRegistry);
+              boolean[] found = new boolean[1];
+              return webClient
+                  .post()
+                  .uri(COMPLETIONS_PATH)
+                  .accept(MediaType.TEXT_EVENT_STREAM)
+                  .bodyValue(requestPayload)
+                  .retrieve()
+                  .bodyToFlux(STREAM_EVENT)
+                  .map(ServerSentEvent::data)
+                  .takeWhile(data -> !STREAM_DONE.equals(data))
+                  .handle(
+                      (String data, SynchronousSink<String> sink) -> {
+                        ChatCompletion chunk;
+                        try {
+                          chunk = completionParser.parse(data);
+                        } catch (IOException e) {
+                          sink.error(e);
+                          return;
+                        }
+                        recordUsage(chunk);
+                        emitContent(chunk, sink);
+                      })
+                  .doOnNext(
+                      token -> {
+                        if (!found[0]) {
+                          found[0] = true;
+                          sample.stop(firstTokenTimer);
+                        }
+                      })
+                  .doOnError(this::recordError)
+                  .doFinally(signal -> sample.stop(streamTimerFor(signal, found[0])));
+            })
+        .transform(BulkheadOperator.of(bulkhead))
+        .transform(CircuitBreakerOperator.of(circuitBreaker));
+  }
+
+  private Map<String, Object> payload(String description) {
+    return Map.of(
+        "model",
+        model,
+        "messages",
+        List.of(SYSTEM_MESSAGE, Map.of("role", "user", "content", USER_PROMPT + description)),
+        "max_tokens",
+        MAX_TOKENS);
+  }
+
+  private static void emitContent(ChatCompletion completion, SynchronousSink<String> sink) {
+    String content = completion.getContent();
+    if (content != null && !content.isEmpty()) {
+      sink.next(content);
+    }
+  }
+
+  private void recordUsage(ChatCompletion completion) {
+    Usage usage = completion.getUsage();
+    if (usage != null) {
+      promptTokens.increment(usage.getPromptTokens());
+      completionTokens.increment(usage.getCompletionTokens());
+    }
+  }
+
+  private void recordError(Throwable error) {
+    String status =
+        error instanceof WebClientResponseException responseError
+            ? String.valueOf(responseError.getStatusCode().value())
+            : error.getClass().getSimpleName();
+    meterRegistry.counter("library.ai.errors", "status", status).increment();
+  }
+
+  private Timer timerFor(SignalType signal, boolean found) {
+    return switch (signal) {
+      case ON_ERROR -> errorTimer;
+      case CANCEL -> cancelledTimer;
+      default -> found ? successTimer : emptyTimer;
+    };
+  }
+
+  private Timer streamTimerFor(SignalType signal, boolean found) {
+    return switch (signal) {
+      case ON_ERROR -> streamErrorTimer;
+      case CANCEL -> streamCancelledTimer;
+      default -> found ? streamSuccessTimer : streamEmptyTimer;
+    };
+  }
+
+  private static Timer requestTimer(MeterRegistry registry, String name, String outcome) {
+    return Timer.builder(name)
+        .description("Chat completion calls to the OpenAI API")
+        .tag("outcome", outcome)
+        .register(registry);
   }
 
-  public Mono<String> generateInsights(String description) {
-    Map<String, Object> requestPayload =
-        Map.of(
-            "model",
-            model,
-            "messages",
-            List.of(
-                Map.of("role", "system", "content", "You are a helpful assistant."),
-                Map.of(
-                    "role",
-                    "user",
-                    "content",
-                    "Generate a short and engaging tagline for the following book: "
-                        + description)),
-            "max_tokens",
-            60);
-
-    return webClient
-        .post()
-        .uri(apiUrl + "/v1/chat/completions") // Updated to chat endpoint
-        .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
-        .contentType(MediaType.APPLICATION_JSON)
-        .bodyValue(requestPayload)
-        .retrieve()
-        .bodyToMono(OpenAIResponse.class)
-        .map(
-            response ->
-                response.getChoices().stream()
-                    .findFirst()
-                    .map(Choice::getText)
-                    .orElse("No insight available"))
-        .onErrorResume(e -> Mono.just("Failed to generate insights"));
+  private static Counter tokenCounter(MeterRegistry registry, String type) {
+    return Counter.builder("library.ai.tokens")
+        .description("Tokens reported by the OpenAI API")
+        .tag("type", type)
+        .register(registry);
   }
 }
@@ -0,0 +1,300 @@
+package com.jpereira30.library_api.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.jpereira30.library_api.dto.BulkItemResult;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Bulk create, update and delete. Items are validated one by one, and valid items are written in
+// chunks, each in its own transaction, so Hibernate can send them as JDBC batches. Items whose
+// ISBN is already taken, by a stored book or an earlier item, are rejected before writing, and
+// items the database still rejects are isolated by writing their chunk again row by row.
+@Service
+public class BookBulkService {
+
+  static final String DUPLICATE_ISBN = "A book with this ISBN already exists";
+
+  static final String REJECTED_BY_DATABASE = "The database rejected this book";
+
+  private final BookRepository bookRepository;
+
+  private final EntityManager entityManager;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final Validator validator;
+
+  private final BookSearchIndex searchIndex;
+
+  private final AsyncCache<Long, Book> bookCache;
+
+  private final CatalogVersion catalogVersion;
+
+  private final int chunkSize;
+
+  public BookBulkService(
+      BookRepository bookRepository,
+      EntityManager entityManager,
+      TransactionTemplate transactionTemplate,
+      Validator validator,
+      BookSearchIndex searchIndex,
+      AsyncCache<Long, Book> bookCache,
+      CatalogVersion catalogVersion,
+      @Value("${library.bulk.chunk-size:500}") int chunkSize) {
+    this.bookRepository = bookRepository;
+    this.entityManager = entityManager;
+    this.transactionTemplate = transactionTemplate;
+    this.validator = validator;
+    this.searchIndex = searchIndex;
+    this.bookCache = bookCache;
+    this.catalogVersion = catalogVersion;
+    this.chunkSize = chunkSize;
+  }
+
+  // Create Books
+  public List<BulkItemResult> createBooks(List<Book> books) {
+    BulkItemResult[] results = new BulkItemResult[books.size()];
+    List<Integer> valid = validate(books, results, false);
+    Set<String> claimedIsbns = new HashSet<>();
+
+    for (List<Integer> chunk : chunks(valid)) {
+      List<Integer> unique = rejectDuplicateIsbns(books, chunk, results, claimedIsbns);
+      List<Book> created =
+          writeChunk(
+              books,
+              unique,
+              results,
+              indexes -> {
+                for (int index : indexes) {
+                  Book book = books.get(index);
+                  book.setId(null);
+                  book.setVersion(null);
+                  entityManager.persist(book);
+                }
+                // Flushed through the repository so constraint violations are translated
+                bookRepository.flush();
+                entityManager.clear();
+                List<Book> written = new ArrayList<>();
+                for (int index : indexes) {
+                  Book book = books.get(index);
+                  written.add(book);
+                  results[index] = result(index, book.getId(), BulkItemResult.Status.CREATED);
+                }
+                return written;
+              });
+      created.forEach(searchIndex::index);
+      catalogVersion.advance();
+    }
+    return Arrays.asList(results);
+  }
+
+  // Update Books, matched by their IDs; books carrying a stale version are not updated
+  public List<BulkItemResult> updateBooks(List<Book> books) {
+    BulkItemResult[] results = new BulkItemResult[books.size()];
+    List<Integer> valid = validate(books, results, true);
+    Set<String> claimedIsbns = new HashSet<>();
+
+    for (List<Integer> chunk : chunks(valid)) {
+      List<Integer> unique = rejectDuplicateIsbns(books, chunk, results, claimedIsbns);
+      List<Book> updated =
+          writeChunk(
+              books,
+              unique,
+              results,
+              indexes -> {
+                Map<Long, Book> existing = new HashMap<>();
+                bookRepository
+                    .findAllById(indexes.stream().map(index -> books.get(index).getId()).toList())
+                    .forEach(book -> existing.put(book.getId(), book));
+                List<Book> written = new ArrayList<>();
+                for (int index : indexes) {
+                  Book source = books.get(index);
+                  Book target = existing.get(source.getId());
+                  if (target == null) {
+                    results[index] = result(index, source.getId(), BulkItemResult.Status.NOT_FOUND);
+                    continue;
+                  }
+                  if (source.getVersion() != null
+                      && !source.getVersion().equals(target.getVersion())) {
+                    results[index] = result(index, source.getId(), BulkItemResult.Status.CONFLICT);
+                    continue;
+                  }
+                  copyFields(source, target);
+                  written.add(target);
+                  results[index] = result(index, source.getId(), BulkItemResult.Status.UPDATED);
+                }
+                bookRepository.flush();
+                entityManager.clear();
+                return written;
+              });
+      for (Book book : updated) {
+        bookCache.synchronous().invalidate(book.getId());
+        searchIndex.index(book);
+      }
+      catalogVersion.advance();
+    }
+    return Arrays.asList(results);
+  }
+
+  // Delete Books by ID
+  public List<BulkItemResult> deleteBooks(List<Long> ids) {
+    BulkItemResult[] results = new BulkItemResult[ids.size()];
+    List<Integer> indexes = new ArrayList<>();
+    for (int index = 0; index < ids.size(); index++) {
+      if (ids.get(index) == null) {
+        results[index] = invalid(index, null, Map.of("id", "ID is required"));
+      } else {
+        indexes.add(index);
+      }
+    }
+
+    for (List<Integer> chunk : chunks(indexes)) {
+      List<Long> chunkIds = chunk.stream().map(ids::get).toList();
+      Set<Long> existing =
+          transactionTemplate.execute(
+              status -> {
+                Set<Long> found = new HashSet<>(bookRepository.findExistingIds(chunkIds));
+                bookRepository.deleteAllByIdInBatch(found);
+                return found;
+              });
+      for (int index : chunk) {
+        Long id = ids.get(index);
+        if (existing != null && existing.contains(id)) {
+          bookCache.synchronous().invalidate(id);
+          searchIndex.remove(id);
+          results[index] = result(index, id, BulkItemResult.Status.DELETED);
+        } else {
+          results[index] = result(index, id, BulkItemResult.Status.NOT_FOUND);
+        }
+      }
+      catalogVersion.advance();
+    }
+    return Arrays.asList(results);
+  }
+
+  // Write a chunk of items in one transaction, returning the books written. When the database
+  // rejects the chunk, e.g. for an ISBN claimed by a concurrent writer since the duplicate check,
+  // its items are written again one per transaction so only the offending ones are rejected.
+  private List<Book> writeChunk(
+      List<Book> books,
+      List<Integer> chunk,
+      BulkItemResult[] results,
+      Function<List<Integer>, List<Book>> write) {
+    try {
+      return transactionTemplate.execute(status -> write.apply(chunk));
+    } catch (DataIntegrityViolationException e) {
+      List<Book> written = new ArrayList<>();
+      for (int index : chunk) {
+        try {
+          written.addAll(transactionTemplate.execute(status -> write.apply(List.of(index))));
+        } catch (DataIntegrityViolationException rejected) {
+          Book book = books.get(index);
+          results[index] = invalid(index, book.getId(), databaseErrors(book));
+        }
+      }
+      return written;
+    }
+  }
+
+  // Errors of an item the database rejected
+  private Map<String, String> databaseErrors(Book book) {
+    boolean taken =
+        bookRepository
+            .findByIsbn(book.getIsbn())
+            .filter(owner -> !owner.getId().equals(book.getId()))
+            .isPresent();
+    return taken ? Map.of("isbn", DUPLICATE_ISBN) : Map.of("book", REJECTED_BY_DATABASE);
+  }
+
+  // Record INVALID results for items failing validation; returns the indexes of valid items
+  private List<Integer> validate(List<Book> books, BulkItemResult[] results, boolean requireId) {
+    List<Integer> valid = new ArrayList<>();
+    for (int index = 0; index < books.size(); index++) {
+      Book book = books.get(index);
+      if (book == null) {
+        results[index] = invalid(index, null, Map.of("book", "Book is required"));
+        continue;
+      }
+      Map<String, String> errors = new HashMap<>();
+      for (ConstraintViolation<Book> violation : validator.validate(book)) {
+        errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+      }
+      if (requireId && book.getId() == null) {
+        errors.put("id", "ID is required");
+      }
+      if (errors.isEmpty()) {
+        valid.add(index);
+      } else {
+        results[index] = invalid(index, book.getId(), errors);
+      }
+    }
+    return valid;
+  }
+
+  // Record INVALID results for items whose ISBN belongs to another stored book or to an earlier
+  // item of the request; returns the indexes of the remaining items
+  private List<Integer> rejectDuplicateIsbns(
+      List<Book> books, List<Integer> chunk, BulkItemResult[] results, Set<String> claimedIsbns) {
+    Map<String, Long> owners = new HashMap<>();
+    bookRepository
+        .findByIsbnIn(chunk.stream().map(index -> books.get(index).getIsbn()).toList())
+        .forEach(book -> owners.put(book.getIsbn(), book.getId()));
+
+    List<Integer> unique = new ArrayList<>();
+    for (int index : chunk) {
+      Book book = books.get(index);
+      Long owner = owners.get(book.getIsbn());
+      boolean taken = owner != null && !owner.equals(book.getId());
+      if (taken || !claimedIsbns.add(book.getIsbn())) {
+        results[index] = invalid(index, book.getId(), Map.of("isbn", DUPLICATE_ISBN));
+      } else {
+        unique.add(index);
+      }
+    }
+    return unique;
+  }
+
+  private List<List<Integer>> chunks(List<Integer> indexes) {
+    List<List<Integer>> chunks = new ArrayList<>();
+    for (int start = 0; start < indexes.size(); start += chunkSize) {
+      chunks.add(indexes.subList(start, Math.min(start + chunkSize, indexes.size())));
+    }
+    return chunks;
+  }
+
+  private static void copyFields(Book source, Book target) {
+    target.setTitle(source.getTitle());
+    target.setAuthor(source.getAuthor());
+    target.setIsbn(source.getIsbn());
+    target.setPublicationYear(source.getPublicationYear());
+    target.setDescription(source.getDescription());
+  }
+
+  private static BulkItemResult result(int index, Long id, BulkItemResult.Status status) {
+    return BulkItemResult.builder().index(index).id(id).status(status).build();
+  }
+
+  private static BulkItemResult invalid(int index, Long id, Map<String, String> errors) {
+    return BulkItemResult.builder()
+        .index(index)
+        .id(id)
+        .status(BulkItemResult.Status.INVALID)
+        .errors(errors)
+        .build();
+  }
+}
@@ -0,0 +1,143 @@
+package com.jpereira30.library_api.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+// Writes the catalog straight from a forward-only JDBC cursor, one row at a time, without
+// creating entities. The CSV layout matches what BookImportService reads.
+@Service
+public class BookExportService {
+
+  static final String CSV_HEADER = "id,title,author,isbn,publicationYear,description";
+
+  private static final String SELECT_BOOKS =
+      "select id, title, author, isbn, publication_year, description from books order by id";
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final ObjectMapper objectMapper;
+
+  private final int fetchSize;
+
+  public BookExportService(
+      JdbcTemplate jdbcTemplate,
+      ObjectMapper objectMapper,
+      @Value("${library.export.fetch-size:1000}") int fetchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.objectMapper = objectMapper;
+    this.fetchSize = fetchSize;
+  }
+
+  public void export(OutputStream out, CatalogFormat format, boolean gzip) throws IOException {
+    GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+    OutputStream target = gzipStream != null ? gzipStream : out;
+    if (format == CatalogFormat.CSV) {
+      exportCsv(target);
+    } else {
+      exportNdjson(target);
+    }
+    if (gzipStream != null) {
+      gzipStream.finish();
+    }
+  }
+
+  private void exportCsv(OutputStream out) throws IOException {
+    Writer writer =
+        new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    writer.write(CSV_HEADER);
+    writer.write('\n');
+    forEachRow(
+        rs -> {
+          writer.write(Long.toString(rs.getLong(1)));
+          for (int column = 2; column <= 6; column++) {
+            writer.write(',');
+            String value = rs.getString(column);
+            if (value != null) {
+              writeCsvField(writer, value);
+            }
+          }
+          writer.write('\n');
+        });
+    writer.flush();
+  }
+
+  private void exportNdjson(OutputStream out) throws IOException {
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    generator.setRootValueSeparator(null);
+    forEachRow(
+        rs -> {
+          generator.writeStartObject();
+          generator.writeNumberField("id", rs.getLong(1));
+          generator.writeStringField("title", rs.getString(2));
+          generator.writeStringField("author", rs.getString(3));
+          generator.writeStringField("isbn", rs.getString(4));
+          int year = rs.getInt(5);
+          if (rs.wasNull()) {
+            generator.writeNullField("publicationYear");
+          } else {
+            generator.writeNumberField("publicationYear", year);
+          }
+          generator.writeStringField("description", rs.getString(6));
+          generator.writeEndObject();
+          generator.writeRaw('\n');
+        });
+    generator.close();
+  }
+
+  private interface RowWriter {
+    void write(ResultSet rs) throws SQLException, IOException;
+  }
+
+  private void forEachRow(RowWriter rowWriter) throws IOException {
+    try {
+      jdbcTemplate.query(
+          connection -> {
+            var statement =
+                connection.prepareStatement(
+                    SELECT_BOOKS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+          },
+          rs -> {
+            try {
+              rowWriter.write(rs);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  static void writeCsvField(Writer writer, String value) throws IOException {
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      writer.write(value);
+      return;
+    }
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+}
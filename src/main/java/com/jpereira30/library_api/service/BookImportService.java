@@ -0,0 +1,165 @@
+package com.jpereira30.library_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.jpereira30.library_api.dto.BulkItemResult;
+import com.jpereira30.library_api.dto.ImportReport;
+import com.jpereira30.library_api.entity.Book;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Streams a catalog file into the books table. Rows are parsed one at a time and written through
+// BookBulkService in fixed-size batches, so memory use does not grow with the file. Rows that fail
+// validation or that the database rejects are reported as rejected lines, and the import goes on.
+@Service
+public class BookImportService {
+
+  static final int MAX_REPORTED_REJECTIONS = 100;
+
+  private final BookBulkService bookBulkService;
+
+  private final ObjectReader bookReader;
+
+  private final int batchSize;
+
+  public BookImportService(
+      BookBulkService bookBulkService,
+      ObjectMapper objectMapper,
+      @Value("${library.import.batch-size:500}") int batchSize) {
+    this.bookBulkService = bookBulkService;
+    this.bookReader = objectMapper.readerFor(Book.class);
+    this.batchSize = batchSize;
+  }
+
+  public ImportReport importFile(Path path) throws IOException {
+    try (InputStream in = Files.newInputStream(path)) {
+      return importBooks(in, CatalogFormat.fromFileName(path.getFileName().toString()));
+    }
+  }
+
+  public ImportReport importBooks(InputStream in, CatalogFormat format) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    Batch batch = new Batch();
+    if (format == CatalogFormat.CSV) {
+      readCsv(reader, batch);
+    } else {
+      readNdjson(reader, batch);
+    }
+    batch.flush();
+    return batch.report;
+  }
+
+  private void readNdjson(BufferedReader reader, Batch batch) throws IOException {
+    String text;
+    long line = 0;
+    while ((text = reader.readLine()) != null) {
+      line++;
+      if (text.isBlank()) {
+        continue;
+      }
+      try {
+        batch.add(line, bookReader.readValue(text));
+      } catch (JsonProcessingException e) {
+        batch.reject(line, Map.of("line", "Malformed JSON: " + e.getOriginalMessage()));
+      }
+    }
+  }
+
+  private void readCsv(BufferedReader reader, Batch batch) throws IOException {
+    CsvRecordReader records = new CsvRecordReader(reader);
+    List<String> header = records.next();
+    if (header == null) {
+      return;
+    }
+    Map<String, Integer> columns = new HashMap<>();
+    for (int i = 0; i < header.size(); i++) {
+      columns.put(header.get(i).trim(), i);
+    }
+
+    List<String> record;
+    while ((record = records.next()) != null) {
+      long line = records.recordLine();
+      if (record.size() != header.size()) {
+        batch.reject(
+            line,
+            Map.of("line", "Expected " + header.size() + " fields but found " + record.size()));
+        continue;
+      }
+      Book book =
+          Book.builder()
+              .title(field(record, columns, "title"))
+              .author(field(record, columns, "author"))
+              .isbn(field(record, columns, "isbn"))
+              .description(field(record, columns, "description"))
+              .build();
+      String year = field(record, columns, "publicationYear");
+      if (year != null && !year.isBlank()) {
+        try {
+          book.setPublicationYear(Integer.valueOf(year.trim()));
+        } catch (NumberFormatException e) {
+          batch.reject(line, Map.of("publicationYear", "Publication year must be a number"));
+          continue;
+        }
+      }
+      batch.add(line, book);
+    }
+  }
+
+  private static String field(List<String> record, Map<String, Integer> columns, String name) {
+    Integer index = columns.get(name);
+    return index != null ? record.get(index) : null;
+  }
+
+  // Rows waiting to be written, with the line each came from
+  private class Batch {
+
+    private final ImportReport report = new ImportReport();
+
+    private final List<Book> books = new ArrayList<>(batchSize);
+
+    private final List<Long> lines = new ArrayList<>(batchSize);
+
+    void add(long line, Book book) {
+      books.add(book);
+      lines.add(line);
+      if (books.size() >= batchSize) {
+        flush();
+      }
+    }
+
+    void reject(long line, Map<String, String> errors) {
+      report.setRejected(report.getRejected() + 1);
+      if (report.getRejectedLines().size() < MAX_REPORTED_REJECTIONS) {
+        report.getRejectedLines().add(new ImportReport.RejectedLine(line, errors));
+      }
+    }
+
+    void flush() {
+      if (books.isEmpty()) {
+        return;
+      }
+      List<BulkItemResult> results = bookBulkService.createBooks(books);
+      for (BulkItemResult result : results) {
+        if (result.getStatus() == BulkItemResult.Status.CREATED) {
+          report.setImported(report.getImported() + 1);
+        } else {
+          reject(lines.get(result.getIndex()), result.getErrors());
+        }
+      }
+      books.clear();
+      lines.clear();
+    }
+  }
+}
@@ -0,0 +1,652 @@
+package com.jpereira30.library_api.service;
+
+import com.jpereira30.library_api.entity.Book;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory inverted index over book titles, authors and descriptions.
+ *
+ * <p>Tokens are case-folded words; every query token is matched as a prefix, and a book must match
+ * all tokens of a query to be returned. Results are ranked by field weight, with exact token
+ * matches scoring higher than prefix matches.
+ *
+ * <p>Books are numbered with dense ints, and every posting list is a sorted {@code int[]} of those
+ * numbers with a parallel {@code byte[]} of occurrence counts, so an indexed book costs a few
+ * hundred bytes rather than a map entry per token.
+ */
+@Component
+public class BookSearchIndex {
+
+  public enum Field {
+    TITLE(3),
+    AUTHOR(2),
+    DESCRIPTION(1);
+
+    private final int weight;
+
+    Field(int weight) {
+      this.weight = weight;
+    }
+  }
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private Postings postings = new Postings(true);
+
+  // Rebuilds in progress; writes are recorded on them and replayed before they are published
+  private final List<Rebuild> rebuilds = new ArrayList<>();
+
+  // Add a book to the index, replacing any previously indexed version
+  public void index(Book book) {
+    long id = book.getId();
+    Map<Field, Map<String, Integer>> fields = documentFields(book);
+
+    lock.writeLock().lock();
+    try {
+      postings.add(id, fields);
+      rebuilds.forEach(rebuild -> rebuild.writes.add(staged -> staged.add(id, fields)));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Start replacing the whole index; books added to the rebuild become searchable together when
+  // it is published
+  public Rebuild rebuild() {
+    Rebuild rebuild = new Rebuild();
+    lock.writeLock().lock();
+    try {
+      rebuilds.add(rebuild);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return rebuild;
+  }
+
+  // Remove a book from the index
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      postings.remove(id);
+      rebuilds.forEach(rebuild -> rebuild.writes.add(staged -> staged.remove(id)));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      postings = new Postings(true);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return postings.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Free-text search across title, author and description
+  public List<Long> search(String query) {
+    return search(query, Integer.MAX_VALUE);
+  }
+
+  // The best matches of a free-text search, at most limit of them
+  public List<Long> search(String query, int limit) {
+    lock.readLock().lock();
+    try {
+      return postings.rank(postings.score(query, Field.values()), limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Books whose title matches the title query or whose author matches the author query
+  public List<Long> search(String title, String author) {
+    return search(title, author, Integer.MAX_VALUE);
+  }
+
+  // The best matches by title or author, at most limit of them
+  public List<Long> search(String title, String author, int limit) {
+    lock.readLock().lock();
+    try {
+      Matches matches =
+          postings.score(title, Field.TITLE).union(postings.score(author, Field.AUTHOR));
+      return postings.rank(matches, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null) {
+      return tokens;
+    }
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return tokens;
+  }
+
+  private static Map<Field, Map<String, Integer>> documentFields(Book book) {
+    Map<Field, Map<String, Integer>> fields = new EnumMap<>(Field.class);
+    fields.put(Field.TITLE, tokenCounts(book.getTitle()));
+    fields.put(Field.AUTHOR, tokenCounts(book.getAuthor()));
+    fields.put(Field.DESCRIPTION, tokenCounts(book.getDescription()));
+    return fields;
+  }
+
+  private static Map<String, Integer> tokenCounts(String text) {
+    Map<String, Integer> counts = new HashMap<>();
+    for (String token : tokenize(text)) {
+      counts.merge(token, 1, Integer::sum);
+    }
+    return counts;
+  }
+
+  /**
+   * A full rebuild of the index, e.g. from the catalog on startup.
+   *
+   * <p>Tokens are looked up in hash maps while books are added and sorted once per field on {@link
+   * #publish()}, which is far cheaper than inserting every token into the sorted maps one book at a
+   * time. Searches keep using the previous index until then, and books indexed or removed in the
+   * meantime are applied to the rebuilt index before it replaces the previous one.
+   */
+  public final class Rebuild {
+
+    private final Postings staged = new Postings(false);
+
+    private final List<Consumer<Postings>> writes = new ArrayList<>();
+
+    private Rebuild() {}
+
+    public void add(Book book) {
+      staged.add(book.getId(), documentFields(book));
+    }
+
+    // Replace the index with the books added to this rebuild
+    public void publish() {
+      staged.sort();
+
+      lock.writeLock().lock();
+      try {
+        rebuilds.remove(this);
+        writes.forEach(write -> write.accept(staged));
+        postings = staged;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  // Token -> postings for every field, with the books numbered densely
+  private static final class Postings {
+
+    private final Map<Field, Map<String, PostingList>> terms = new EnumMap<>(Field.class);
+
+    // The same terms in token order for prefix lookups, only built by sort() for a rebuild
+    private final Map<Field, NavigableMap<String, PostingList>> sortedTerms =
+        new EnumMap<>(Field.class);
+
+    private boolean sorted;
+
+    private final DocTable docsById = new DocTable();
+
+    // doc -> book id; docs of removed books are not reused until the next rebuild
+    private long[] bookIds = new long[1024];
+
+    // doc -> the posting lists holding it, used to remove a book's previous postings
+    private PostingList[][] docPostings = new PostingList[1024][];
+
+    private int docCount;
+
+    private Postings(boolean sorted) {
+      this.sorted = sorted;
+      for (Field field : Field.values()) {
+        terms.put(field, new HashMap<>());
+        sortedTerms.put(field, new TreeMap<>());
+      }
+    }
+
+    int size() {
+      return docsById.size();
+    }
+
+    void add(long id, Map<Field, Map<String, Integer>> fields) {
+      int doc = docsById.get(id);
+      if (doc == DocTable.NONE) {
+        doc = newDoc(id);
+      } else {
+        removePostings(doc);
+      }
+      List<PostingList> lists = new ArrayList<>();
+      for (Map.Entry<Field, Map<String, Integer>> field : fields.entrySet()) {
+        for (Map.Entry<String, Integer> token : field.getValue().entrySet()) {
+          PostingList list = terms.get(field.getKey()).get(token.getKey());
+          if (list == null) {
+            list = new PostingList(field.getKey(), token.getKey());
+            terms.get(field.getKey()).put(list.token, list);
+            if (sorted) {
+              sortedTerms.get(field.getKey()).put(list.token, list);
+            }
+          }
+          list.add(doc, token.getValue());
+          lists.add(list);
+        }
+      }
+      docPostings[doc] = lists.toArray(PostingList[]::new);
+    }
+
+    void remove(long id) {
+      int doc = docsById.remove(id);
+      if (doc != DocTable.NONE) {
+        removePostings(doc);
+        docPostings[doc] = null;
+      }
+    }
+
+    // Sort the terms of a rebuild in one go and drop the slack of its growing arrays
+    void sort() {
+      terms.forEach(
+          (field, tokens) -> {
+            tokens.values().forEach(PostingList::trim);
+            sortedTerms.put(field, new TreeMap<>(tokens));
+          });
+      bookIds = Arrays.copyOf(bookIds, docCount);
+      docPostings = Arrays.copyOf(docPostings, docCount);
+      sorted = true;
+    }
+
+    // Books matching every token of the query in any of the given fields
+    Matches score(String query, Field... fields) {
+      Matches matches = null;
+      for (String token : tokenize(query)) {
+        Matches tokenMatches = match(token, fields);
+        matches = matches == null ? tokenMatches : matches.intersect(tokenMatches);
+        if (matches.size == 0) {
+          break;
+        }
+      }
+      return matches != null ? matches : Matches.NONE;
+    }
+
+    // The ids of the best scoring matches, best first and by id among equal scores
+    List<Long> rank(Matches matches, int limit) {
+      int count = Math.min(Math.max(limit, 0), matches.size);
+      // Heap of the best matches so far, the worst of them on top
+      int[] heap = new int[count];
+      int heapSize = 0;
+      for (int i = 0; i < matches.size && count > 0; i++) {
+        if (heapSize < count) {
+          heap[heapSize] = i;
+          siftUp(heap, heapSize++, matches);
+        } else if (ranksBelow(heap[0], i, matches)) {
+          heap[0] = i;
+          siftDown(heap, heapSize, matches);
+        }
+      }
+      Long[] ids = new Long[count];
+      while (heapSize > 0) {
+        ids[heapSize - 1] = bookIds[matches.docs[heap[0]]];
+        heap[0] = heap[--heapSize];
+        siftDown(heap, heapSize, matches);
+      }
+      return List.of(ids);
+    }
+
+    private int newDoc(long id) {
+      if (docCount == bookIds.length) {
+        int capacity = docCount + (docCount >> 1) + 1;
+        bookIds = Arrays.copyOf(bookIds, capacity);
+        docPostings = Arrays.copyOf(docPostings, capacity);
+      }
+      bookIds[docCount] = id;
+      docsById.put(id, docCount);
+      return docCount++;
+    }
+
+    private void removePostings(int doc) {
+      for (PostingList list : docPostings[doc]) {
+        list.remove(doc);
+        if (list.size == 0) {
+          terms.get(list.field).remove(list.token);
+          if (sorted) {
+            sortedTerms.get(list.field).remove(list.token);
+          }
+        }
+      }
+    }
+
+    // Books with a token starting with the query token in any of the given fields. Broad prefixes
+    // are summed into a score per doc; narrow ones are merged from their posting lists.
+    private Matches match(String token, Field... fields) {
+      List<PostingList> lists = new ArrayList<>();
+      long total = 0;
+      for (Field field : fields) {
+        for (PostingList list :
+            sortedTerms
+                .get(field)
+                .subMap(token, true, token + Character.MAX_VALUE, true)
+                .values()) {
+          lists.add(list);
+          total += list.size;
+        }
+      }
+      return total > docCount / 8 ? denseMatch(token, lists) : sparseMatch(token, lists);
+    }
+
+    private Matches denseMatch(String token, List<PostingList> lists) {
+      int[] scores = new int[docCount];
+      for (PostingList list : lists) {
+        int points = list.points(token);
+        for (int i = 0; i < list.size; i++) {
+          scores[list.docs[i]] += points * list.counts[i];
+        }
+      }
+      int size = 0;
+      for (int score : scores) {
+        size += score > 0 ? 1 : 0;
+      }
+      Matches matches = new Matches(size);
+      for (int doc = 0; doc < scores.length; doc++) {
+        if (scores[doc] > 0) {
+          matches.append(doc, scores[doc]);
+        }
+      }
+      return matches;
+    }
+
+    // Union the posting lists pairwise, as merge sort does, so each hit is copied log(lists) times
+    private Matches sparseMatch(String token, List<PostingList> lists) {
+      List<Matches> runs = new ArrayList<>(lists.size());
+      for (PostingList list : lists) {
+        runs.add(list.matches(token));
+      }
+      while (runs.size() > 1) {
+        List<Matches> merged = new ArrayList<>((runs.size() + 1) / 2);
+        for (int i = 0; i < runs.size(); i += 2) {
+          merged.add(i + 1 < runs.size() ? runs.get(i).union(runs.get(i + 1)) : runs.get(i));
+        }
+        runs = merged;
+      }
+      return runs.isEmpty() ? Matches.NONE : runs.getFirst();
+    }
+
+    private boolean ranksBelow(int a, int b, Matches matches) {
+      if (matches.scores[a] != matches.scores[b]) {
+        return matches.scores[a] < matches.scores[b];
+      }
+      return bookIds[matches.docs[a]] > bookIds[matches.docs[b]];
+    }
+
+    private void siftUp(int[] heap, int at, Matches matches) {
+      while (at > 0) {
+        int parent = (at - 1) / 2;
+        if (!ranksBelow(heap[at], heap[parent], matches)) {
+          return;
+        }
+        swap(heap, at, parent);
+        at = parent;
+      }
+    }
+
+    private void siftDown(int[] heap, int size, Matches matches) {
+      int at = 0;
+      while (true) {
+        int worst = at;
+        for (int child = 2 * at + 1; child <= 2 * at + 2 && child < size; child++) {
+          if (ranksBelow(heap[child], heap[worst], matches)) {
+            worst = child;
+          }
+        }
+        if (worst == at) {
+          return;
+        }
+        swap(heap, at, worst);
+        at = worst;
+      }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+      int swapped = heap[a];
+      heap[a] = heap[b];
+      heap[b] = swapped;
+    }
+  }
+
+  // The docs holding one token of one field, in doc order, with the token's occurrences in each
+  private static final class PostingList {
+
+    private final Field field;
+
+    private final String token;
+
+    private int[] docs = new int[2];
+
+    // Occurrences beyond Byte.MAX_VALUE add nothing to the ranking
+    private byte[] counts = new byte[2];
+
+    private int size;
+
+    private PostingList(Field field, String token) {
+      this.field = field;
+      this.token = token;
+    }
+
+    // Score of one occurrence for a query token matching this token exactly or as a prefix
+    int points(String queryToken) {
+      return field.weight * (token.length() == queryToken.length() ? 2 : 1);
+    }
+
+    Matches matches(String queryToken) {
+      int points = points(queryToken);
+      Matches matches = new Matches(size);
+      for (int i = 0; i < size; i++) {
+        matches.append(docs[i], points * counts[i]);
+      }
+      return matches;
+    }
+
+    void add(int doc, int count) {
+      // Docs are mostly added in increasing order, so appending is the common case
+      int at = size == 0 || docs[size - 1] < doc ? size : Arrays.binarySearch(docs, 0, size, doc);
+      if (at >= 0 && at < size) {
+        counts[at] = (byte) Math.min(count, Byte.MAX_VALUE);
+        return;
+      }
+      at = at < 0 ? -at - 1 : at;
+      if (size == docs.length) {
+        int capacity = size + (size >> 1) + 1;
+        docs = Arrays.copyOf(docs, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+      }
+      System.arraycopy(docs, at, docs, at + 1, size - at);
+      System.arraycopy(counts, at, counts, at + 1, size - at);
+      docs[at] = doc;
+      counts[at] = (byte) Math.min(count, Byte.MAX_VALUE);
+      size++;
+    }
+
+    void remove(int doc) {
+      int at = Arrays.binarySearch(docs, 0, size, doc);
+      if (at < 0) {
+        return;
+      }
+      System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+      System.arraycopy(counts, at + 1, counts, at, size - at - 1);
+      size--;
+    }
+
+    void trim() {
+      docs = Arrays.copyOf(docs, size);
+      counts = Arrays.copyOf(counts, size);
+    }
+  }
+
+  // Matching docs in doc order with their scores
+  private static final class Matches {
+
+    private static final Matches NONE = new Matches(0);
+
+    private final int[] docs;
+
+    private final int[] scores;
+
+    private int size;
+
+    private Matches(int capacity) {
+      docs = new int[capacity];
+      scores = new int[capacity];
+    }
+
+    private void append(int doc, int score) {
+      docs[size] = doc;
+      scores[size++] = score;
+    }
+
+    // Docs in both, with the scores added
+    Matches intersect(Matches other) {
+      Matches both = new Matches(Math.min(size, other.size));
+      for (int i = 0, j = 0; i < size && j < other.size; ) {
+        if (docs[i] < other.docs[j]) {
+          i++;
+        } else if (docs[i] > other.docs[j]) {
+          j++;
+        } else {
+          both.append(docs[i], scores[i++] + other.scores[j++]);
+        }
+      }
+      return both;
+    }
+
+    // Docs in either, with the scores of docs in both added
+    Matches union(Matches other) {
+      Matches either = new Matches(size + other.size);
+      int i = 0;
+      int j = 0;
+      while (i < size || j < other.size) {
+        if (j == other.size || i < size && docs[i] < other.docs[j]) {
+          either.append(docs[i], scores[i++]);
+        } else if (i == size || docs[i] > other.docs[j]) {
+          either.append(other.docs[j], other.scores[j++]);
+        } else {
+          either.append(docs[i], scores[i++] + other.scores[j++]);
+        }
+      }
+      return either;
+    }
+  }
+
+  // Open-addressing map from book id to doc, so the index holds no boxed entry per book
+  private static final class DocTable {
+
+    static final int NONE = -1;
+
+    private long[] keys = new long[1024];
+
+    private int[] values = filled(1024);
+
+    private int size;
+
+    int size() {
+      return size;
+    }
+
+    int get(long id) {
+      for (int i = slot(id, keys.length); values[i] != NONE; i = (i + 1) & (keys.length - 1)) {
+        if (keys[i] == id) {
+          return values[i];
+        }
+      }
+      return NONE;
+    }
+
+    void put(long id, int doc) {
+      if (2 * (size + 1) > keys.length) {
+        resize();
+      }
+      int i = slot(id, keys.length);
+      while (values[i] != NONE && keys[i] != id) {
+        i = (i + 1) & (keys.length - 1);
+      }
+      if (values[i] == NONE) {
+        size++;
+      }
+      keys[i] = id;
+      values[i] = doc;
+    }
+
+    // Remove an id and return its doc, shifting later entries of its probe run back into the gap
+    int remove(long id) {
+      int mask = keys.length - 1;
+      int gap = slot(id, keys.length);
+      while (values[gap] != NONE && keys[gap] != id) {
+        gap = (gap + 1) & mask;
+      }
+      int doc = values[gap];
+      if (doc == NONE) {
+        return NONE;
+      }
+      for (int i = (gap + 1) & mask; values[i] != NONE; i = (i + 1) & mask) {
+        int home = slot(keys[i], keys.length);
+        if (((i - home) & mask) >= ((i - gap) & mask)) {
+          keys[gap] = keys[i];
+          values[gap] = values[i];
+          gap = i;
+        }
+      }
+      values[gap] = NONE;
+      size--;
+      return doc;
+    }
+
+    private void resize() {
+      long[] oldKeys = keys;
+      int[] oldValues = values;
+      keys = new long[oldKeys.length * 2];
+      values = filled(keys.length);
+      size = 0;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldValues[i] != NONE) {
+          put(oldKeys[i], oldValues[i]);
+        }
+      }
+    }
+
+    private static int slot(long id, int capacity) {
+      return Long.hashCode(id * 0x9E3779B97F4A7C15L) & (capacity - 1);
+    }
+
+    private static int[] filled(int capacity) {
+      int[] values = new int[capacity];
+      Arrays.fill(values, NONE);
+      return values;
+    }
+  }
+}
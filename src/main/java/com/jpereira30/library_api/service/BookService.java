@@ -1,26 +1,106 @@
 package com.jpereira30.library_api.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.jpereira30.library_api.dto.BookBatchResult;
+import com.jpereira30.library_api.dto.BookSummary;
 import com.jpereira30.library_api.entity.Book;
 import com.jpereira30.library_api.exception.BookNotFoundException;
+import com.jpereira30.library_api.exception.BookVersionConflictException;
+import com.jpereira30.library_api.exception.DuplicateIsbnException;
 import com.jpereira30.library_api.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class BookService {
 
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  // Book properties a client can select with ?fields=
+  public static final Set<String> FIELDS =
+      Set.of(
+          "id",
+          "title",
+          "author",
+          "isbn",
+          "publicationYear",
+          "description",
+          "version",
+          "updatedAt");
+
   private final BookRepository bookRepository;
 
+  private final EntityManager entityManager;
+
+  private final BookSearchIndex searchIndex;
+
+  private final AsyncCache<Long, Book> bookCache;
+
+  private final CatalogVersion catalogVersion;
+
+  private final int batchGetChunkSize;
+
   @Autowired
-  public BookService(BookRepository bookRepository) {
+  public BookService(
+      BookRepository bookRepository,
+      EntityManager entityManager,
+      BookSearchIndex searchIndex,
+      AsyncCache<Long, Book> bookCache,
+      CatalogVersion catalogVersion,
+      @Value("${library.batch-get.chunk-size:500}") int batchGetChunkSize) {
     this.bookRepository = bookRepository;
+    this.entityManager = entityManager;
+    this.searchIndex = searchIndex;
+    this.bookCache = bookCache;
+    this.catalogVersion = catalogVersion;
+    this.batchGetChunkSize = batchGetChunkSize;
+  }
+
+  // Rebuild the in-memory search index from the catalog once the application is up
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void rebuildSearchIndex() {
+    BookSearchIndex.Rebuild rebuild = searchIndex.rebuild();
+    streamAllBooks(rebuild::add);
+    rebuild.publish();
   }
 
-  // Create Book
+  // Create Book; any client-supplied ID or version is ignored
   public Book createBook(Book book) {
-    return bookRepository.save(book);
+    book.setId(null);
+    book.setVersion(null);
+    Book savedBook;
+    try {
+      savedBook = bookRepository.save(book);
+    } catch (DataIntegrityViolationException e) {
+      throw duplicateIsbnOr(e, null, book.getIsbn());
+    }
+    searchIndex.index(savedBook);
+    catalogVersion.advance();
+    return savedBook;
   }
 
   // Retrieve all Books
@@ -28,31 +108,252 @@ public class BookService {
     return bookRepository.findAll();
   }
 
-  // Retrieve Book by Id
+  // Retrieve a page of Books after the given id (keyset pagination)
+  public List<Book> retrieveBooksAfter(Long after, int limit) {
+    int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+    return bookRepository.findByIdGreaterThanOrderByIdAsc(
+        after != null ? after : 0L, Limit.of(pageSize));
+  }
+
+  // Retrieve all Books as summaries, in id order
+  public List<BookSummary> retrieveBookSummaries() {
+    return bookRepository.findSummariesByOrderByIdAsc();
+  }
+
+  // Retrieve a page of Book summaries after the given id (keyset pagination)
+  public List<BookSummary> retrieveBookSummariesAfter(Long after, int limit) {
+    int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+    return bookRepository.findSummariesByIdGreaterThanOrderByIdAsc(
+        after != null ? after : 0L, Limit.of(pageSize));
+  }
+
+  // Whether BookSummary holds every requested field, so a list response can be read as summaries
+  public static boolean summaryCovers(Collection<String> fields) {
+    return !fields.isEmpty() && !fields.contains("description");
+  }
+
+  // Stream all Books in id order, detaching each one so memory stays flat
+  @Transactional(readOnly = true)
+  public void streamAllBooks(Consumer<Book> action) {
+    try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc()) {
+      books.forEach(
+          book -> {
+            action.accept(book);
+            entityManager.detach(book);
+          });
+    }
+  }
+
+  // Retrieve Book by Id, reading through the book cache. The first reader of an id loads it on its
+  // own thread, outside the cache's locks, so a virtual thread waiting for the database is never
+  // pinned; concurrent readers wait for that load. An invalidation issued while a load is in
+  // flight drops its result.
   public Optional<Book> retrieveBookById(Long id) {
-    return bookRepository.findById(id);
+    CompletableFuture<Book> load = new CompletableFuture<>();
+    CompletableFuture<Book> book = bookCache.get(id, (key, executor) -> load);
+    if (book == load) {
+      try {
+        load.complete(bookRepository.findById(id).orElse(null));
+      } catch (RuntimeException e) {
+        load.completeExceptionally(e);
+        throw e;
+      }
+    }
+    return Optional.ofNullable(join(book));
+  }
+
+  // Retrieve Books by IDs, each once in the order first requested, listing the IDs that do not
+  // exist. Books in the cache are served from it; the rest are loaded with one query per chunk of
+  // IDs and cached, the same way as retrieveBookById loads a single book.
+  public BookBatchResult retrieveBooksByIds(List<Long> ids) {
+    List<Long> distinctIds = ids.stream().distinct().toList();
+    Set<Long> toLoad = new HashSet<>();
+    CompletableFuture<Map<Long, Book>> load = new CompletableFuture<>();
+    CompletableFuture<Map<Long, Book>> books =
+        bookCache.getAll(
+            distinctIds,
+            (keys, executor) -> {
+              toLoad.addAll(keys);
+              return load;
+            });
+    if (!toLoad.isEmpty()) {
+      try {
+        Map<Long, Book> loaded = new HashMap<>();
+        for (List<Long> chunk : chunks(List.copyOf(toLoad), batchGetChunkSize)) {
+          bookRepository.findAllById(chunk).forEach(book -> loaded.put(book.getId(), book));
+        }
+        load.complete(loaded);
+      } catch (RuntimeException e) {
+        load.completeExceptionally(e);
+        throw e;
+      }
+    }
+    return inRequestedOrder(distinctIds, join(books));
+  }
+
+  // Retrieve Book by ISBN
+  public Optional<Book> retrieveBookByIsbn(String isbn) {
+    return bookRepository.findByIsbn(isbn);
+  }
+
+  // Books whose title, or else author, starts with the given prefix ignoring case, in
+  // alphabetical order
+  public List<Book> browseBooks(String titlePrefix, String authorPrefix, int limit) {
+    int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+    if (titlePrefix != null && !titlePrefix.isBlank()) {
+      return bookRepository.findByTitlePrefix(likePrefix(titlePrefix), pageSize);
+    }
+    if (authorPrefix != null && !authorPrefix.isBlank()) {
+      return bookRepository.findByAuthorPrefix(likePrefix(authorPrefix), pageSize);
+    }
+    return List.of();
   }
 
-  // Update Book
+  // Hit, miss and eviction counters of the book cache
+  public CacheStats bookCacheStats() {
+    return bookCache.synchronous().stats();
+  }
+
+  // Update Book in a single statement. When the book carries a version, the update only applies
+  // to that version and the returned book carries the next one; otherwise the last write wins and
+  // the stored version is read back. A write landing in between can make that read newer than this
+  // update, which at worst fails the client's next conditional update.
   public Book updateBook(Long id, Book updatedBook) {
-    if (!bookRepository.existsById(id)) {
+    Long expectedVersion = updatedBook.getVersion();
+    updatedBook.touch();
+    int updated;
+    try {
+      updated =
+          expectedVersion != null
+              ? bookRepository.updateBookIfVersion(id, updatedBook)
+              : bookRepository.updateBook(id, updatedBook);
+    } catch (DataIntegrityViolationException e) {
+      throw duplicateIsbnOr(e, id, updatedBook.getIsbn());
+    }
+    if (updated == 0) {
+      // Only the failure path needs a second query to tell a missing book from a stale version
+      if (expectedVersion != null && bookRepository.existsById(id)) {
+        throw new BookVersionConflictException(id, expectedVersion);
+      }
       throw new BookNotFoundException(id);
     }
     updatedBook.setId(id);
-    return bookRepository.save(updatedBook);
+    updatedBook.setVersion(
+        expectedVersion != null
+            ? expectedVersion + 1
+            : bookRepository.findVersionById(id).orElseThrow(() -> new BookNotFoundException(id)));
+    bookCache.synchronous().invalidate(id);
+    searchIndex.index(updatedBook);
+    catalogVersion.advance();
+    return updatedBook;
   }
 
-  // Delete a book
+  // Delete a book in a single statement
   public void deleteBook(Long id) {
-    if (!bookRepository.existsById(id)) {
+    if (bookRepository.deleteBookById(id) == 0) {
       throw new BookNotFoundException(id);
     }
-    bookRepository.deleteById(id);
+    bookCache.synchronous().invalidate(id);
+    searchIndex.remove(id);
+    catalogVersion.advance();
+  }
+
+  // Multi-get result: the found books in the order of the IDs, then the IDs without a book
+  static BookBatchResult inRequestedOrder(List<Long> ids, Map<Long, Book> booksById) {
+    List<Book> books = new ArrayList<>(booksById.size());
+    List<Long> missing = new ArrayList<>();
+    for (Long id : ids) {
+      Book book = booksById.get(id);
+      if (book != null) {
+        books.add(book);
+      } else {
+        missing.add(id);
+      }
+    }
+    return BookBatchResult.builder().books(books).missing(missing).build();
+  }
+
+  static <T> List<List<T>> chunks(List<T> items, int chunkSize) {
+    List<List<T>> chunks = new ArrayList<>();
+    for (int start = 0; start < items.size(); start += chunkSize) {
+      chunks.add(items.subList(start, Math.min(start + chunkSize, items.size())));
+    }
+    return chunks;
+  }
+
+  // Lowercased LIKE pattern matching values that start with the prefix
+  static String likePrefix(String prefix) {
+    String lower = prefix.toLowerCase(Locale.ROOT);
+    StringBuilder pattern = new StringBuilder(lower.length() + 1);
+    for (int i = 0; i < lower.length(); i++) {
+      char c = lower.charAt(i);
+      if (c == '\\' || c == '%' || c == '_') {
+        pattern.append('\\');
+      }
+      pattern.append(c);
+    }
+    return pattern.append('%').toString();
+  }
+
+  // The value of a cache load, rethrowing a failed load's own exception
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
+
+  // A failed write is reported as a duplicate when another book holds the ISBN
+  private RuntimeException duplicateIsbnOr(
+      DataIntegrityViolationException e, Long id, String isbn) {
+    boolean taken =
+        isbn != null
+            && bookRepository
+                .findByIsbn(isbn)
+                .filter(existing -> !existing.getId().equals(id))
+                .isPresent();
+    return taken ? new DuplicateIsbnException(isbn) : e;
+  }
+
+  // Search books by title or author, best matches first; only the best limit matches are loaded
+  public List<Book> searchBooks(String title, String author, int limit) {
+    return loadInOrder(searchIndex.search(title, author, Math.clamp(limit, 1, MAX_PAGE_SIZE)));
+  }
+
+  // Search books by words in their title, author or description, best matches first
+  public List<Book> searchBooks(String query, int limit) {
+    return loadInOrder(searchIndex.search(query, Math.clamp(limit, 1, MAX_PAGE_SIZE)));
+  }
+
+  // Search books by title or author as summaries, best matches first
+  public List<BookSummary> searchBookSummaries(String title, String author, int limit) {
+    return loadSummariesInOrder(
+        searchIndex.search(title, author, Math.clamp(limit, 1, MAX_PAGE_SIZE)));
+  }
+
+  // Search books by words in their title, author or description as summaries, best matches first
+  public List<BookSummary> searchBookSummaries(String query, int limit) {
+    return loadSummariesInOrder(searchIndex.search(query, Math.clamp(limit, 1, MAX_PAGE_SIZE)));
+  }
+
+  private List<Book> loadInOrder(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return inOrder(ids, bookRepository.findAllById(ids), Book::getId);
+  }
+
+  private List<BookSummary> loadSummariesInOrder(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return inOrder(ids, bookRepository.findSummariesByIdIn(ids), BookSummary::id);
   }
 
-  // Search books by title or author
-  public List<Book> searchBooks(String title, String author) {
-    return bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(
-        title, author);
+  private static <T> List<T> inOrder(List<Long> ids, Iterable<T> books, Function<T, Long> id) {
+    Map<Long, T> booksById = new HashMap<>();
+    books.forEach(book -> booksById.put(id.apply(book), book));
+    return ids.stream().map(booksById::get).filter(Objects::nonNull).toList();
   }
 }
@@ -0,0 +1,38 @@
+package com.jpereira30.library_api.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+// File formats for catalog import and export
+public enum CatalogFormat {
+  CSV("text/csv", ".csv"),
+  NDJSON("application/x-ndjson", ".ndjson");
+
+  private final String mediaType;
+
+  private final String extension;
+
+  CatalogFormat(String mediaType, String extension) {
+    this.mediaType = mediaType;
+    this.extension = extension;
+  }
+
+  public String getMediaType() {
+    return mediaType;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+
+  public static Optional<CatalogFormat> fromName(String name) {
+    return Arrays.stream(values())
+        .filter(format -> format.name().equalsIgnoreCase(name))
+        .findFirst();
+  }
+
+  public static CatalogFormat fromFileName(String fileName) {
+    return fileName.toLowerCase(Locale.ROOT).endsWith(CSV.extension) ? CSV : NDJSON;
+  }
+}
@@ -0,0 +1,97 @@
+package com.jpereira30.library_api.service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+// Snapshots of the persistent catalog. A snapshot is an online H2 backup: a zip of the database
+// file taken while the application keeps serving. Restoring one unzips that file into the storage
+// directory before the database is opened, so a node comes back without re-importing the catalog;
+// Flyway then applies any migrations newer than the snapshot.
+@Service
+@Profile("persistent")
+public class CatalogSnapshotService {
+
+  private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+  private static final DateTimeFormatter SNAPSHOT_NAME =
+      DateTimeFormatter.ofPattern("'catalog-'yyyyMMdd'T'HHmmssSSS'Z.zip'").withZone(ZoneOffset.UTC);
+
+  private static final String DATABASE_FILE_SUFFIX = ".mv.db";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final Path snapshotDir;
+
+  public CatalogSnapshotService(
+      JdbcTemplate jdbcTemplate, @Value("${library.storage.snapshot-dir}") Path snapshotDir) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.snapshotDir = snapshotDir;
+  }
+
+  // Back up the database to a new zip in the snapshot directory
+  public Path createSnapshot() throws IOException {
+    Files.createDirectories(snapshotDir);
+    Path snapshot = snapshotDir.resolve(SNAPSHOT_NAME.format(Instant.now())).toAbsolutePath();
+    jdbcTemplate.execute("BACKUP TO '" + snapshot.toString().replace("'", "''") + "'");
+    log.info("Wrote catalog snapshot {} ({} bytes)", snapshot, Files.size(snapshot));
+    return snapshot;
+  }
+
+  // Snapshots in the snapshot directory, newest first
+  public List<Path> listSnapshots() throws IOException {
+    if (!Files.isDirectory(snapshotDir)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(snapshotDir)) {
+      return files
+          .filter(file -> file.getFileName().toString().startsWith("catalog-"))
+          .sorted(Comparator.comparing(Path::getFileName).reversed())
+          .toList();
+    }
+  }
+
+  // Unzip the database file of a snapshot into the storage directory, unless the database
+  // already exists there; returns whether the snapshot was restored
+  public static boolean restore(Path snapshot, Path storageDir, String database)
+      throws IOException {
+    Path target = storageDir.resolve(database + DATABASE_FILE_SUFFIX);
+    if (Files.exists(target)) {
+      log.info("Database {} already exists; not restoring snapshot {}", target, snapshot);
+      return false;
+    }
+    Files.createDirectories(storageDir);
+    try (ZipInputStream zip =
+        new ZipInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+      for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+        if (!entry.getName().endsWith(DATABASE_FILE_SUFFIX)) {
+          continue;
+        }
+        // Unzip next to the target and move it into place, so a failed restore leaves no
+        // partial database behind
+        Path partial = storageDir.resolve(database + DATABASE_FILE_SUFFIX + ".restoring");
+        Files.copy(zip, partial, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Restored snapshot {} to {}", snapshot, target);
+        return true;
+      }
+    }
+    throw new IOException("Snapshot " + snapshot + " contains no database file");
+  }
+}
@@ -0,0 +1,33 @@
+package com.jpereira30.library_api.service;
+
+import java.time.Instant;
+import org.springframework.stereotype.Component;
+
+// Version of the whole catalog, advanced after every committed write, so that collection responses
+// can be validated without querying the books. Counts from the time the node started, which is
+// also its initial last-modified time, so validators issued before a restart never match.
+@Component
+public class CatalogVersion {
+
+  public record Snapshot(String etag, Instant lastModified) {}
+
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+  private long counter;
+
+  private volatile Snapshot current = snapshot(0, Instant.now());
+
+  // Validators for collection responses; take them before reading the books they describe
+  public Snapshot current() {
+    return current;
+  }
+
+  // Record a write to the catalog; call it once the write is committed
+  public synchronized void advance() {
+    current = snapshot(++counter, Instant.now());
+  }
+
+  private Snapshot snapshot(long version, Instant lastModified) {
+    return new Snapshot("\"catalog-" + epoch + "-" + version + "\"", lastModified);
+  }
+}
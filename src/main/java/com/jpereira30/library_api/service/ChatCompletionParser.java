@@ -0,0 +1,116 @@
+package com.jpereira30.library_api.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpereira30.library_api.dto.ChatCompletion;
+import com.jpereira30.library_api.dto.Usage;
+import java.io.IOException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads chat completion responses and streamed chunks with the streaming Jackson parser.
+ *
+ * <p>Only the first choice's {@code message.content} (or {@code delta.content}) and the {@code
+ * usage} token counts are read; every other field is skipped without being materialized.
+ */
+@Component
+public class ChatCompletionParser {
+
+  private final JsonFactory jsonFactory;
+
+  public ChatCompletionParser(ObjectMapper objectMapper) {
+    this.jsonFactory = objectMapper.getFactory();
+  }
+
+  public ChatCompletion parse(byte[] json) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(json)) {
+      return readCompletion(parser);
+    }
+  }
+
+  public ChatCompletion parse(String json) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(json)) {
+      return readCompletion(parser);
+    }
+  }
+
+  private static ChatCompletion readCompletion(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new JsonParseException(parser, "Expected a chat completion object");
+    }
+    ChatCompletion completion = new ChatCompletion();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken value = parser.nextToken();
+      if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+        completion.setContent(readChoices(parser));
+      } else if ("usage".equals(field) && value == JsonToken.START_OBJECT) {
+        completion.setUsage(readUsage(parser));
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return completion;
+  }
+
+  // Content of the first choice; any further choices are skipped
+  private static String readChoices(JsonParser parser) throws IOException {
+    String content = null;
+    boolean first = true;
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (first && parser.currentToken() == JsonToken.START_OBJECT) {
+        content = readChoice(parser);
+        first = false;
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return content;
+  }
+
+  private static String readChoice(JsonParser parser) throws IOException {
+    String content = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken value = parser.nextToken();
+      if (("message".equals(field) || "delta".equals(field)) && value == JsonToken.START_OBJECT) {
+        content = readContent(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return content;
+  }
+
+  private static String readContent(JsonParser parser) throws IOException {
+    String content = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken value = parser.nextToken();
+      if ("content".equals(field) && value == JsonToken.VALUE_STRING) {
+        content = parser.getText();
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return content;
+  }
+
+  private static Usage readUsage(JsonParser parser) throws IOException {
+    Usage usage = new Usage();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "prompt_tokens" -> usage.setPromptTokens(parser.getValueAsLong());
+        case "completion_tokens" -> usage.setCompletionTokens(parser.getValueAsLong());
+        case "total_tokens" -> usage.setTotalTokens(parser.getValueAsLong());
+        default -> parser.skipChildren();
+      }
+    }
+    return usage;
+  }
+}
@@ -0,0 +1,97 @@
+package com.jpereira30.library_api.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal RFC 4180 reader: comma separated, double-quoted fields may contain commas, escaped
+// quotes ("") and line breaks. Reads one record at a time.
+class CsvRecordReader {
+
+  private final Reader reader;
+
+  private long line = 1;
+
+  private long recordLine;
+
+  private int pushedBack = -2;
+
+  CsvRecordReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  // Line on which the last returned record started
+  long recordLine() {
+    return recordLine;
+  }
+
+  // Next non-empty record, or null at end of input
+  List<String> next() throws IOException {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean inQuotes = false;
+    boolean quoted = false;
+    recordLine = line;
+    int c;
+    while ((c = read()) != -1) {
+      if (inQuotes) {
+        if (c == '"') {
+          int following = read();
+          if (following == '"') {
+            field.append('"');
+          } else {
+            inQuotes = false;
+            unread(following);
+          }
+        } else {
+          if (c == '\n') {
+            line++;
+          }
+          field.append((char) c);
+        }
+      } else if (c == '"' && field.isEmpty() && !quoted) {
+        inQuotes = true;
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+        quoted = false;
+      } else if (c == '\r' || c == '\n') {
+        if (c == '\r') {
+          int following = read();
+          if (following != '\n') {
+            unread(following);
+          }
+        }
+        line++;
+        if (fields.isEmpty() && field.isEmpty() && !quoted) {
+          recordLine = line;
+          continue;
+        }
+        fields.add(field.toString());
+        return fields;
+      } else {
+        field.append((char) c);
+      }
+    }
+    if (fields.isEmpty() && field.isEmpty() && !quoted) {
+      return null;
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  private int read() throws IOException {
+    if (pushedBack != -2) {
+      int c = pushedBack;
+      pushedBack = -2;
+      return c;
+    }
+    return reader.read();
+  }
+
+  private void unread(int c) {
+    pushedBack = c;
+  }
+}
@@ -0,0 +1,299 @@
+package com.jpereira30.library_api.service;
+
+import com.jpereira30.library_api.dto.InsightJobStatus;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.entity.InsightJob;
+import com.jpereira30.library_api.entity.InsightJobFailure;
+import com.jpereira30.library_api.repository.InsightJobFailureRepository;
+import com.jpereira30.library_api.repository.InsightJobRepository;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Generates insights for the whole catalog in the background, one keyset page at a time. Books
+// whose insight fails are recorded and retried once the catalog has been covered; while the AI
+// provider is unavailable the run pauses rather than moving past the books it could not reach.
+@Service
+public class InsightBatchService {
+
+  static final Long JOB_ID = 1L;
+
+  private static final Logger log = LoggerFactory.getLogger(InsightBatchService.class);
+
+  private final BookService bookService;
+
+  private final InsightService insightService;
+
+  private final InsightJobRepository jobRepository;
+
+  private final InsightJobFailureRepository failureRepository;
+
+  private final int pageSize;
+
+  private final int concurrency;
+
+  private final Duration timeout;
+
+  private final Duration pause;
+
+  private final AtomicBoolean active = new AtomicBoolean();
+
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "insight-batch");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  public InsightBatchService(
+      BookService bookService,
+      InsightService insightService,
+      InsightJobRepository jobRepository,
+      InsightJobFailureRepository failureRepository,
+      @Value("${library.insights.batch.page-size:100}") int pageSize,
+      @Value("${library.insights.batch.concurrency:8}") int concurrency,
+      @Value("${library.insights.timeout:30s}") Duration timeout,
+      @Value("${library.insights.batch.pause:30s}") Duration pause) {
+    this.bookService = bookService;
+    this.insightService = insightService;
+    this.jobRepository = jobRepository;
+    this.failureRepository = failureRepository;
+    this.pageSize = pageSize;
+    this.concurrency = concurrency;
+    this.timeout = timeout;
+    this.pause = pause;
+  }
+
+  // Resume a run that was interrupted by a restart
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumeInterruptedRun() {
+    jobRepository
+        .findById(JOB_ID)
+        .filter(job -> job.getStatus() == InsightJob.Status.RUNNING)
+        .ifPresent(
+            job -> {
+              if (active.compareAndSet(false, true)) {
+                log.info("Resuming insight batch after book {}", job.getLastBookId());
+                executor.execute(this::run);
+              }
+            });
+  }
+
+  // Start a new run over the whole catalog, unless one is already active. A run left RUNNING by
+  // an error resumes from its checkpoint instead of starting over.
+  public InsightJobStatus start() {
+    if (active.compareAndSet(false, true)) {
+      try {
+        Optional<InsightJob> stopped =
+            jobRepository
+                .findById(JOB_ID)
+                .filter(job -> job.getStatus() == InsightJob.Status.RUNNING);
+        if (stopped.isPresent()) {
+          log.info("Resuming insight batch after book {}", stopped.get().getLastBookId());
+        } else {
+          Instant now = Instant.now();
+          failureRepository.deleteAllInBatch();
+          jobRepository.save(
+              InsightJob.builder()
+                  .id(JOB_ID)
+                  .status(InsightJob.Status.RUNNING)
+                  .lastBookId(0L)
+                  .processed(0L)
+                  .failed(0L)
+                  .startedAt(now)
+                  .updatedAt(now)
+                  .build());
+        }
+        executor.execute(this::run);
+      } catch (RuntimeException e) {
+        active.set(false);
+        throw e;
+      }
+    }
+    return status();
+  }
+
+  public InsightJobStatus status() {
+    return jobRepository
+        .findById(JOB_ID)
+        .map(
+            job -> {
+              double seconds =
+                  Duration.between(job.getStartedAt(), job.getUpdatedAt()).toMillis() / 1000.0;
+              return InsightJobStatus.builder()
+                  .status(job.getStatus())
+                  .active(active.get())
+                  .lastBookId(job.getLastBookId())
+                  .processed(job.getProcessed())
+                  .failed(job.getFailed())
+                  .startedAt(job.getStartedAt())
+                  .updatedAt(job.getUpdatedAt())
+                  .booksPerSecond(seconds > 0 ? job.getProcessed() / seconds : 0)
+                  .build();
+            })
+        .orElseGet(() -> InsightJobStatus.builder().active(active.get()).build());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  void run() {
+    try {
+      InsightJob job = jobRepository.findById(JOB_ID).orElseThrow();
+      List<Book> page;
+      while (!(page = bookService.retrieveBooksAfter(job.getLastBookId(), pageSize)).isEmpty()) {
+        job = checkpoint(job, page, generate(page));
+      }
+      job = retryFailures(job);
+      job.setStatus(InsightJob.Status.COMPLETED);
+      job.setUpdatedAt(Instant.now());
+      jobRepository.save(job);
+      log.info(
+          "Insight batch completed: {} books processed, {} failed",
+          job.getProcessed(),
+          job.getFailed());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.info("Insight batch interrupted; it will resume from its last checkpoint");
+    } catch (RuntimeException e) {
+      log.error("Insight batch stopped; starting it again resumes from its last checkpoint", e);
+    } finally {
+      active.set(false);
+    }
+  }
+
+  // Record the outcomes of a page in book order. The checkpoint stops short of the first book the
+  // provider was unavailable for, and the run pauses before it tries that book again.
+  private InsightJob checkpoint(InsightJob job, List<Book> page, Map<Long, Outcome> outcomes)
+      throws InterruptedException {
+    List<InsightJobFailure> failures = new ArrayList<>();
+    int processed = 0;
+    for (Book book : page) {
+      Outcome outcome = outcomes.get(book.getId());
+      if (outcome == Outcome.UNAVAILABLE) {
+        break;
+      }
+      if (outcome == Outcome.FAILED) {
+        failures.add(new InsightJobFailure(book.getId()));
+      }
+      job.setLastBookId(book.getId());
+      processed++;
+    }
+    failureRepository.saveAll(failures);
+    job.setProcessed(job.getProcessed() + processed);
+    job.setFailed(failureRepository.count());
+    job.setUpdatedAt(Instant.now());
+    job = jobRepository.save(job);
+    if (processed < page.size()) {
+      pauseWhileUnavailable();
+    }
+    return job;
+  }
+
+  // Give every failed book of the run one more attempt before the run completes
+  private InsightJob retryFailures(InsightJob job) throws InterruptedException {
+    long after = 0;
+    List<InsightJobFailure> failures;
+    while (!(failures =
+            failureRepository.findByBookIdGreaterThanOrderByBookIdAsc(after, Limit.of(pageSize)))
+        .isEmpty()) {
+      Map<Long, Outcome> outcomes =
+          generate(
+              bookService
+                  .retrieveBooksByIds(failures.stream().map(InsightJobFailure::getBookId).toList())
+                  .getBooks());
+      List<Long> resolved = new ArrayList<>();
+      boolean unavailable = false;
+      for (InsightJobFailure failure : failures) {
+        // Books deleted since they failed have no outcome and need no insight
+        Outcome outcome = outcomes.getOrDefault(failure.getBookId(), Outcome.GENERATED);
+        if (outcome == Outcome.UNAVAILABLE) {
+          unavailable = true;
+          break;
+        }
+        if (outcome == Outcome.GENERATED) {
+          resolved.add(failure.getBookId());
+        }
+        after = failure.getBookId();
+      }
+      failureRepository.deleteAllByIdInBatch(resolved);
+      job.setFailed(failureRepository.count());
+      job.setUpdatedAt(Instant.now());
+      job = jobRepository.save(job);
+      if (unavailable) {
+        pauseWhileUnavailable();
+      }
+    }
+    return job;
+  }
+
+  private void pauseWhileUnavailable() throws InterruptedException {
+    log.warn("AI provider unavailable; insight batch pausing for {}", pause);
+    Thread.sleep(pause);
+  }
+
+  // Generate insights for books with bounded parallelism
+  private Map<Long, Outcome> generate(List<Book> books) {
+    Map<Long, Outcome> outcomes =
+        Flux.fromIterable(books)
+            .flatMap(
+                book ->
+                    insightService
+                        .resolveInsights(book.getDescription())
+                        .timeout(timeout)
+                        .map(insight -> Outcome.GENERATED)
+                        .defaultIfEmpty(Outcome.FAILED)
+                        .onErrorResume(error -> Mono.just(outcomeOf(error)))
+                        .map(outcome -> Map.entry(book.getId(), outcome)),
+                concurrency)
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+            .block();
+    return outcomes != null ? outcomes : Map.of();
+  }
+
+  // A provider that refuses calls, cannot be reached, times out or fails on its side (5xx or 429)
+  // is down, which says nothing about the book itself
+  private static Outcome outcomeOf(Throwable error) {
+    return error instanceof CallNotPermittedException
+            || error instanceof BulkheadFullException
+            || error instanceof TimeoutException
+            || error instanceof WebClientRequestException
+            || error instanceof WebClientResponseException responseError
+                && (responseError.getStatusCode().is5xxServerError()
+                    || responseError.getStatusCode().value()
+                        == HttpStatus.TOO_MANY_REQUESTS.value())
+        ? Outcome.UNAVAILABLE
+        : Outcome.FAILED;
+  }
+
+  private enum Outcome {
+    GENERATED,
+    FAILED,
+    UNAVAILABLE
+  }
+}
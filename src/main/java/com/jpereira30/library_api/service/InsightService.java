@@ -0,0 +1,259 @@
+package com.jpereira30.library_api.service;
+
+import com.jpereira30.library_api.entity.BookInsight;
+import com.jpereira30.library_api.exception.InsightsUnavailableException;
+import com.jpereira30.library_api.repository.BookInsightRepository;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+// Insights cached by a hash of (model, prompt). The prompt embeds the description, so a book whose
+// description changes gets a new key and never sees the old insight. Keys left behind by edited
+// descriptions or a model change are never read again, so stored insights expire after a TTL and
+// expired rows are purged periodically.
+@Service
+public class InsightService {
+
+  // Returned by generateInsights when the provider answers without an insight
+  public static final String NO_INSIGHTS = "No insights available";
+
+  private static final Logger log = LoggerFactory.getLogger(InsightService.class);
+
+  private final AIService aiService;
+
+  private final BookInsightRepository insightRepository;
+
+  // Runs repository calls off the reactive threads
+  private final Scheduler blockingScheduler;
+
+  // Lookups in progress, so concurrent requests for the same key share one upstream call
+  private final Map<String, Mono<String>> inFlight = new ConcurrentHashMap<>();
+
+  // Insight requests currently waiting for a result
+  private final AtomicInteger outstanding = new AtomicInteger();
+
+  private final int maxConcurrent;
+
+  private final Duration timeout;
+
+  // Age after which a stored insight is generated again and may be purged
+  private final Duration ttl;
+
+  private final Counter rejected;
+
+  private final Counter timeouts;
+
+  private final Counter stored;
+
+  private final Counter generated;
+
+  public InsightService(
+      AIService aiService,
+      BookInsightRepository insightRepository,
+      Scheduler blockingScheduler,
+      MeterRegistry meterRegistry,
+      @Value("${library.insights.max-concurrent:500}") int maxConcurrent,
+      @Value("${library.insights.timeout:30s}") Duration timeout,
+      @Value("${library.insights.ttl:30d}") Duration ttl) {
+    this.aiService = aiService;
+    this.insightRepository = insightRepository;
+    this.blockingScheduler = blockingScheduler;
+    this.maxConcurrent = maxConcurrent;
+    this.timeout = timeout;
+    this.ttl = ttl;
+    this.rejected = meterRegistry.counter("library.insights.rejected");
+    this.timeouts = meterRegistry.counter("library.insights.timeouts");
+    this.stored = meterRegistry.counter("library.insights.lookups", "source", "stored");
+    this.generated = meterRegistry.counter("library.insights.lookups", "source", "generated");
+    Gauge.builder("library.insights.outstanding", outstanding, AtomicInteger::get)
+        .description("Insight requests waiting for a result")
+        .register(meterRegistry);
+  }
+
+  // Rejects with InsightsUnavailableException once maxConcurrent requests are outstanding, and
+  // when the provider fails, times out or is short-circuited
+  public Mono<String> generateInsights(String description) {
+    return Mono.defer(
+        () -> {
+          if (outstanding.incrementAndGet() > maxConcurrent) {
+            outstanding.decrementAndGet();
+            rejected.increment();
+            return Mono.error(
+                new InsightsUnavailableException("Too many insight requests in progress."));
+          }
+          return resolveInsights(description)
+              .timeout(timeout)
+              .doOnError(TimeoutException.class, e -> timeouts.increment())
+              .defaultIfEmpty(NO_INSIGHTS)
+              .onErrorMap(
+                  e -> !(e instanceof InsightsUnavailableException), InsightService::unavailable)
+              .doFinally(signal -> outstanding.decrementAndGet());
+        });
+  }
+
+  // Stream an insight while it is generated; a stored insight is replayed as a single chunk. The
+  // assembled insight is stored once the stream completes. Subject to the same request cap, with
+  // the timeout applied to each chunk.
+  public Flux<String> streamInsights(String description) {
+    return Flux.defer(
+        () -> {
+          if (outstanding.incrementAndGet() > maxConcurrent) {
+            outstanding.decrementAndGet();
+            rejected.increment();
+            return Flux.error(
+                new InsightsUnavailableException("Too many insight requests in progress."));
+          }
+          String key = cacheKey(aiService.getModel(), aiService.promptFor(description));
+          return Mono.fromCallable(() -> insightRepository.findById(key))
+              .subscribeOn(blockingScheduler)
+              .flatMapMany(
+                  cached ->
+                      cached
+                          .filter(this::fresh)
+                          .map(
+                              insight -> {
+                                stored.increment();
+                                return Flux.just(insight.getInsight());
+                              })
+                          .orElseGet(
+                              () -> {
+                                generated.increment();
+                                return streamAndStore(key, description);
+                              }))
+              .timeout(timeout)
+              .doOnError(TimeoutException.class, e -> timeouts.increment())
+              .onErrorMap(
+                  e -> !(e instanceof InsightsUnavailableException), InsightService::unavailable)
+              .doFinally(signal -> outstanding.decrementAndGet());
+        });
+  }
+
+  // Stored or freshly generated insight, without the request cap or fallback messages;
+  // empty when the provider returns no insight
+  public Mono<String> resolveInsights(String description) {
+    String key = cacheKey(aiService.getModel(), aiService.promptFor(description));
+    return inFlight.computeIfAbsent(key, k -> loadOrGenerate(k, description));
+  }
+
+  // Delete stored insights older than the TTL; returns the number of rows deleted
+  @Scheduled(
+      initialDelayString = "${library.insights.purge-interval:PT6H}",
+      fixedDelayString = "${library.insights.purge-interval:PT6H}")
+  public int purgeExpiredInsights() {
+    int purged = insightRepository.deleteByCreatedAtBefore(Instant.now().minus(ttl));
+    if (purged > 0) {
+      log.info("Purged {} insights older than {}", purged, ttl);
+    }
+    return purged;
+  }
+
+  public int outstandingRequests() {
+    return outstanding.get();
+  }
+
+  private Mono<String> loadOrGenerate(String key, String description) {
+    return Mono.fromCallable(() -> insightRepository.findById(key))
+        .subscribeOn(blockingScheduler)
+        .flatMap(
+            cached ->
+                cached
+                    .filter(this::fresh)
+                    .map(
+                        insight -> {
+                          stored.increment();
+                          return Mono.just(insight.getInsight());
+                        })
+                    .orElseGet(
+                        () -> {
+                          generated.increment();
+                          return generateAndStore(key, description);
+                        }))
+        .doFinally(signal -> inFlight.remove(key))
+        .cache();
+  }
+
+  private Mono<String> generateAndStore(String key, String description) {
+    return aiService
+        .requestInsights(description)
+        .publishOn(blockingScheduler)
+        .doOnNext(insight -> store(key, insight));
+  }
+
+  // Forward chunks as they arrive and store the assembled insight before completing, so a
+  // cancelled or failed stream stores nothing
+  private Flux<String> streamAndStore(String key, String description) {
+    StringBuilder insight = new StringBuilder();
+    return aiService
+        .streamInsights(description)
+        .doOnNext(insight::append)
+        .concatWith(
+            Mono.<String>fromRunnable(
+                    () -> {
+                      if (!insight.isEmpty()) {
+                        store(key, insight.toString());
+                      }
+                    })
+                .subscribeOn(blockingScheduler));
+  }
+
+  private boolean fresh(BookInsight insight) {
+    return insight.getCreatedAt().isAfter(Instant.now().minus(ttl));
+  }
+
+  private void store(String key, String insight) {
+    insightRepository.save(
+        BookInsight.builder()
+            .cacheKey(key)
+            .model(aiService.getModel())
+            .insight(insight)
+            .createdAt(Instant.now())
+            .build());
+  }
+
+  // Upstream failures surface as 503 rather than as a placeholder insight
+  private static InsightsUnavailableException unavailable(Throwable error) {
+    String message;
+    if (error instanceof TimeoutException) {
+      message = "Timed out waiting for the AI provider.";
+    } else if (error instanceof CallNotPermittedException) {
+      message = "The AI provider is unavailable; try again later.";
+    } else if (error instanceof BulkheadFullException) {
+      message = "Too many requests to the AI provider in progress.";
+    } else {
+      message = "The AI provider failed to generate insights.";
+    }
+    return new InsightsUnavailableException(message, error);
+  }
+
+  static String cacheKey(String model, String prompt) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(model.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(prompt.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
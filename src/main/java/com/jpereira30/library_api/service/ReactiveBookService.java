@@ -0,0 +1,261 @@
+package com.jpereira30.library_api.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.jpereira30.library_api.dto.BookBatchResult;
+import com.jpereira30.library_api.dto.BookSummary;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.exception.BookNotFoundException;
+import com.jpereira30.library_api.exception.BookVersionConflictException;
+import com.jpereira30.library_api.exception.DuplicateIsbnException;
+import com.jpereira30.library_api.repository.ReactiveBookRepository;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking counterparts of the BookService operations, for the reactive web stack. Reads and
+// writes share the book cache and search index with BookService, so both stacks see one catalog.
+@Service
+public class ReactiveBookService {
+
+  private final ReactiveBookRepository bookRepository;
+
+  private final BookSearchIndex searchIndex;
+
+  private final AsyncCache<Long, Book> bookCache;
+
+  private final CatalogVersion catalogVersion;
+
+  private final int batchGetChunkSize;
+
+  public ReactiveBookService(
+      ReactiveBookRepository bookRepository,
+      BookSearchIndex searchIndex,
+      AsyncCache<Long, Book> bookCache,
+      CatalogVersion catalogVersion,
+      @Value("${library.batch-get.chunk-size:500}") int batchGetChunkSize) {
+    this.bookRepository = bookRepository;
+    this.searchIndex = searchIndex;
+    this.bookCache = bookCache;
+    this.catalogVersion = catalogVersion;
+    this.batchGetChunkSize = batchGetChunkSize;
+  }
+
+  // Create Book; any client-supplied ID or version is ignored
+  public Mono<Book> createBook(Book book) {
+    book.setId(null);
+    book.setVersion(null);
+    book.touch();
+    return bookRepository
+        .insert(book)
+        .onErrorResume(
+            DataIntegrityViolationException.class, e -> duplicateIsbnOr(e, null, book.getIsbn()))
+        .doOnNext(
+            created -> {
+              searchIndex.index(created);
+              catalogVersion.advance();
+            });
+  }
+
+  // Retrieve all Books
+  public Flux<Book> retrieveAllBooks() {
+    return bookRepository.findAll();
+  }
+
+  // Retrieve a page of Books after the given id (keyset pagination)
+  public Flux<Book> retrieveBooksAfter(Long after, int limit) {
+    int pageSize = Math.clamp(limit, 1, BookService.MAX_PAGE_SIZE);
+    return bookRepository.findByIdGreaterThan(after != null ? after : 0L, pageSize);
+  }
+
+  // Retrieve all Books as summaries, in id order
+  public Flux<BookSummary> retrieveBookSummaries() {
+    return bookRepository.findAllSummaries();
+  }
+
+  // Retrieve a page of Book summaries after the given id (keyset pagination)
+  public Flux<BookSummary> retrieveBookSummariesAfter(Long after, int limit) {
+    int pageSize = Math.clamp(limit, 1, BookService.MAX_PAGE_SIZE);
+    return bookRepository.findSummariesByIdGreaterThan(after != null ? after : 0L, pageSize);
+  }
+
+  // Retrieve Book by Id, reading through the book cache. Concurrent readers of an id share one
+  // query, and a reader that cancels leaves it running for the others.
+  public Mono<Book> retrieveBookById(Long id) {
+    return Mono.fromFuture(
+        () -> bookCache.get(id, (key, executor) -> bookRepository.findById(key).toFuture()), true);
+  }
+
+  // Retrieve Books by IDs as BookService.retrieveBooksByIds does: cached books first, then one
+  // query per chunk of the remaining IDs
+  public Mono<BookBatchResult> retrieveBooksByIds(List<Long> ids) {
+    List<Long> distinctIds = ids.stream().distinct().toList();
+    return Mono.fromFuture(
+            () ->
+                bookCache.getAll(
+                    distinctIds,
+                    (keys, executor) ->
+                        Flux.fromIterable(
+                                BookService.chunks(List.<Long>copyOf(keys), batchGetChunkSize))
+                            .concatMap(bookRepository::findAllById)
+                            .collectMap(Book::getId)
+                            .toFuture()),
+            true)
+        .map(booksById -> BookService.inRequestedOrder(distinctIds, booksById));
+  }
+
+  // Retrieve Book by ISBN
+  public Mono<Book> retrieveBookByIsbn(String isbn) {
+    return bookRepository.findByIsbn(isbn);
+  }
+
+  // Books whose title, or else author, starts with the given prefix ignoring case, in
+  // alphabetical order
+  public Flux<Book> browseBooks(String titlePrefix, String authorPrefix, int limit) {
+    int pageSize = Math.clamp(limit, 1, BookService.MAX_PAGE_SIZE);
+    if (titlePrefix != null && !titlePrefix.isBlank()) {
+      return bookRepository.findByTitlePrefix(BookService.likePrefix(titlePrefix), pageSize);
+    }
+    if (authorPrefix != null && !authorPrefix.isBlank()) {
+      return bookRepository.findByAuthorPrefix(BookService.likePrefix(authorPrefix), pageSize);
+    }
+    return Flux.empty();
+  }
+
+  // Update Book in a single statement, with the same version semantics as BookService.updateBook
+  public Mono<Book> updateBook(Long id, Book updatedBook) {
+    Long expectedVersion = updatedBook.getVersion();
+    updatedBook.touch();
+    Mono<Long> update =
+        expectedVersion != null
+            ? bookRepository.updateBookIfVersion(id, updatedBook)
+            : bookRepository.updateBook(id, updatedBook);
+    return update
+        .onErrorResume(
+            DataIntegrityViolationException.class,
+            e -> duplicateIsbnOr(e, id, updatedBook.getIsbn()))
+        .flatMap(
+            updated -> {
+              if (updated == 0) {
+                return notUpdated(id, expectedVersion);
+              }
+              Mono<Long> version =
+                  expectedVersion != null
+                      ? Mono.just(expectedVersion + 1)
+                      : bookRepository
+                          .findVersionById(id)
+                          .switchIfEmpty(Mono.error(new BookNotFoundException(id)));
+              return version.map(
+                  stored -> {
+                    updatedBook.setId(id);
+                    updatedBook.setVersion(stored);
+                    bookCache.synchronous().invalidate(id);
+                    searchIndex.index(updatedBook);
+                    catalogVersion.advance();
+                    return updatedBook;
+                  });
+            });
+  }
+
+  // Delete a book in a single statement
+  public Mono<Void> deleteBook(Long id) {
+    return bookRepository
+        .deleteBookById(id)
+        .flatMap(
+            deleted -> {
+              if (deleted == 0) {
+                return Mono.error(new BookNotFoundException(id));
+              }
+              bookCache.synchronous().invalidate(id);
+              searchIndex.remove(id);
+              catalogVersion.advance();
+              return Mono.empty();
+            });
+  }
+
+  // Search books by title or author, best matches first; only the best limit matches are loaded
+  public Flux<Book> searchBooks(String title, String author, int limit) {
+    return Flux.defer(
+        () ->
+            loadInOrder(
+                searchIndex.search(
+                    title, author, Math.clamp(limit, 1, BookService.MAX_PAGE_SIZE))));
+  }
+
+  // Search books by words in their title, author or description, best matches first
+  public Flux<Book> searchBooks(String query, int limit) {
+    return Flux.defer(
+        () ->
+            loadInOrder(
+                searchIndex.search(query, Math.clamp(limit, 1, BookService.MAX_PAGE_SIZE))));
+  }
+
+  // Search books by title or author as summaries, best matches first
+  public Flux<BookSummary> searchBookSummaries(String title, String author, int limit) {
+    return Flux.defer(
+        () ->
+            loadSummariesInOrder(
+                searchIndex.search(
+                    title, author, Math.clamp(limit, 1, BookService.MAX_PAGE_SIZE))));
+  }
+
+  // Search books by words in their title, author or description as summaries, best matches first
+  public Flux<BookSummary> searchBookSummaries(String query, int limit) {
+    return Flux.defer(
+        () ->
+            loadSummariesInOrder(
+                searchIndex.search(query, Math.clamp(limit, 1, BookService.MAX_PAGE_SIZE))));
+  }
+
+  private Flux<Book> loadInOrder(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return Flux.empty();
+    }
+    return inOrder(ids, bookRepository.findAllById(ids), Book::getId);
+  }
+
+  private Flux<BookSummary> loadSummariesInOrder(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return Flux.empty();
+    }
+    return inOrder(ids, bookRepository.findSummariesById(ids), BookSummary::id);
+  }
+
+  private static <T> Flux<T> inOrder(List<Long> ids, Flux<T> books, Function<T, Long> id) {
+    return books
+        .collectMap(id)
+        .flatMapIterable(
+            booksById -> ids.stream().map(booksById::get).filter(Objects::nonNull).toList());
+  }
+
+  // Only the failure path needs a second query to tell a missing book from a stale version
+  private Mono<Book> notUpdated(Long id, Long expectedVersion) {
+    if (expectedVersion == null) {
+      return Mono.error(new BookNotFoundException(id));
+    }
+    return bookRepository
+        .existsById(id)
+        .flatMap(
+            exists ->
+                Mono.error(
+                    exists
+                        ? new BookVersionConflictException(id, expectedVersion)
+                        : new BookNotFoundException(id)));
+  }
+
+  // A failed write is reported as a duplicate when another book holds the ISBN
+  private <T> Mono<T> duplicateIsbnOr(DataIntegrityViolationException e, Long id, String isbn) {
+    if (isbn == null) {
+      return Mono.error(e);
+    }
+    return bookRepository
+        .findByIsbn(isbn)
+        .filter(existing -> !existing.getId().equals(id))
+        .flatMap(existing -> Mono.<T>error(new DuplicateIsbnException(isbn)))
+        .switchIfEmpty(Mono.error(e));
+  }
+}
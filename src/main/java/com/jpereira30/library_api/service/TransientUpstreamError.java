@@ -0,0 +1,21 @@
+package com.jpereira30.library_api.service;
+
+import java.util.function.Predicate;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Upstream failures worth retrying, which also count against the OpenAI circuit breaker: 429 and
+ * 5xx responses, and requests that failed to connect or timed out waiting for a response. Other 4xx
+ * responses mean the request itself is wrong and are neither retried nor recorded.
+ */
+public class TransientUpstreamError implements Predicate<Throwable> {
+
+  @Override
+  public boolean test(Throwable error) {
+    if (error instanceof WebClientResponseException response) {
+      return response.getStatusCode().value() == 429 || response.getStatusCode().is5xxServerError();
+    }
+    return error instanceof WebClientRequestException;
+  }
+}
@@ -0,0 +1,33 @@
+-- Catalog schema as previously generated by Hibernate from the entities
+
+CREATE SEQUENCE books_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE books (
+    id               BIGINT       NOT NULL,
+    title            VARCHAR(180) NOT NULL,
+    author           VARCHAR(50),
+    isbn             VARCHAR(13),
+    publication_year INTEGER      NOT NULL,
+    description      VARCHAR(500),
+    version          BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE book_insights (
+    cache_key  VARCHAR(64)                 NOT NULL,
+    model      VARCHAR(100)                NOT NULL,
+    insight    VARCHAR(1000)               NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (cache_key)
+);
+
+CREATE TABLE insight_jobs (
+    id           BIGINT                      NOT NULL,
+    status       VARCHAR(20)                 NOT NULL CHECK (status IN ('RUNNING', 'COMPLETED')),
+    last_book_id BIGINT                      NOT NULL,
+    processed    BIGINT                      NOT NULL,
+    failed       BIGINT                      NOT NULL,
+    started_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id)
+);
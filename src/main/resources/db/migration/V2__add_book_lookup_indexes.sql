@@ -0,0 +1,11 @@
+-- ISBN lookups and duplicate detection
+ALTER TABLE books ADD CONSTRAINT uk_books_isbn UNIQUE (isbn);
+
+-- Lowercased title and author, maintained by the database, so case-insensitive prefix lookups
+-- can range-scan an index instead of applying LOWER() to every row. The id column makes the
+-- index order match the queries' tie-break.
+ALTER TABLE books ADD COLUMN title_lower VARCHAR(180) GENERATED ALWAYS AS (LOWER(title));
+ALTER TABLE books ADD COLUMN author_lower VARCHAR(50) GENERATED ALWAYS AS (LOWER(author));
+
+CREATE INDEX idx_books_title_lower ON books (title_lower, id);
+CREATE INDEX idx_books_author_lower ON books (author_lower, id);
@@ -0,0 +1,2 @@
+-- Time of each book's latest write, served as Last-Modified. Existing books count as written now.
+ALTER TABLE books ADD COLUMN updated_at TIMESTAMP(6) WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL;
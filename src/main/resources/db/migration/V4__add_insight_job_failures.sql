@@ -0,0 +1,6 @@
+-- Books whose insight failed during the insight batch run, retried before the run completes
+
+CREATE TABLE insight_job_failures (
+    book_id BIGINT NOT NULL,
+    PRIMARY KEY (book_id)
+);
@@ -0,0 +1,5 @@
+-- Every book carries a version so that version = version + 1 always moves it on. Books written
+-- before this migration without one start at 0.
+UPDATE books SET version = 0 WHERE version IS NULL;
+ALTER TABLE books ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE books ALTER COLUMN version SET NOT NULL;
@@ -1,41 +1,75 @@
 package com.jpereira30.library_api.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpereira30.library_api.config.JacksonConfig;
+import com.jpereira30.library_api.dto.BookBatchResult;
+import com.jpereira30.library_api.dto.BookSummary;
+import com.jpereira30.library_api.dto.BulkItemResult;
 import com.jpereira30.library_api.entity.Book;
 import com.jpereira30.library_api.exception.BookNotFoundException;
-import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.exception.BookVersionConflictException;
+import com.jpereira30.library_api.exception.DuplicateIsbnException;
+import com.jpereira30.library_api.exception.InsightsUnavailableException;
+import com.jpereira30.library_api.service.BookBulkService;
+import com.jpereira30.library_api.service.BookExportService;
+import com.jpereira30.library_api.service.BookImportService;
 import com.jpereira30.library_api.service.BookService;
+import com.jpereira30.library_api.service.CatalogVersion;
+import com.jpereira30.library_api.service.InsightService;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import reactor.core.publisher.Mono;
 
 @WebMvcTest(BookController.class)
+@Import({JacksonConfig.class, CatalogVersion.class})
 class BookControllerTest {
 
   @Autowired private MockMvc mockMvc;
 
   @MockBean private BookService bookService;
 
+  @MockBean private BookBulkService bookBulkService;
+
+  @MockBean private BookImportService bookImportService;
+
+  @MockBean private BookExportService bookExportService;
+
   @Autowired private ObjectMapper objectMapper;
 
-  @MockBean private AIService aiService;
+  @MockBean private InsightService insightService;
 
   @Test
   void testCreateBook() throws Exception {
@@ -52,6 +86,108 @@ class BookControllerTest {
         .andExpect(jsonPath("$.title").value("Book1"));
   }
 
+  @Test
+  void testGetBooksByIds() throws Exception {
+    Book book = new Book(2L, "Book2", "Author2", "1234567890", 2022, "Desc");
+    when(bookService.retrieveBooksByIds(List.of(2L, 9L)))
+        .thenReturn(BookBatchResult.builder().books(List.of(book)).missing(List.of(9L)).build());
+    mockMvc
+        .perform(get("/books").param("ids", "2,9"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.books[0].id").value(2))
+        .andExpect(jsonPath("$.missing[0]").value(9));
+    mockMvc
+        .perform(
+            post("/books/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(2L, 9L))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.books[0].title").value("Book2"));
+  }
+
+  @Test
+  void testGetBooksByIds_TooManyIds() throws Exception {
+    List<Long> ids = LongStream.rangeClosed(1, 1001).boxed().toList();
+    mockMvc
+        .perform(
+            post("/books/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ids)))
+        .andExpect(status().isBadRequest());
+    verify(bookService, never()).retrieveBooksByIds(any());
+  }
+
+  @Test
+  void testCreateBooksInBulk() throws Exception {
+    List<Book> books =
+        List.of(
+            new Book(null, "Book1", "Author1", "1234567890", 2022, "Desc"),
+            new Book(null, "", "Author2", "1234567890", 2022, "Desc"));
+    when(bookBulkService.createBooks(any()))
+        .thenReturn(
+            List.of(
+                BulkItemResult.builder()
+                    .index(0)
+                    .id(1L)
+                    .status(BulkItemResult.Status.CREATED)
+                    .build(),
+                BulkItemResult.builder()
+                    .index(1)
+                    .status(BulkItemResult.Status.INVALID)
+                    .errors(Map.of("title", "Title is required"))
+                    .build()));
+    mockMvc
+        .perform(
+            post("/books/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(books)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].status").value("CREATED"))
+        .andExpect(jsonPath("$[1].errors.title").value("Title is required"));
+  }
+
+  @Test
+  void testUpdateBooksInBulk() throws Exception {
+    List<Book> books = List.of(new Book(7L, "Book1", "Author1", "1234567890", 2022, "Desc"));
+    when(bookBulkService.updateBooks(any()))
+        .thenReturn(
+            List.of(
+                BulkItemResult.builder()
+                    .index(0)
+                    .id(7L)
+                    .status(BulkItemResult.Status.NOT_FOUND)
+                    .build()));
+    mockMvc
+        .perform(
+            put("/books/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(books)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].status").value("NOT_FOUND"));
+  }
+
+  @Test
+  void testDeleteBooksInBulk() throws Exception {
+    when(bookBulkService.deleteBooks(List.of(1L, 2L)))
+        .thenReturn(
+            List.of(
+                BulkItemResult.builder()
+                    .index(0)
+                    .id(1L)
+                    .status(BulkItemResult.Status.DELETED)
+                    .build(),
+                BulkItemResult.builder()
+                    .index(1)
+                    .id(2L)
+                    .status(BulkItemResult.Status.NOT_FOUND)
+                    .build()));
+    mockMvc
+        .perform(delete("/books/bulk").contentType(MediaType.APPLICATION_JSON).content("[1,2]"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].status").value("DELETED"))
+        .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+  }
+
   @Test
   void testGetAllBooks() throws Exception {
     List<Book> books = List.of(new Book(1L, "Book1", "Author1", "1112321311", 2021, "Desc1"));
@@ -64,6 +200,88 @@ class BookControllerTest {
         .andExpect(jsonPath("$[0].author").value("Author1"));
   }
 
+  @Test
+  void testGetBooksPage_FullPageSetsNextCursor() throws Exception {
+    List<Book> books =
+        List.of(
+            new Book(3L, "Book3", "Author3", "1112321313", 2021, "Desc3"),
+            new Book(4L, "Book4", "Author4", "1112321314", 2021, "Desc4"));
+    when(bookService.retrieveBooksAfter(2L, 2)).thenReturn(books);
+
+    mockMvc
+        .perform(get("/books?after=2&limit=2"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Next-After", "4"))
+        .andExpect(jsonPath("$[0].id").value(3))
+        .andExpect(jsonPath("$[1].id").value(4));
+  }
+
+  @Test
+  void testGetBooksPage_LastPageHasNoNextCursor() throws Exception {
+    List<Book> books = List.of(new Book(3L, "Book3", "Author3", "1112321313", 2021, "Desc3"));
+    when(bookService.retrieveBooksAfter(2L, 2)).thenReturn(books);
+
+    mockMvc
+        .perform(get("/books?after=2&limit=2"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("X-Next-After"))
+        .andExpect(jsonPath("$.length()").value(1));
+  }
+
+  @Test
+  void testGetBooksPage_SelectedFieldsReadSummaries() throws Exception {
+    List<BookSummary> summaries =
+        List.of(
+            new BookSummary(3L, "Book3", "Author3", "1112321313", 2021, 0L, null),
+            new BookSummary(4L, "Book4", "Author4", "1112321314", 2021, 0L, null));
+    when(bookService.retrieveBookSummariesAfter(2L, 2)).thenReturn(summaries);
+
+    mockMvc
+        .perform(get("/books?after=2&limit=2&fields=id,title"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Next-After", "4"))
+        .andExpect(jsonPath("$[1].id").value(4))
+        .andExpect(jsonPath("$[1].title").value("Book4"))
+        .andExpect(jsonPath("$[1].author").doesNotExist())
+        .andExpect(jsonPath("$[1].version").doesNotExist());
+    verify(bookService, never()).retrieveBooksAfter(any(), any(Integer.class));
+  }
+
+  @Test
+  void testGetAllBooks_UnknownFieldIsRejected() throws Exception {
+    mockMvc.perform(get("/books?fields=id,price")).andExpect(status().isBadRequest());
+    mockMvc.perform(get("/books/search?q=java&fields=cover")).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void testStreamAllBooks() throws Exception {
+    doAnswer(
+            invocation -> {
+              Consumer<Book> action = invocation.getArgument(0);
+              action.accept(new Book(1L, "Book1", "Author1", "1112321311", 2021, "Desc1"));
+              action.accept(new Book(2L, "Book2", "Author2", "1112321312", 2022, "Desc2"));
+              return null;
+            })
+        .when(bookService)
+        .streamAllBooks(any());
+
+    MvcResult result =
+        mockMvc.perform(get("/books/stream")).andExpect(request().asyncStarted()).andReturn();
+    String body =
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    String[] lines = body.split("\n");
+    assertThat(lines).hasSize(2);
+    assertThat(objectMapper.readValue(lines[0], Book.class).getTitle()).isEqualTo("Book1");
+    assertThat(objectMapper.readValue(lines[1], Book.class).getTitle()).isEqualTo("Book2");
+  }
+
   @Test
   void testGetBookById_Found() throws Exception {
     Book book = new Book(1L, "Book1", "Author1", "123", 2022, "Desc");
@@ -80,17 +298,135 @@ class BookControllerTest {
     mockMvc.perform(get("/books/1")).andExpect(status().isNotFound());
   }
 
+  @Test
+  void testGetBookById_NotModifiedWhileVersionMatches() throws Exception {
+    Book book = new Book(1L, "Book1", "Author1", "1112321311", 2022, "Desc", 3L);
+    book.touch();
+    when(bookService.retrieveBookById(1L)).thenReturn(Optional.of(book));
+
+    mockMvc
+        .perform(get("/books/1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"3\""))
+        .andExpect(header().exists("Last-Modified"));
+    mockMvc
+        .perform(get("/books/1").header("If-None-Match", "\"3\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+    mockMvc
+        .perform(get("/books/1").header("If-None-Match", "\"2\""))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.version").value(3));
+  }
+
+  @Test
+  void testGetAllBooks_NotModifiedWhileCatalogUnchanged() throws Exception {
+    when(bookService.retrieveAllBooks())
+        .thenReturn(List.of(new Book(1L, "Book1", "Author1", "1112321311", 2021, "Desc1")));
+
+    String etag =
+        mockMvc
+            .perform(get("/books"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+    mockMvc
+        .perform(get("/books").header("If-None-Match", etag))
+        .andExpect(status().isNotModified());
+    mockMvc
+        .perform(get("/books/search?q=book").header("If-None-Match", etag))
+        .andExpect(status().isNotModified());
+
+    // Neither conditional request reached the service
+    verify(bookService, times(1)).retrieveAllBooks();
+    verify(bookService, never()).searchBooks(any(), anyInt());
+  }
+
+  @Test
+  void testGetBookByIsbn_Found() throws Exception {
+    Book book = new Book(1L, "Book1", "Author1", "9780000000001", 2022, "Desc");
+    when(bookService.retrieveBookByIsbn("9780000000001")).thenReturn(Optional.of(book));
+    mockMvc
+        .perform(get("/books/isbn/9780000000001"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(1));
+  }
+
+  @Test
+  void testGetBookByIsbn_NotFound() throws Exception {
+    when(bookService.retrieveBookByIsbn("9780000000001")).thenReturn(Optional.empty());
+    mockMvc.perform(get("/books/isbn/9780000000001")).andExpect(status().isNotFound());
+  }
+
+  @Test
+  void testCreateBook_DuplicateIsbn() throws Exception {
+    Book book = new Book(null, "Book1", "Author1", "9780000000001", 2022, "Desc");
+    when(bookService.createBook(any(Book.class)))
+        .thenThrow(new DuplicateIsbnException("9780000000001"));
+    mockMvc
+        .perform(
+            post("/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book)))
+        .andExpect(status().isConflict());
+  }
+
   @Test
   void testUpdateBook_Success() throws Exception {
-    Book updatedBook = new Book(1L, "Updated Title", "Author", "12331312123", 2023, "Desc");
+    Book book = new Book(1L, "Updated Title", "Author", "12331312123", 2023, "Desc");
+    Book updatedBook = new Book(1L, "Updated Title", "Author", "12331312123", 2023, "Desc", 4L);
     when(bookService.updateBook(eq(1L), any(Book.class))).thenReturn(updatedBook);
+    // Without If-Match the update still answers with the ETag of the version it stored
+    mockMvc
+        .perform(
+            put("/books/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.title").value("Updated Title"))
+        .andExpect(jsonPath("$.version").value(4))
+        .andExpect(header().string("ETag", "\"4\""));
+  }
+
+  @Test
+  void testUpdateBook_IfMatchIsTheExpectedVersion() throws Exception {
+    Book book = new Book(1L, "Updated Title", "Author", "12331312123", 2023, "Desc");
+    when(bookService.updateBook(eq(1L), argThat(b -> Long.valueOf(2L).equals(b.getVersion()))))
+        .thenReturn(new Book(1L, "Updated Title", "Author", "12331312123", 2023, "Desc", 3L));
+
     mockMvc
         .perform(
             put("/books/1")
+                .header("If-Match", "\"2\"")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(updatedBook)))
+                .content(objectMapper.writeValueAsString(book)))
         .andExpect(status().isOk())
-        .andExpect(jsonPath("$.title").value("Updated Title"));
+        .andExpect(header().string("ETag", "\"3\""));
+  }
+
+  @Test
+  void testUpdateBook_IfMatchMismatchIsPreconditionFailed() throws Exception {
+    Book book = new Book(1L, "Updated Title", "Author", "12331312123", 2023, "Desc");
+    when(bookService.updateBook(eq(1L), any(Book.class)))
+        .thenThrow(new BookVersionConflictException(1L, 2L));
+
+    mockMvc
+        .perform(
+            put("/books/1")
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book)))
+        .andExpect(status().isPreconditionFailed());
+    // A weak ETag never matches for If-Match, so the update is not attempted
+    mockMvc
+        .perform(
+            put("/books/1")
+                .header("If-Match", "W/\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book)))
+        .andExpect(status().isPreconditionFailed());
+    verify(bookService, times(1)).updateBook(eq(1L), any(Book.class));
   }
 
   @Test
@@ -100,9 +436,9 @@ class BookControllerTest {
     Book book =
         new Book(bookId, "Updated Title", "Author", "12331312123", 2023, "Updated Description");
 
-    // Simulate a RuntimeException being thrown by the service layer
+    // Simulate a BookNotFoundException being thrown by the service layer
     when(bookService.updateBook(eq(bookId), any(Book.class)))
-        .thenThrow(new RuntimeException("Book not found"));
+        .thenThrow(new BookNotFoundException(bookId));
 
     // Act & Assert
     mockMvc
@@ -111,6 +447,41 @@ class BookControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(book)))
         .andExpect(status().isNotFound());
+    mockMvc
+        .perform(
+            put("/books/{id}", bookId)
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book)))
+        .andExpect(status().isPreconditionFailed());
+  }
+
+  @Test
+  void testUpdateBook_UnexpectedErrorIsNotReportedAsMissing() throws Exception {
+    Book book = new Book(1L, "Updated Title", "Author", "12331312123", 2023, "Desc");
+    when(bookService.updateBook(eq(1L), any(Book.class)))
+        .thenThrow(new IllegalStateException("Connection refused"));
+
+    mockMvc
+        .perform(
+            put("/books/1")
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book)))
+        .andExpect(status().isInternalServerError());
+  }
+
+  @Test
+  void testUpdateBook_VersionConflict() throws Exception {
+    Book book = new Book(1L, "Updated Title", "Author", "12331312123", 2023, "Desc", 2L);
+    when(bookService.updateBook(eq(1L), any(Book.class)))
+        .thenThrow(new BookVersionConflictException(1L, 2L));
+    mockMvc
+        .perform(
+            put("/books/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book)))
+        .andExpect(status().isConflict());
   }
 
   @Test
@@ -135,13 +506,60 @@ class BookControllerTest {
   @Test
   void testSearchBooks() throws Exception {
     List<Book> books = List.of(new Book(1L, "Spring Boot", "Josh", "12331312123", 2021, "Desc"));
-    when(bookService.searchBooks("Spring", "")).thenReturn(books);
+    when(bookService.searchBooks("Spring", "", 50)).thenReturn(books);
     mockMvc
         .perform(get("/books/search?title=Spring"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$[0].title").value("Spring Boot"));
   }
 
+  @Test
+  void testSearchBooks_FreeText() throws Exception {
+    List<Book> books = List.of(new Book(1L, "Spring Boot", "Josh", "12331312123", 2021, "Desc"));
+    when(bookService.searchBooks("spring boot", 50)).thenReturn(books);
+    mockMvc
+        .perform(get("/books/search?q=spring boot"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].title").value("Spring Boot"));
+  }
+
+  @Test
+  void testSearchBooks_PassesLimit() throws Exception {
+    List<Book> books = List.of(new Book(1L, "Spring Boot", "Josh", "12331312123", 2021, "Desc"));
+    when(bookService.searchBooks("spring", 5)).thenReturn(books);
+    mockMvc
+        .perform(get("/books/search?q=spring&limit=5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1));
+  }
+
+  @Test
+  void testSearchBooks_SelectedFieldsWithDescriptionReadBooks() throws Exception {
+    List<Book> books = List.of(new Book(1L, "Spring Boot", "Josh", "12331312123", 2021, "Desc"));
+    when(bookService.searchBooks("spring", 50)).thenReturn(books);
+    mockMvc
+        .perform(get("/books/search?q=spring&fields=title,description"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].description").value("Desc"))
+        .andExpect(jsonPath("$[0].id").doesNotExist())
+        .andExpect(jsonPath("$[0].isbn").doesNotExist());
+  }
+
+  @Test
+  void testBrowseBooks() throws Exception {
+    List<Book> books = List.of(new Book(1L, "Dune", "Frank Herbert", "12331312123", 1965, "Desc"));
+    when(bookService.browseBooks("du", "", 20)).thenReturn(books);
+    mockMvc
+        .perform(get("/books/browse?title=du&limit=20"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].title").value("Dune"));
+  }
+
+  @Test
+  void testBrowseBooks_RequiresPrefix() throws Exception {
+    mockMvc.perform(get("/books/browse")).andExpect(status().isBadRequest());
+  }
+
   @Test
   void testGetAIInsights_Success() throws Exception {
     Long bookId = 1L;
@@ -151,12 +569,18 @@ class BookControllerTest {
     // Mock the service to return a book
     when(bookService.retrieveBookById(bookId)).thenReturn(Optional.of(book));
 
-    // Mock the AI service to return generated insights
-    when(aiService.generateInsights(any(String.class))).thenReturn(Mono.just("Engaging tagline"));
+    // Mock the insight service to return generated insights
+    when(insightService.generateInsights(any(String.class)))
+        .thenReturn(Mono.just("Engaging tagline"));
 
-    // Perform GET request and check the response
+    // Perform GET request and check the asynchronous response
+    MvcResult result =
+        mockMvc
+            .perform(get("/books/{id}/ai-insights", bookId))
+            .andExpect(request().asyncStarted())
+            .andReturn();
     mockMvc
-        .perform(get("/books/{id}/ai-insights", bookId))
+        .perform(asyncDispatch(result))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.book.title").value("Spring Boot Guide"))
         .andExpect(jsonPath("$.insights").value("Engaging tagline"));
@@ -170,6 +594,19 @@ class BookControllerTest {
     when(bookService.retrieveBookById(bookId)).thenReturn(Optional.empty());
 
     // Perform GET request and assert 404 status
-    mockMvc.perform(get("/books/{id}/ai-insights", bookId)).andExpect(status().isNotFound());
+    MvcResult result = mockMvc.perform(get("/books/{id}/ai-insights", bookId)).andReturn();
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+  }
+
+  @Test
+  void testGetAIInsights_TooManyRequests() throws Exception {
+    Long bookId = 1L;
+    Book book = new Book(bookId, "Spring Boot Guide", "John Doe", "1234567890", 2021, "Desc");
+    when(bookService.retrieveBookById(bookId)).thenReturn(Optional.of(book));
+    when(insightService.generateInsights(any(String.class)))
+        .thenReturn(Mono.error(new InsightsUnavailableException("Too many requests")));
+
+    MvcResult result = mockMvc.perform(get("/books/{id}/ai-insights", bookId)).andReturn();
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isServiceUnavailable());
   }
 }
@@ -140,4 +140,22 @@ class BookValidationTest {
     assertThat(violations.iterator().next().getMessage())
         .isEqualTo("Description must be at most 500 characters");
   }
+
+  @Test
+  void testTitleTooLong() {
+    Book book =
+        Book.builder()
+            .title("T".repeat(181))
+            .author("Joshua Bloch")
+            .isbn("9780134685991")
+            .publicationYear(2018)
+            .description("A must-read for Java developers.")
+            .build();
+
+    Set<ConstraintViolation<Book>> violations = validator.validate(book);
+
+    assertThat(violations).hasSize(1);
+    assertThat(violations.iterator().next().getMessage())
+        .isEqualTo("Title must be at most 180 characters");
+  }
 }
@@ -2,14 +2,21 @@ package com.jpereira30.library_api.exception;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jpereira30.library_api.entity.Book;
-import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.service.BookBulkService;
+import com.jpereira30.library_api.service.BookExportService;
+import com.jpereira30.library_api.service.BookImportService;
 import com.jpereira30.library_api.service.BookService;
+import com.jpereira30.library_api.service.CatalogVersion;
+import com.jpereira30.library_api.service.InsightBatchService;
+import com.jpereira30.library_api.service.InsightService;
 import java.util.Objects;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +25,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ServerWebInputException;
 
 @WebMvcTest
 class GlobalExceptionHandlerTest {
@@ -26,9 +34,19 @@ class GlobalExceptionHandlerTest {
 
   @MockBean private BookService bookService;
 
+  @MockBean private BookBulkService bookBulkService;
+
+  @MockBean private BookImportService bookImportService;
+
+  @MockBean private BookExportService bookExportService;
+
   @Autowired private ObjectMapper objectMapper;
 
-  @MockBean private AIService aiService;
+  @MockBean private InsightService insightService;
+
+  @MockBean private CatalogVersion catalogVersion;
+
+  @MockBean private InsightBatchService insightBatchService;
 
   private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
 
@@ -40,6 +58,27 @@ class GlobalExceptionHandlerTest {
     assertEquals("Internal server error: Something went wrong", response.getBody());
   }
 
+  @Test
+  void testHandleResponseStatusException() {
+    ServerWebInputException ex = new ServerWebInputException("limit must be a number");
+    ResponseEntity<String> response = handler.handleResponseStatusException(ex);
+    assertEquals(400, response.getStatusCode().value());
+    assertEquals("limit must be a number", response.getBody());
+  }
+
+  @Test
+  void testMalformedRequestParametersAreBadRequests() throws Exception {
+    mockMvc
+        .perform(get("/books").param("limit", "abc"))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().string("Invalid value for limit: abc"));
+    mockMvc
+        .perform(get("/books").param("limit", "1").param("after", "abc"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/books").param("ids", "1,x")).andExpect(status().isBadRequest());
+    mockMvc.perform(get("/books/abc")).andExpect(status().isBadRequest());
+  }
+
   @Test
   void testHandleBookNotFoundException() {
     BookNotFoundException ex = new BookNotFoundException(1L);
@@ -48,6 +87,14 @@ class GlobalExceptionHandlerTest {
     assertEquals("Internal server error: Book with ID 1 not found.", response.getBody());
   }
 
+  @Test
+  void testHandleInsightsUnavailableException() {
+    InsightsUnavailableException ex = new InsightsUnavailableException("Too many requests");
+    ResponseEntity<String> response = handler.handleInsightsUnavailableException(ex);
+    assertEquals(503, response.getStatusCode().value());
+    assertEquals("Too many requests", response.getBody());
+  }
+
   @Test
   void testHandleValidationException() throws Exception {
     // Create an invalid Book object (title missing)
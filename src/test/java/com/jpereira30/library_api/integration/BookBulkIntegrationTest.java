@@ -0,0 +1,220 @@
+package com.jpereira30.library_api.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+import com.jpereira30.library_api.dto.BulkItemResult;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.repository.BookRepository;
+import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.service.BookBulkService;
+import com.jpereira30.library_api.service.BookService;
+import com.jpereira30.library_api.support.TestIsbns;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "library.bulk.chunk-size=100",
+      "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+@ActiveProfiles("test")
+class BookBulkIntegrationTest {
+
+  private static final ParameterizedTypeReference<List<BulkItemResult>> RESULTS =
+      new ParameterizedTypeReference<>() {};
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private BookBulkService bookBulkService;
+
+  @Autowired private BookService bookService;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @SpyBean private BookRepository bookRepository;
+
+  @MockBean private AIService aiService;
+
+  @Test
+  void testBulkCreateUpdateAndDelete() {
+    List<Book> books =
+        List.of(
+            new Book(null, "Bulk One", "Bulk Author", TestIsbns.next(), 2020, "Bulk description"),
+            new Book(null, "", "Bulk Author", TestIsbns.next(), 2020, "Missing title"),
+            new Book(null, "Bulk Two", "Bulk Author", TestIsbns.next(), 2021, "Bulk description"));
+
+    ResponseEntity<List<BulkItemResult>> created =
+        restTemplate.exchange("/books/bulk", HttpMethod.POST, new HttpEntity<>(books), RESULTS);
+    assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+    List<BulkItemResult> createResults = created.getBody();
+    assertThat(createResults)
+        .extracting(BulkItemResult::getStatus)
+        .containsExactly(
+            BulkItemResult.Status.CREATED,
+            BulkItemResult.Status.INVALID,
+            BulkItemResult.Status.CREATED);
+    assertThat(createResults.get(1).getErrors()).containsEntry("title", "Title is required");
+    Long firstId = createResults.get(0).getId();
+    Long secondId = createResults.get(2).getId();
+
+    List<Book> updates =
+        List.of(
+            new Book(firstId, "Bulk One Revised", "Bulk Author", TestIsbns.next(), 2020, "Desc"),
+            new Book(Long.MAX_VALUE, "Ghost", "Nobody", TestIsbns.next(), 2020, "Desc"));
+    List<BulkItemResult> updateResults =
+        restTemplate
+            .exchange("/books/bulk", HttpMethod.PUT, new HttpEntity<>(updates), RESULTS)
+            .getBody();
+    assertThat(updateResults)
+        .extracting(BulkItemResult::getStatus)
+        .containsExactly(BulkItemResult.Status.UPDATED, BulkItemResult.Status.NOT_FOUND);
+    assertThat(bookService.retrieveBookById(firstId))
+        .get()
+        .extracting(Book::getTitle)
+        .isEqualTo("Bulk One Revised");
+    assertThat(bookService.searchBooks("revised", "", 50))
+        .extracting(Book::getId)
+        .contains(firstId);
+
+    List<BulkItemResult> deleteResults =
+        restTemplate
+            .exchange(
+                "/books/bulk",
+                HttpMethod.DELETE,
+                new HttpEntity<>(List.of(firstId, secondId, Long.MAX_VALUE)),
+                RESULTS)
+            .getBody();
+    assertThat(deleteResults)
+        .extracting(BulkItemResult::getStatus)
+        .containsExactly(
+            BulkItemResult.Status.DELETED,
+            BulkItemResult.Status.DELETED,
+            BulkItemResult.Status.NOT_FOUND);
+    assertThat(bookService.retrieveBookById(firstId)).isEmpty();
+  }
+
+  @Test
+  void testBulkRejectsDuplicateIsbns() {
+    Book stored =
+        bookService.createBook(
+            new Book(null, "Stored", "Bulk Author", TestIsbns.next(), 2020, "Already there"));
+    String isbn = TestIsbns.next();
+    List<Book> books =
+        List.of(
+            new Book(null, "Taken", "Bulk Author", stored.getIsbn(), 2020, "Desc"),
+            new Book(null, "Fresh", "Bulk Author", isbn, 2020, "Desc"),
+            new Book(null, "Repeated", "Bulk Author", isbn, 2020, "Desc"));
+
+    List<BulkItemResult> created = bookBulkService.createBooks(books);
+    assertThat(created)
+        .extracting(BulkItemResult::getStatus)
+        .containsExactly(
+            BulkItemResult.Status.INVALID,
+            BulkItemResult.Status.CREATED,
+            BulkItemResult.Status.INVALID);
+    assertThat(created.get(0).getErrors()).containsKey("isbn");
+
+    // Keeping its own ISBN is fine; taking another book's is not
+    List<BulkItemResult> updated =
+        bookBulkService.updateBooks(
+            List.of(
+                new Book(stored.getId(), "Stored", "Bulk Author", stored.getIsbn(), 2021, "Desc"),
+                new Book(
+                    created.get(1).getId(),
+                    "Fresh",
+                    "Bulk Author",
+                    stored.getIsbn(),
+                    2020,
+                    "Desc")));
+    assertThat(updated)
+        .extracting(BulkItemResult::getStatus)
+        .containsExactly(BulkItemResult.Status.UPDATED, BulkItemResult.Status.INVALID);
+
+    bookBulkService.deleteBooks(List.of(stored.getId(), created.get(1).getId()));
+  }
+
+  @Test
+  void testBulkIsolatesItemsTheDatabaseRejects() {
+    Book stored =
+        bookService.createBook(
+            new Book(null, "Claimed", "Bulk Author", TestIsbns.next(), 2020, "Already there"));
+    // As if a concurrent writer claimed the ISBN after the duplicate check
+    doReturn(List.of()).when(bookRepository).findByIsbnIn(any());
+    List<Book> books =
+        List.of(
+            new Book(null, "Before", "Bulk Author", TestIsbns.next(), 2020, "Desc"),
+            new Book(null, "Raced", "Bulk Author", stored.getIsbn(), 2020, "Desc"),
+            new Book(null, "After", "Bulk Author", TestIsbns.next(), 2020, "Desc"));
+
+    List<BulkItemResult> created = bookBulkService.createBooks(books);
+    assertThat(created)
+        .extracting(BulkItemResult::getStatus)
+        .containsExactly(
+            BulkItemResult.Status.CREATED,
+            BulkItemResult.Status.INVALID,
+            BulkItemResult.Status.CREATED);
+    assertThat(created.get(1).getErrors()).containsKey("isbn");
+    assertThat(bookService.retrieveBookById(created.get(0).getId())).isPresent();
+    assertThat(bookService.retrieveBookById(created.get(2).getId())).isPresent();
+
+    List<BulkItemResult> updated =
+        bookBulkService.updateBooks(
+            List.of(
+                new Book(
+                    created.get(0).getId(), "Before", "Bulk Author", stored.getIsbn(), 2021, "D"),
+                new Book(
+                    created.get(2).getId(),
+                    "After Revised",
+                    "Bulk Author",
+                    TestIsbns.next(),
+                    2021,
+                    "D")));
+    assertThat(updated)
+        .extracting(BulkItemResult::getStatus)
+        .containsExactly(BulkItemResult.Status.INVALID, BulkItemResult.Status.UPDATED);
+    assertThat(bookService.retrieveBookById(created.get(2).getId()))
+        .get()
+        .extracting(Book::getTitle)
+        .isEqualTo("After Revised");
+
+    bookBulkService.deleteBooks(
+        List.of(stored.getId(), created.get(0).getId(), created.get(2).getId()));
+  }
+
+  @Test
+  void testBulkCreateUsesJdbcBatches() {
+    List<Book> books = new ArrayList<>();
+    for (int i = 0; i < 250; i++) {
+      books.add(new Book(null, "Batch " + i, "Author", TestIsbns.next(), 2020, "Batched insert"));
+    }
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    List<BulkItemResult> results = bookBulkService.createBooks(books);
+
+    assertThat(results).allMatch(result -> result.getStatus() == BulkItemResult.Status.CREATED);
+    assertThat(statistics.getEntityInsertCount()).isEqualTo(250);
+    // Inserts are prepared once per JDBC batch rather than once per row
+    assertThat(statistics.getPrepareStatementCount()).isLessThan(50);
+
+    bookBulkService.deleteBooks(results.stream().map(BulkItemResult::getId).toList());
+  }
+}
@@ -0,0 +1,105 @@
+package com.jpereira30.library_api.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.support.TestIsbns;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class BookExportIntegrationTest {
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @MockBean private AIService aiService;
+
+  private Book book;
+
+  @BeforeEach
+  void setup() {
+    book =
+        restTemplate
+            .postForEntity(
+                "/books",
+                new Book(
+                    null,
+                    "Export Book",
+                    "Export Author",
+                    TestIsbns.next(),
+                    2020,
+                    "Commas, \"quotes\"\nand lines"),
+                Book.class)
+            .getBody();
+  }
+
+  @AfterEach
+  void cleanup() {
+    restTemplate.delete("/books/" + book.getId());
+  }
+
+  @Test
+  void testExportCsv() {
+    ResponseEntity<String> response =
+        restTemplate.getForEntity("/books/export?format=csv", String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getHeaders().getContentType().toString()).startsWith("text/csv");
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+        .contains("books.csv");
+    assertThat(response.getBody())
+        .startsWith("id,title,author,isbn,publicationYear,description\n")
+        .contains(
+            book.getId()
+                + ",Export Book,Export Author,"
+                + book.getIsbn()
+                + ",2020,\"Commas, \"\"quotes\"\"\nand lines\"\n");
+  }
+
+  @Test
+  void testExportGzippedNdjson() throws IOException {
+    ResponseEntity<byte[]> response =
+        restTemplate.getForEntity("/books/export?format=ndjson&gzip=true", byte[].class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    String body;
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+      body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    String line =
+        body.lines()
+            .filter(candidate -> candidate.contains("\"id\":" + book.getId() + ","))
+            .findFirst()
+            .orElseThrow();
+    Book exported = objectMapper.readValue(line, Book.class);
+    assertThat(exported.getTitle()).isEqualTo("Export Book");
+    assertThat(exported.getDescription()).isEqualTo("Commas, \"quotes\"\nand lines");
+    assertThat(exported.getPublicationYear()).isEqualTo(2020);
+  }
+
+  @Test
+  void testExportUnknownFormat() {
+    ResponseEntity<String> response =
+        restTemplate.getForEntity("/books/export?format=xml", String.class);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+  }
+}
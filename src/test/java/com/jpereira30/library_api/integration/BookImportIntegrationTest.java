@@ -0,0 +1,131 @@
+package com.jpereira30.library_api.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+import com.jpereira30.library_api.dto.ImportReport;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.repository.BookRepository;
+import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.service.BookImportService;
+import com.jpereira30.library_api.service.BookService;
+import com.jpereira30.library_api.service.CatalogFormat;
+import com.jpereira30.library_api.support.TestIsbns;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class BookImportIntegrationTest {
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private BookService bookService;
+
+  @Autowired private BookImportService bookImportService;
+
+  @Autowired private ApplicationRunner catalogImportRunner;
+
+  @SpyBean private BookRepository bookRepository;
+
+  @MockBean private AIService aiService;
+
+  @Test
+  void testImportCsvOverHttp() {
+    String csv =
+        """
+        title,author,isbn,publicationYear,description
+        Imported Zebra,Import Author,%s,2020,"Zebra, striped"
+        Imported Yak,Import Author,123,2020,ISBN too short
+        """
+            .formatted(TestIsbns.next());
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.parseMediaType("text/csv"));
+
+    ResponseEntity<ImportReport> response =
+        restTemplate.postForEntity(
+            "/books/import", new HttpEntity<>(csv, headers), ImportReport.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    ImportReport report = response.getBody();
+    assertThat(report).isNotNull();
+    assertThat(report.getImported()).isEqualTo(1);
+    assertThat(report.getRejected()).isEqualTo(1);
+    assertThat(report.getRejectedLines().getFirst().getLine()).isEqualTo(3);
+    assertThat(report.getRejectedLines().getFirst().getErrors()).containsKey("isbn");
+    assertThat(bookService.searchBooks("zebra", "", 50))
+        .extracting(Book::getDescription)
+        .containsExactly("Zebra, striped");
+  }
+
+  @Test
+  void testImportNdjsonFromCommandLine(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("books.ndjson");
+    Files.writeString(
+        file,
+        """
+        {"title":"Imported Quokka","author":"Cli Author","isbn":"%s","publicationYear":2021,"description":"From the CLI"}
+        """
+            .formatted(TestIsbns.next()));
+
+    catalogImportRunner.run(new DefaultApplicationArguments("--import=" + file));
+
+    assertThat(bookService.searchBooks("quokka", "", 50)).hasSize(1);
+  }
+
+  @Test
+  void testImportReportsRowsTheDatabaseRejectsAndKeepsGoing() throws Exception {
+    Book stored =
+        bookService.createBook(
+            new Book(null, "Imported Okapi", "Import Author", TestIsbns.next(), 2020, "Stored"));
+    // As if a concurrent writer claimed the ISBN after the duplicate check
+    doReturn(List.of()).when(bookRepository).findByIsbnIn(any());
+    String ndjson =
+        """
+        {"title":"Imported Ibex","author":"Import Author","isbn":"%s","publicationYear":2021,"description":"Before"}
+        {"title":"Imported Okapi","author":"Import Author","isbn":"%s","publicationYear":2021,"description":"Raced"}
+        {"title":"%s","author":"Import Author","isbn":"%s","publicationYear":2021,"description":"Long title"}
+        {"title":"Imported Ibis","author":"Import Author","isbn":"%s","publicationYear":2021,"description":"After"}
+        """
+            .formatted(
+                TestIsbns.next(),
+                stored.getIsbn(),
+                "T".repeat(181),
+                TestIsbns.next(),
+                TestIsbns.next());
+
+    ImportReport report =
+        bookImportService.importBooks(
+            new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+            CatalogFormat.NDJSON);
+
+    assertThat(report.getImported()).isEqualTo(2);
+    assertThat(report.getRejected()).isEqualTo(2);
+    assertThat(report.getRejectedLines())
+        .extracting(ImportReport.RejectedLine::getLine)
+        .containsExactly(2L, 3L);
+    assertThat(report.getRejectedLines().get(0).getErrors()).containsKey("isbn");
+    assertThat(report.getRejectedLines().get(1).getErrors()).containsKey("title");
+    assertThat(bookService.searchBooks("imported ibex", 50)).hasSize(1);
+    assertThat(bookService.searchBooks("imported ibis", 50)).hasSize(1);
+  }
+}
@@ -2,9 +2,13 @@ package com.jpereira30.library_api.integration;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpereira30.library_api.dto.BookBatchResult;
 import com.jpereira30.library_api.entity.Book;
 import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.support.TestIsbns;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,7 +34,12 @@ class BookIntegrationTest {
   void setup() {
     testBook =
         new Book(
-            null, "Integration Test Book", "Test Author", "1234567890", 2022, "Test Description");
+            null,
+            "Integration Test Book",
+            "Test Author",
+            TestIsbns.next(),
+            2022,
+            "Test Description");
   }
 
   @Test
@@ -65,7 +74,7 @@ class BookIntegrationTest {
             createdBook.getId(),
             "Updated Title",
             "Updated Author",
-            "1234567890",
+            TestIsbns.next(),
             2023,
             "Updated Description");
     HttpEntity<Book> requestEntity = new HttpEntity<>(updatedBook);
@@ -77,6 +86,38 @@ class BookIntegrationTest {
     assertThat(updateResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
     assertThat(updateResponse.getBody()).isNotNull();
     assertThat(updateResponse.getBody().getTitle()).isEqualTo("Updated Title");
+    // The update carried no version, but the stored one moved on and is reported back
+    assertThat(updateResponse.getBody().getVersion()).isEqualTo(createdBook.getVersion() + 1);
+  }
+
+  @Test
+  void testConcurrentUpdateWithStaleVersionIsRejected() {
+    Book createdBook = restTemplate.postForEntity("/books", testBook, Book.class).getBody();
+    assert createdBook != null;
+    assertThat(createdBook.getVersion()).isZero();
+
+    // Two clients read version 0; the first update wins and the second is rejected
+    Book first = new Book(null, "First Writer", "Test Author", TestIsbns.next(), 2022, "Desc", 0L);
+    Book second =
+        new Book(null, "Second Writer", "Test Author", TestIsbns.next(), 2022, "Desc", 0L);
+    ResponseEntity<Book> firstResponse =
+        restTemplate.exchange(
+            "/books/" + createdBook.getId(), HttpMethod.PUT, new HttpEntity<>(first), Book.class);
+    ResponseEntity<String> secondResponse =
+        restTemplate.exchange(
+            "/books/" + createdBook.getId(),
+            HttpMethod.PUT,
+            new HttpEntity<>(second),
+            String.class);
+
+    assertThat(firstResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(firstResponse.getBody().getVersion()).isEqualTo(1L);
+    assertThat(secondResponse.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    Book stored = restTemplate.getForEntity("/books/" + createdBook.getId(), Book.class).getBody();
+    assertThat(stored.getTitle()).isEqualTo("First Writer");
+    assertThat(stored.getVersion()).isEqualTo(1L);
+
+    restTemplate.delete("/books/" + createdBook.getId());
   }
 
   @Test
@@ -90,11 +131,46 @@ class BookIntegrationTest {
     assertThat(response.getBody()).isNotEmpty();
   }
 
+  @Test
+  void testGetBooksPage() {
+    Book first = restTemplate.postForEntity("/books", testBook, Book.class).getBody();
+    testBook.setIsbn(TestIsbns.next());
+    Book second = restTemplate.postForEntity("/books", testBook, Book.class).getBody();
+    assertThat(first).isNotNull();
+    assertThat(second).isNotNull();
+
+    // Page through the catalog one book at a time starting before the first book
+    ResponseEntity<Book[]> response =
+        restTemplate.getForEntity("/books?after=" + (first.getId() - 1) + "&limit=1", Book[].class);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getBody()).hasSize(1);
+    assertThat(response.getBody()[0].getId()).isEqualTo(first.getId());
+    assertThat(response.getHeaders().getFirst("X-Next-After"))
+        .isEqualTo(String.valueOf(first.getId()));
+
+    restTemplate.delete("/books/" + first.getId());
+    restTemplate.delete("/books/" + second.getId());
+  }
+
+  @Test
+  void testStreamAllBooks() {
+    Book createdBook = restTemplate.postForEntity("/books", testBook, Book.class).getBody();
+    assertThat(createdBook).isNotNull();
+
+    ResponseEntity<String> response = restTemplate.getForEntity("/books/stream", String.class);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+    assertThat(response.getBody()).contains("\"title\":\"Integration Test Book\"");
+
+    restTemplate.delete("/books/" + createdBook.getId());
+  }
+
   @Test
   void testSearchBooks() {
     // Add a book with a specific title
     Book book =
-        new Book(null, "Spring Boot Guide", "John Doe", "1234567890", 2021, "Learn Spring Boot");
+        new Book(
+            null, "Spring Boot Guide", "John Doe", TestIsbns.next(), 2021, "Learn Spring Boot");
     restTemplate.postForEntity("/books", book, Book.class);
 
     // Search for the book
@@ -133,10 +209,186 @@ class BookIntegrationTest {
     // Attempt to update a non-existent book
     Book book =
         new Book(
-            999L, "Nonexistent Book", "Ghost Author", "1234567890", 2000, "This shouldn't exist");
+            999L,
+            "Nonexistent Book",
+            "Ghost Author",
+            TestIsbns.next(),
+            2000,
+            "This shouldn't exist");
     HttpEntity<Book> requestEntity = new HttpEntity<>(book);
     ResponseEntity<String> response =
         restTemplate.exchange("/books/999", HttpMethod.PUT, requestEntity, String.class);
     assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
   }
+
+  @Test
+  void testGetBookByIsbn() {
+    Book createdBook = restTemplate.postForEntity("/books", testBook, Book.class).getBody();
+    assertThat(createdBook).isNotNull();
+
+    ResponseEntity<Book> response =
+        restTemplate.getForEntity("/books/isbn/" + testBook.getIsbn(), Book.class);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getBody().getId()).isEqualTo(createdBook.getId());
+
+    assertThat(restTemplate.getForEntity("/books/isbn/0000000000", String.class).getStatusCode())
+        .isEqualTo(HttpStatus.NOT_FOUND);
+  }
+
+  @Test
+  void testDuplicateIsbnIsRejected() {
+    Book createdBook = restTemplate.postForEntity("/books", testBook, Book.class).getBody();
+    assertThat(createdBook).isNotNull();
+
+    Book duplicate =
+        new Book(null, "Copycat", "Other Author", testBook.getIsbn(), 2023, "Same ISBN");
+    ResponseEntity<String> createResponse =
+        restTemplate.postForEntity("/books", duplicate, String.class);
+    assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    assertThat(createResponse.getBody()).contains(testBook.getIsbn());
+
+    // Moving another book onto a taken ISBN is rejected too
+    duplicate.setIsbn(TestIsbns.next());
+    Book other = restTemplate.postForEntity("/books", duplicate, Book.class).getBody();
+    assertThat(other).isNotNull();
+    other.setIsbn(testBook.getIsbn());
+    ResponseEntity<String> updateResponse =
+        restTemplate.exchange(
+            "/books/" + other.getId(), HttpMethod.PUT, new HttpEntity<>(other), String.class);
+    assertThat(updateResponse.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+  }
+
+  @Test
+  void testBrowseBooksByPrefix() {
+    String prefix = "Zq" + testBook.getIsbn();
+    for (String title : List.of(prefix + " beta", prefix.toUpperCase() + " ALPHA", "Other")) {
+      restTemplate.postForEntity(
+          "/books",
+          new Book(null, title, "Browse Author", TestIsbns.next(), 2020, "Browsed"),
+          Book.class);
+    }
+
+    ResponseEntity<Book[]> response =
+        restTemplate.getForEntity("/books/browse?title=" + prefix.toLowerCase(), Book[].class);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getBody())
+        .extracting(Book::getTitle)
+        .containsExactly(prefix.toUpperCase() + " ALPHA", prefix + " beta");
+
+    // LIKE wildcards in the prefix are matched literally
+    assertThat(restTemplate.getForEntity("/books/browse?title=%25", Book[].class).getBody())
+        .isEmpty();
+    assertThat(restTemplate.getForEntity("/books/browse", String.class).getStatusCode())
+        .isEqualTo(HttpStatus.BAD_REQUEST);
+  }
+
+  @Test
+  void testGetBooksByIds() {
+    Book first = restTemplate.postForEntity("/books", testBook, Book.class).getBody();
+    Book second =
+        restTemplate
+            .postForEntity(
+                "/books",
+                new Book(null, "Second Listed", "List Author", TestIsbns.next(), 2021, "Listed"),
+                Book.class)
+            .getBody();
+    long missingId = second.getId() + 1_000_000;
+
+    ResponseEntity<BookBatchResult> response =
+        restTemplate.getForEntity(
+            "/books?ids=" + second.getId() + "," + missingId + "," + first.getId(),
+            BookBatchResult.class);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getBody().getBooks())
+        .extracting(Book::getTitle)
+        .containsExactly("Second Listed", "Integration Test Book");
+    assertThat(response.getBody().getMissing()).containsExactly(missingId);
+
+    ResponseEntity<BookBatchResult> posted =
+        restTemplate.postForEntity(
+            "/books/batch-get", List.of(first.getId(), second.getId()), BookBatchResult.class);
+    assertThat(posted.getBody().getBooks())
+        .extracting(Book::getId)
+        .containsExactly(first.getId(), second.getId());
+    assertThat(posted.getBody().getMissing()).isEmpty();
+  }
+
+  @Test
+  void testSparseFieldsets() throws Exception {
+    Book book =
+        new Book(
+            null, "Sparse Bladderwort", "Lean Author", TestIsbns.next(), 2021, "Long description");
+    Book created = restTemplate.postForEntity("/books", book, Book.class).getBody();
+
+    JsonNode page =
+        objectMapper.readTree(
+            restTemplate.getForObject(
+                "/books?after=" + (created.getId() - 1) + "&limit=1&fields=id,title",
+                String.class));
+    assertThat(page.get(0).get("id").asLong()).isEqualTo(created.getId());
+    assertThat(page.get(0).get("title").asText()).isEqualTo("Sparse Bladderwort");
+    assertThat(page.get(0).has("author")).isFalse();
+    assertThat(page.get(0).has("description")).isFalse();
+
+    JsonNode found =
+        objectMapper.readTree(
+            restTemplate.getForObject(
+                "/books/search?q=bladderwort&fields=title,description", String.class));
+    assertThat(found.get(0).get("description").asText()).isEqualTo("Long description");
+    assertThat(found.get(0).has("id")).isFalse();
+
+    assertThat(restTemplate.getForEntity("/books?fields=id,price", String.class).getStatusCode())
+        .isEqualTo(HttpStatus.BAD_REQUEST);
+  }
+
+  @Test
+  void testConditionalRequests() {
+    Book created = restTemplate.postForEntity("/books", testBook, Book.class).getBody();
+    String uri = "/books/" + created.getId();
+
+    ResponseEntity<Book> first = restTemplate.getForEntity(uri, Book.class);
+    String etag = first.getHeaders().getETag();
+    assertThat(etag).isEqualTo("\"0\"");
+    assertThat(first.getHeaders().getLastModified()).isPositive();
+    assertThat(conditionalGet(uri, HttpHeaders.IF_NONE_MATCH, etag).getStatusCode())
+        .isEqualTo(HttpStatus.NOT_MODIFIED);
+    assertThat(
+            conditionalGet(
+                    uri,
+                    HttpHeaders.IF_MODIFIED_SINCE,
+                    first.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED))
+                .getStatusCode())
+        .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+    String catalogEtag = restTemplate.getForEntity("/books", String.class).getHeaders().getETag();
+    assertThat(conditionalGet("/books", HttpHeaders.IF_NONE_MATCH, catalogEtag).getStatusCode())
+        .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+    // Updates are conditional on the ETag the client holds
+    created.setTitle("Conditionally Updated");
+    HttpHeaders ifMatch = new HttpHeaders();
+    ifMatch.setIfMatch(etag);
+    ResponseEntity<Book> updated =
+        restTemplate.exchange(uri, HttpMethod.PUT, new HttpEntity<>(created, ifMatch), Book.class);
+    assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(updated.getHeaders().getETag()).isEqualTo("\"1\"");
+    assertThat(
+            restTemplate
+                .exchange(uri, HttpMethod.PUT, new HttpEntity<>(created, ifMatch), Book.class)
+                .getStatusCode())
+        .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+    // The update changed the book and the catalog, so the old validators no longer match
+    ResponseEntity<String> refreshed = conditionalGet(uri, HttpHeaders.IF_NONE_MATCH, etag);
+    assertThat(refreshed.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(refreshed.getBody()).contains("Conditionally Updated");
+    assertThat(conditionalGet("/books", HttpHeaders.IF_NONE_MATCH, catalogEtag).getStatusCode())
+        .isEqualTo(HttpStatus.OK);
+  }
+
+  private ResponseEntity<String> conditionalGet(String uri, String header, String value) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(header, value);
+    return restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+  }
 }
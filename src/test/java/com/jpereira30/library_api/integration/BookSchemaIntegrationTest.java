@@ -0,0 +1,107 @@
+package com.jpereira30.library_api.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.support.TestIsbns;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+// Checks the migrated schema: constraints, generated columns, and that lookups use the indexes
+@SpringBootTest
+@ActiveProfiles("test")
+class BookSchemaIntegrationTest {
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @MockBean private AIService aiService;
+
+  @Test
+  void testIsbnLookupUsesUniqueIndex() {
+    assertThat(plan("select * from books where isbn = '9780000000001'"))
+        .containsIgnoringCase("UK_BOOKS_ISBN");
+  }
+
+  @Test
+  void testTitlePrefixLookupRangeScansIndex() {
+    String plan =
+        plan(
+            "select * from books where title_lower like 'dune%' escape '\\'"
+                + " order by title_lower, id fetch first 50 rows only");
+    assertThat(plan).containsIgnoringCase("IDX_BOOKS_TITLE_LOWER");
+    assertThat(plan).containsIgnoringCase("TITLE_LOWER >= 'dune'");
+    // Rows come out of the index already sorted, so no separate sort step is needed
+    assertThat(plan).containsIgnoringCase("index sorted");
+  }
+
+  @Test
+  void testAuthorPrefixLookupRangeScansIndex() {
+    String plan =
+        plan(
+            "select * from books where author_lower like 'herb%' escape '\\'"
+                + " order by author_lower, id fetch first 50 rows only");
+    assertThat(plan).containsIgnoringCase("IDX_BOOKS_AUTHOR_LOWER");
+    assertThat(plan).containsIgnoringCase("index sorted");
+  }
+
+  @Test
+  void testLowercaseColumnsFollowUpdates() {
+    long id = insert("Dune Messiah", "Frank HERBERT", TestIsbns.next());
+    jdbcTemplate.update("update books set title = 'CHILDREN of Dune' where id = ?", id);
+
+    assertThat(
+            jdbcTemplate.queryForMap(
+                "select title_lower, author_lower from books where id = ?", id))
+        .containsEntry("TITLE_LOWER", "children of dune")
+        .containsEntry("AUTHOR_LOWER", "frank herbert");
+  }
+
+  @Test
+  void testIsbnIsUnique() {
+    String isbn = TestIsbns.next();
+    insert("First", "Author", isbn);
+    assertThatThrownBy(() -> insert("Second", "Author", isbn))
+        .isInstanceOf(DuplicateKeyException.class);
+  }
+
+  @Test
+  void testVersionDefaultsToZeroAndIsNeverNull() {
+    long id = jdbcTemplate.queryForObject("select next value for books_seq", Long.class);
+    jdbcTemplate.update(
+        "insert into books (id, title, author, isbn, publication_year, description)"
+            + " values (?, 'Unversioned', 'Author', ?, 2020, 'Schema test')",
+        id,
+        TestIsbns.next());
+    jdbcTemplate.update("update books set version = version + 1 where id = ?", id);
+
+    assertThat(
+            jdbcTemplate.queryForObject("select version from books where id = ?", Long.class, id))
+        .isEqualTo(1L);
+    assertThatThrownBy(
+            () -> jdbcTemplate.update("update books set version = null where id = ?", id))
+        .isInstanceOf(DataIntegrityViolationException.class);
+  }
+
+  private String plan(String sql) {
+    return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+  }
+
+  private long insert(String title, String author, String isbn) {
+    long id = jdbcTemplate.queryForObject("select next value for books_seq", Long.class);
+    jdbcTemplate.update(
+        "insert into books (id, title, author, isbn, publication_year, description, version)"
+            + " values (?, ?, ?, ?, 2020, 'Schema test', 0)",
+        id,
+        title,
+        author,
+        isbn);
+    return id;
+  }
+}
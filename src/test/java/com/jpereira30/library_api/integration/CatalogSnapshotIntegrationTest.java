@@ -0,0 +1,115 @@
+package com.jpereira30.library_api.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.jpereira30.library_api.LibraryApiApplication;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.service.BookService;
+import com.jpereira30.library_api.service.CatalogSnapshotService;
+import com.jpereira30.library_api.support.TestIsbns;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+// Runs the persistent profile against a database file in a temporary directory
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "persistent"})
+class CatalogSnapshotIntegrationTest {
+
+  private static final Path STORAGE_DIR = createTempDirectory();
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private BookService bookService;
+
+  @Autowired private CatalogSnapshotService snapshotService;
+
+  @MockBean private AIService aiService;
+
+  @DynamicPropertySource
+  static void storage(DynamicPropertyRegistry registry) {
+    registry.add("library.storage.dir", STORAGE_DIR::toString);
+  }
+
+  @Test
+  void testDatabaseIsStoredInFile() {
+    assertThat(STORAGE_DIR.resolve("librarydb.mv.db")).exists();
+  }
+
+  @Test
+  void testSnapshotsOverActuator() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    ResponseEntity<String> created =
+        restTemplate.postForEntity(
+            "/actuator/snapshots", new HttpEntity<>("{}", headers), String.class);
+
+    assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(Path.of(created.getBody())).exists();
+    ResponseEntity<String[]> listed =
+        restTemplate.getForEntity("/actuator/snapshots", String[].class);
+    assertThat(listed.getBody()).contains(created.getBody());
+  }
+
+  @Test
+  void testNewNodeStartsFromSnapshot(@TempDir Path newStorageDir) throws IOException {
+    Book book = new Book();
+    book.setTitle("Snapshotted Lighthouse");
+    book.setAuthor("Restore Author");
+    book.setIsbn(TestIsbns.next());
+    book.setPublicationYear(2021);
+    book.setDescription("A lighthouse kept in a snapshot");
+    bookService.createBook(book);
+    Path snapshot = snapshotService.createSnapshot();
+
+    try (ConfigurableApplicationContext restored =
+        new SpringApplicationBuilder(LibraryApiApplication.class)
+            .web(WebApplicationType.NONE)
+            .profiles("test", "persistent")
+            .run(
+                "--library.storage.dir=" + newStorageDir,
+                "--library.storage.restore-from=" + snapshot)) {
+      BookService restoredBooks = restored.getBean(BookService.class);
+
+      assertThat(restoredBooks.retrieveBookByIsbn(book.getIsbn())).isPresent();
+      assertThat(restoredBooks.searchBooks("snapshotted lighthouse", 50))
+          .extracting(Book::getIsbn)
+          .containsExactly(book.getIsbn());
+    }
+  }
+
+  @Test
+  void testRestoreKeepsExistingDatabase(@TempDir Path newStorageDir) throws IOException {
+    Path snapshot = snapshotService.createSnapshot();
+    Files.writeString(newStorageDir.resolve("librarydb.mv.db"), "existing");
+
+    assertThat(CatalogSnapshotService.restore(snapshot, newStorageDir, "librarydb")).isFalse();
+    assertThat(newStorageDir.resolve("librarydb.mv.db")).hasContent("existing");
+  }
+
+  private static Path createTempDirectory() {
+    try {
+      return Files.createTempDirectory("catalog-storage");
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.jpereira30.library_api.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.jpereira30.library_api.dto.InsightJobStatus;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.entity.InsightJob;
+import com.jpereira30.library_api.repository.BookInsightRepository;
+import com.jpereira30.library_api.support.OpenAIStubServer;
+import com.jpereira30.library_api.support.TestIsbns;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"library.insights.batch.page-size=10", "library.insights.batch.concurrency=4"})
+@ActiveProfiles("test")
+class InsightBatchIntegrationTest {
+
+  private static final OpenAIStubServer stub = new OpenAIStubServer();
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private BookInsightRepository insightRepository;
+
+  @DynamicPropertySource
+  static void openAIProperties(DynamicPropertyRegistry registry) {
+    registry.add("openai.api.url", stub::url);
+  }
+
+  @AfterAll
+  static void stopStub() {
+    stub.close();
+  }
+
+  @Test
+  void testBatchGeneratesInsightsForWholeCatalog() throws Exception {
+    stub.latency(Duration.ofMillis(20));
+    for (int i = 0; i < 25; i++) {
+      restTemplate.postForEntity(
+          "/books",
+          new Book(
+              null, "Batch Book " + i, "Batch Author", TestIsbns.next(), 2022, "Batch desc " + i),
+          Book.class);
+    }
+
+    ResponseEntity<InsightJobStatus> started =
+        restTemplate.postForEntity("/books/ai-insights/batch", null, InsightJobStatus.class);
+    assertThat(started.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+
+    InsightJobStatus status = awaitCompletion();
+    assertThat(status.getProcessed()).isGreaterThanOrEqualTo(25);
+    assertThat(status.getFailed()).isZero();
+    assertThat(stub.requestCount()).isGreaterThanOrEqualTo(25);
+    assertThat(insightRepository.count()).isGreaterThanOrEqualTo(25);
+
+    // A second run finds every insight stored and makes no upstream calls
+    int callsAfterFirstRun = stub.requestCount();
+    restTemplate.postForEntity("/books/ai-insights/batch", null, InsightJobStatus.class);
+    awaitCompletion();
+    assertThat(stub.requestCount()).isEqualTo(callsAfterFirstRun);
+  }
+
+  private InsightJobStatus awaitCompletion() throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+    InsightJobStatus status;
+    do {
+      Thread.sleep(50);
+      status =
+          restTemplate.getForEntity("/books/ai-insights/batch", InsightJobStatus.class).getBody();
+    } while ((status == null
+            || status.isActive()
+            || status.getStatus() != InsightJob.Status.COMPLETED)
+        && System.nanoTime() < deadline);
+    assertThat(status).isNotNull();
+    assertThat(status.getStatus()).isEqualTo(InsightJob.Status.COMPLETED);
+    return status;
+  }
+}
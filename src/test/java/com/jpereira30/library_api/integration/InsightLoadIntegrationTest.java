@@ -0,0 +1,107 @@
+package com.jpereira30.library_api.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.service.InsightService;
+import com.jpereira30.library_api.support.TestIsbns;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+// Holds more slow insight requests open than Tomcat has worker threads and checks that CRUD
+// requests are still served promptly.
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"server.tomcat.threads.max=50", "library.insights.max-concurrent=1000"})
+@ActiveProfiles("test")
+class InsightLoadIntegrationTest {
+
+  private static final int OUTSTANDING_INSIGHTS = 300;
+
+  private static final Duration UPSTREAM_LATENCY = Duration.ofSeconds(5);
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private InsightService insightService;
+
+  @LocalServerPort private int port;
+
+  @MockBean private AIService aiService;
+
+  @Test
+  void testCrudLatencyUnaffectedByOutstandingInsights() throws Exception {
+    // Every request gets a distinct prompt, so none are coalesced
+    when(aiService.getModel()).thenReturn("gpt-test");
+    when(aiService.promptFor(any())).thenAnswer(invocation -> UUID.randomUUID().toString());
+    when(aiService.requestInsights(any()))
+        .thenReturn(Mono.just("Slow tagline").delayElement(UPSTREAM_LATENCY));
+
+    Book book =
+        restTemplate
+            .postForEntity(
+                "/books",
+                new Book(null, "Load Test Book", "Load Author", TestIsbns.next(), 2022, "Desc"),
+                Book.class)
+            .getBody();
+    assertThat(book).isNotNull();
+
+    HttpClient client = HttpClient.newHttpClient();
+    HttpRequest insightRequest =
+        HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/books/" + book.getId() + "/ai-insights"))
+            .build();
+    List<CompletableFuture<HttpResponse<String>>> insights = new ArrayList<>();
+    for (int i = 0; i < OUTSTANDING_INSIGHTS; i++) {
+      insights.add(client.sendAsync(insightRequest, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(4);
+    while (insightService.outstandingRequests() < OUTSTANDING_INSIGHTS
+        && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(insightService.outstandingRequests()).isEqualTo(OUTSTANDING_INSIGHTS);
+
+    // CRUD requests complete well within the upstream latency while insights are pending
+    long start = System.nanoTime();
+    for (int i = 0; i < 20; i++) {
+      ResponseEntity<Book> response =
+          restTemplate.getForEntity("/books/" + book.getId(), Book.class);
+      assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+    ResponseEntity<Book[]> list = restTemplate.getForEntity("/books?limit=10", Book[].class);
+    assertThat(list.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Duration crudElapsed = Duration.ofNanos(System.nanoTime() - start);
+    assertThat(crudElapsed).isLessThan(UPSTREAM_LATENCY.dividedBy(2));
+    assertThat(insightService.outstandingRequests()).isGreaterThan(0);
+
+    CompletableFuture.allOf(insights.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+    for (CompletableFuture<HttpResponse<String>> insight : insights) {
+      assertThat(insight.get().statusCode()).isEqualTo(200);
+      assertThat(insight.get().body()).contains("Slow tagline");
+    }
+
+    restTemplate.delete("/books/" + book.getId());
+  }
+}
@@ -0,0 +1,171 @@
+package com.jpereira30.library_api.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.support.OpenAIStubServer;
+import com.jpereira30.library_api.support.TestIsbns;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+// Streams insights from a local SSE stub through the application and checks tokens are forwarded
+// as they arrive rather than after the completion finishes
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class InsightStreamIntegrationTest {
+
+  private static final OpenAIStubServer stub = new OpenAIStubServer();
+
+  private static final Duration TOKEN_DELAY = Duration.ofMillis(300);
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @LocalServerPort private int port;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @DynamicPropertySource
+  static void openAIProperties(DynamicPropertyRegistry registry) {
+    registry.add("openai.api.url", stub::url);
+  }
+
+  @AfterAll
+  static void stopStub() {
+    stub.close();
+  }
+
+  @BeforeEach
+  void setUp() {
+    stub.reset();
+  }
+
+  @Test
+  void testTokensAreForwardedAsTheyArrive() throws Exception {
+    stub.tagline("Streamed insight for readers").tokenDelay(TOKEN_DELAY);
+    Book book = createBook();
+
+    List<Event> events = stream(book);
+
+    assertThat(events)
+        .extracting(Event::name)
+        .containsExactly("token", "token", "token", "token", "done");
+    assertThat(events)
+        .extracting(Event::data)
+        .containsExactly(
+            "Streamed ", "insight ", "for ", "readers", "Streamed insight for readers");
+    // The first token reaches the client while the stub is still generating the rest
+    assertThat(events.getLast().receivedAt() - events.getFirst().receivedAt())
+        .isGreaterThanOrEqualTo(TOKEN_DELAY.multipliedBy(2).toNanos());
+  }
+
+  @Test
+  void testAssembledInsightIsStored() throws Exception {
+    stub.tagline("Stored once streamed");
+    Book book = createBook();
+
+    assertThat(stream(book).getLast()).extracting(Event::data).isEqualTo("Stored once streamed");
+    assertThat(stub.requestCount()).isEqualTo(1);
+
+    List<Event> replayed = stream(book);
+    assertThat(replayed)
+        .extracting(Event::name, Event::data)
+        .containsExactly(
+            tuple("token", "Stored once streamed"), tuple("done", "Stored once streamed"));
+    assertThat(stub.requestCount()).isEqualTo(1);
+
+    // The buffered endpoint shares the stored insight
+    assertThat(restTemplate.getForObject("/books/" + book.getId() + "/ai-insights", String.class))
+        .contains("Stored once streamed");
+    assertThat(stub.requestCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testUpstreamFailureEndsWithErrorEvent() throws Exception {
+    stub.failNext(1, 400);
+    Book book = createBook();
+
+    List<Event> events = stream(book);
+
+    assertThat(events).extracting(Event::name).containsExactly("error");
+    assertThat(events.getFirst().data()).isEqualTo("The AI provider failed to generate insights.");
+  }
+
+  @Test
+  void testMissingBookIsNotFound() throws Exception {
+    HttpResponse<String> response =
+        client.send(
+            request("/books/999999/ai-insights/stream"), HttpResponse.BodyHandlers.ofString());
+    assertThat(response.statusCode()).isEqualTo(404);
+  }
+
+  private Book createBook() {
+    Book book =
+        restTemplate.postForObject(
+            "/books",
+            new Book(
+                null,
+                "Streamed Book",
+                "Author",
+                TestIsbns.next(),
+                2022,
+                UUID.randomUUID().toString()),
+            Book.class);
+    assertThat(book).isNotNull();
+    return book;
+  }
+
+  // Read the event stream line by line, noting when each event arrives
+  private List<Event> stream(Book book) throws Exception {
+    HttpResponse<InputStream> response =
+        client.send(
+            request("/books/" + book.getId() + "/ai-insights/stream"),
+            HttpResponse.BodyHandlers.ofInputStream());
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.headers().firstValue("Content-Type"))
+        .hasValueSatisfying(type -> assertThat(type).startsWith("text/event-stream"));
+
+    List<Event> events = new ArrayList<>();
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+      String name = null;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith("event:")) {
+          name = line.substring("event:".length());
+        } else if (line.startsWith("data:")) {
+          events.add(new Event(name, line.substring("data:".length()), System.nanoTime()));
+        }
+      }
+    }
+    return events;
+  }
+
+  private HttpRequest request(String path) {
+    return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+        .header("Accept", "text/event-stream")
+        .build();
+  }
+
+  private record Event(String name, String data, long receivedAt) {}
+}
@@ -0,0 +1,100 @@
+package com.jpereira30.library_api.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.support.OpenAIStubServer;
+import com.jpereira30.library_api.support.TestIsbns;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+// Metrics export is disabled in tests unless observability is auto-configured
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class MetricsIntegrationTest {
+
+  private static final OpenAIStubServer stub = new OpenAIStubServer();
+
+  @Autowired private TestRestTemplate restTemplate;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @DynamicPropertySource
+  static void openAIProperties(DynamicPropertyRegistry registry) {
+    registry.add("openai.api.url", stub::url);
+  }
+
+  @AfterAll
+  static void stopStub() {
+    stub.close();
+  }
+
+  @Test
+  void testRequestsAreMeasuredAndExported() {
+    Book book =
+        restTemplate
+            .postForEntity(
+                "/books",
+                new Book(null, "Metrics Book", "Metrics Author", TestIsbns.next(), 2022, "Metered"),
+                Book.class)
+            .getBody();
+    assertThat(book).isNotNull();
+    restTemplate.getForEntity("/books/" + book.getId(), Book.class);
+    restTemplate.getForEntity("/books/" + book.getId(), Book.class);
+    restTemplate.getForEntity("/books/" + book.getId() + "/ai-insights", String.class);
+
+    assertThat(
+            meterRegistry
+                .get("http.server.requests")
+                .tag("uri", "/books/{id}")
+                .tag("method", "GET")
+                .timer()
+                .count())
+        .isGreaterThanOrEqualTo(2);
+    assertThat(
+            meterRegistry
+                .get("library.repository.rows")
+                .tag("repository", "BookRepository")
+                .tag("method", "findById")
+                .summary()
+                .count())
+        .isGreaterThanOrEqualTo(1);
+    assertThat(meterRegistry.get("library.ai.requests").tag("outcome", "success").timer().count())
+        .isGreaterThanOrEqualTo(1);
+    assertThat(meterRegistry.get("library.ai.tokens").tag("type", "prompt").counter().count())
+        .isGreaterThanOrEqualTo(OpenAIStubServer.PROMPT_TOKENS);
+    assertThat(
+            meterRegistry
+                .get("cache.gets")
+                .tag("cache", "books")
+                .tag("result", "hit")
+                .functionCounter()
+                .count())
+        .isGreaterThanOrEqualTo(1);
+
+    ResponseEntity<String> scrape = restTemplate.getForEntity("/actuator/prometheus", String.class);
+    assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(scrape.getBody())
+        .contains("http_server_requests_seconds_bucket")
+        .contains("spring_data_repository_invocations_seconds")
+        .contains("library_repository_rows")
+        .contains("library_ai_requests_seconds")
+        .contains("library_ai_tokens_total")
+        .contains("library_insights_outstanding")
+        .contains("resilience4j_circuitbreaker_state")
+        .contains("cache_gets_total{cache=\"books\"");
+
+    restTemplate.delete("/books/" + book.getId());
+  }
+}
@@ -0,0 +1,130 @@
+package com.jpereira30.library_api.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.support.OpenAIStubServer;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+// Drives AIService against a fault-injecting stub with small limits so each policy trips quickly
+@SpringBootTest(
+    properties = {
+      "openai.client.read-timeout=300ms",
+      "resilience4j.retry.instances.openai.wait-duration=10ms",
+      "resilience4j.circuitbreaker.instances.openai.sliding-window-size=4",
+      "resilience4j.circuitbreaker.instances.openai.minimum-number-of-calls=4",
+      "resilience4j.circuitbreaker.instances.openai.wait-duration-in-open-state=1m",
+      "resilience4j.bulkhead.instances.openai.max-concurrent-calls=2"
+    })
+@ActiveProfiles("test")
+class OpenAIResilienceIntegrationTest {
+
+  private static final OpenAIStubServer stub = new OpenAIStubServer();
+
+  @Autowired private AIService aiService;
+
+  @Autowired private CircuitBreakerRegistry circuitBreakerRegistry;
+
+  private CircuitBreaker circuitBreaker;
+
+  @DynamicPropertySource
+  static void openAIProperties(DynamicPropertyRegistry registry) {
+    registry.add("openai.api.url", stub::url);
+  }
+
+  @AfterAll
+  static void stopStub() {
+    stub.close();
+  }
+
+  @BeforeEach
+  void setUp() {
+    stub.reset();
+    circuitBreaker = circuitBreakerRegistry.circuitBreaker("openai");
+    circuitBreaker.reset();
+  }
+
+  @Test
+  void testTransientFailuresAreRetried() {
+    stub.failNext(2, 503);
+    assertThat(aiService.requestInsights("Retried").block()).isEqualTo("Stub tagline");
+    assertThat(stub.requestCount()).isEqualTo(3);
+  }
+
+  @Test
+  void testRateLimitedRequestsAreRetried() {
+    stub.failNext(1, 429);
+    assertThat(aiService.requestInsights("Rate limited").block()).isEqualTo("Stub tagline");
+    assertThat(stub.requestCount()).isEqualTo(2);
+  }
+
+  @Test
+  void testClientErrorsAreNotRetried() {
+    stub.failNext(1, 400);
+    assertThatThrownBy(() -> aiService.requestInsights("Bad request").block())
+        .isInstanceOf(WebClientResponseException.BadRequest.class);
+    assertThat(stub.requestCount()).isEqualTo(1);
+    assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isZero();
+  }
+
+  @Test
+  void testRetriesAreBounded() {
+    stub.errorRate(1.0, 500);
+    assertThatThrownBy(() -> aiService.requestInsights("Always failing").block())
+        .isInstanceOf(WebClientResponseException.InternalServerError.class);
+    assertThat(stub.requestCount()).isEqualTo(3);
+  }
+
+  @Test
+  void testSlowResponsesTimeOut() {
+    stub.latency(Duration.ofSeconds(1));
+    assertThatThrownBy(() -> aiService.requestInsights("Slow").block())
+        .isInstanceOf(WebClientRequestException.class);
+    assertThat(stub.requestCount()).isEqualTo(3);
+  }
+
+  @Test
+  void testCircuitOpensAndFailsFast() {
+    stub.errorRate(1.0, 503);
+    // Three failed attempts, then the fourth trips the breaker and the last retry is not permitted
+    assertThatThrownBy(() -> aiService.requestInsights("Down").block())
+        .isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+    assertThatThrownBy(() -> aiService.requestInsights("Down").block())
+        .isInstanceOf(CallNotPermittedException.class);
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(stub.requestCount()).isEqualTo(4);
+
+    assertThatThrownBy(() -> aiService.requestInsights("Down").block())
+        .isInstanceOf(CallNotPermittedException.class);
+    assertThat(stub.requestCount()).isEqualTo(4);
+  }
+
+  @Test
+  void testBulkheadRejectsExcessConcurrentCalls() throws Exception {
+    stub.latency(Duration.ofMillis(200));
+    CompletableFuture<String> first = aiService.requestInsights("First").toFuture();
+    CompletableFuture<String> second = aiService.requestInsights("Second").toFuture();
+
+    assertThatThrownBy(() -> aiService.requestInsights("Third").block())
+        .isInstanceOf(BulkheadFullException.class);
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("Stub tagline");
+    assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("Stub tagline");
+  }
+}
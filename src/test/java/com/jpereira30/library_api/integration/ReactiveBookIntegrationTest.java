@@ -0,0 +1,418 @@
+package com.jpereira30.library_api.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.service.BookService;
+import com.jpereira30.library_api.support.TestIsbns;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+// Runs the reactive stack: functional /books routes over R2DBC on Reactor Netty
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("test")
+class ReactiveBookIntegrationTest {
+
+  @Autowired private WebTestClient webTestClient;
+
+  @Autowired private BookService bookService;
+
+  @MockBean private AIService aiService;
+
+  @BeforeEach
+  void setUp() {
+    when(aiService.getModel()).thenReturn("test-model");
+    when(aiService.promptFor(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(aiService.requestInsights(anyString())).thenReturn(Mono.just("A reactive tagline"));
+  }
+
+  @Test
+  void testCreateReadUpdateDelete() {
+    Book created = create(book("Reactive Harbour"));
+    assertThat(created.getId()).isNotNull();
+    assertThat(created.getVersion()).isZero();
+
+    webTestClient
+        .get()
+        .uri("/books/{id}", created.getId())
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.title")
+        .isEqualTo("Reactive Harbour");
+    webTestClient
+        .get()
+        .uri("/books/isbn/{isbn}", created.getIsbn())
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.id")
+        .isEqualTo(created.getId());
+
+    created.setTitle("Reactive Harbour, Revised");
+    Book updated =
+        webTestClient
+            .put()
+            .uri("/books/{id}", created.getId())
+            .bodyValue(created)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(Book.class)
+            .returnResult()
+            .getResponseBody();
+    assertThat(updated.getVersion()).isEqualTo(1L);
+    // Without a version the last write wins, and the stored version is still reported
+    updated.setVersion(null);
+    webTestClient
+        .put()
+        .uri("/books/{id}", created.getId())
+        .bodyValue(updated)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .valueEquals("ETag", "\"2\"")
+        .expectBody()
+        .jsonPath("$.version")
+        .isEqualTo(2);
+    // The cached copy was invalidated by the update
+    webTestClient
+        .get()
+        .uri("/books/{id}", created.getId())
+        .exchange()
+        .expectBody()
+        .jsonPath("$.title")
+        .isEqualTo("Reactive Harbour, Revised");
+
+    webTestClient
+        .delete()
+        .uri("/books/{id}", created.getId())
+        .exchange()
+        .expectStatus()
+        .isNoContent();
+    webTestClient.get().uri("/books/{id}", created.getId()).exchange().expectStatus().isNotFound();
+    webTestClient
+        .delete()
+        .uri("/books/{id}", created.getId())
+        .exchange()
+        .expectStatus()
+        .isNotFound();
+  }
+
+  @Test
+  void testStaleVersionAndDuplicateIsbnConflict() {
+    Book first = create(book("Conflicted Lantern"));
+    Book second = create(book("Second Lantern"));
+
+    first.setVersion(0L);
+    webTestClient
+        .put()
+        .uri("/books/{id}", first.getId())
+        .bodyValue(first)
+        .exchange()
+        .expectStatus()
+        .isOk();
+    webTestClient
+        .put()
+        .uri("/books/{id}", first.getId())
+        .bodyValue(first)
+        .exchange()
+        .expectStatus()
+        .isEqualTo(409);
+
+    second.setIsbn(first.getIsbn());
+    webTestClient.post().uri("/books").bodyValue(second).exchange().expectStatus().isEqualTo(409);
+    webTestClient
+        .put()
+        .uri("/books/{id}", 999_999_999L)
+        .bodyValue(book("Missing Lantern"))
+        .exchange()
+        .expectStatus()
+        .isNotFound();
+  }
+
+  @Test
+  void testInvalidBookIsRejectedWithFieldErrors() {
+    Book invalid = book("");
+
+    webTestClient
+        .post()
+        .uri("/books")
+        .bodyValue(invalid)
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.title")
+        .isEqualTo("Title is required");
+  }
+
+  @Test
+  void testSearchBrowseAndKeysetPage() {
+    Book book = create(book("Quasireactive Orchard"));
+
+    webTestClient
+        .get()
+        .uri("/books/search?q=quasireactive")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$[0].id")
+        .isEqualTo(book.getId());
+    webTestClient
+        .get()
+        .uri("/books/browse?title=quasireactive")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$[0].id")
+        .isEqualTo(book.getId());
+    webTestClient.get().uri("/books/browse").exchange().expectStatus().isBadRequest();
+
+    create(book("Keyset Orchard"));
+    webTestClient
+        .get()
+        .uri("/books?after=0&limit=1")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .exists("X-Next-After");
+  }
+
+  @Test
+  void testMalformedQueryNumbersAreRejected() {
+    for (String uri :
+        List.of(
+            "/books/abc",
+            "/books?limit=abc",
+            "/books?limit=1&after=abc",
+            "/books?limit=99999999999",
+            "/books/search?q=anything&limit=abc",
+            "/books/browse?title=a&limit=abc")) {
+      webTestClient.get().uri(uri).exchange().expectStatus().isBadRequest();
+    }
+  }
+
+  @Test
+  void testGetBooksByIds() {
+    Book first = create(book("Listed Reactor"));
+    Book second = create(book("Second Listed Reactor"));
+    long missingId = second.getId() + 1_000_000;
+
+    webTestClient
+        .get()
+        .uri("/books?ids={ids}", second.getId() + "," + missingId + "," + first.getId())
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.books[0].id")
+        .isEqualTo(second.getId())
+        .jsonPath("$.books[1].id")
+        .isEqualTo(first.getId())
+        .jsonPath("$.missing[0]")
+        .isEqualTo(missingId);
+    webTestClient
+        .post()
+        .uri("/books/batch-get")
+        .bodyValue(List.of(first.getId(), second.getId()))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.books.length()")
+        .isEqualTo(2)
+        .jsonPath("$.missing")
+        .isEmpty();
+  }
+
+  @Test
+  void testSparseFieldsets() {
+    Book book = create(book("Sparse Reactive Quillwort"));
+
+    webTestClient
+        .get()
+        .uri("/books?after={after}&limit=1&fields=id,title", book.getId() - 1)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .valueEquals("X-Next-After", String.valueOf(book.getId()))
+        .expectBody()
+        .jsonPath("$[0].title")
+        .isEqualTo("Sparse Reactive Quillwort")
+        .jsonPath("$[0].author")
+        .doesNotExist()
+        .jsonPath("$[0].description")
+        .doesNotExist();
+    webTestClient
+        .get()
+        .uri("/books/search?q=quillwort&fields=id,description")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$[0].id")
+        .isEqualTo(book.getId())
+        .jsonPath("$[0].description")
+        .isEqualTo("About Sparse Reactive Quillwort")
+        .jsonPath("$[0].title")
+        .doesNotExist();
+    webTestClient.get().uri("/books?fields=price").exchange().expectStatus().isBadRequest();
+  }
+
+  @Test
+  void testConditionalRequests() {
+    Book book = create(book("Conditional Reactor"));
+
+    String etag =
+        webTestClient
+            .get()
+            .uri("/books/{id}", book.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists(HttpHeaders.LAST_MODIFIED)
+            .returnResult(Book.class)
+            .getResponseHeaders()
+            .getETag();
+    assertThat(etag).isEqualTo("\"0\"");
+    webTestClient
+        .get()
+        .uri("/books/{id}", book.getId())
+        .ifNoneMatch(etag)
+        .exchange()
+        .expectStatus()
+        .isNotModified();
+
+    String catalogEtag =
+        webTestClient
+            .get()
+            .uri("/books?limit=1")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(String.class)
+            .getResponseHeaders()
+            .getETag();
+    assertThat(catalogEtag).isNotNull();
+    webTestClient
+        .get()
+        .uri("/books?limit=1")
+        .ifNoneMatch(catalogEtag)
+        .exchange()
+        .expectStatus()
+        .isNotModified();
+
+    book.setTitle("Conditional Reactor, Revised");
+    webTestClient
+        .put()
+        .uri("/books/{id}", book.getId())
+        .header(HttpHeaders.IF_MATCH, etag)
+        .bodyValue(book)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, "\"1\"");
+    webTestClient
+        .put()
+        .uri("/books/{id}", book.getId())
+        .header(HttpHeaders.IF_MATCH, etag)
+        .bodyValue(book)
+        .exchange()
+        .expectStatus()
+        .isEqualTo(412);
+    webTestClient
+        .get()
+        .uri("/books?limit=1")
+        .ifNoneMatch(catalogEtag)
+        .exchange()
+        .expectStatus()
+        .isOk();
+  }
+
+  @Test
+  void testInsightsComposeWithTheBookLookup() {
+    Book book = create(book("Insightful Reactor"));
+
+    webTestClient
+        .get()
+        .uri("/books/{id}/ai-insights", book.getId())
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.book.id")
+        .isEqualTo(book.getId())
+        .jsonPath("$.insights")
+        .isEqualTo("A reactive tagline");
+    webTestClient
+        .get()
+        .uri("/books/{id}/ai-insights", 999_999_999L)
+        .exchange()
+        .expectStatus()
+        .isNotFound();
+  }
+
+  @Test
+  void testIdsDoNotCollideWithJpaInserts() {
+    Set<Long> ids = new HashSet<>();
+    for (int i = 0; i < 5; i++) {
+      ids.add(create(book("Reactive Sequence " + i)).getId());
+      ids.add(bookService.createBook(book("JPA Sequence " + i)).getId());
+    }
+
+    assertThat(ids).hasSize(10);
+  }
+
+  @Test
+  void testServletOnlyRoutesAreNotServed() {
+    assertNotServed(webTestClient.get().uri("/books/export").exchange());
+    assertNotServed(webTestClient.post().uri("/books/ai-insights/batch").exchange());
+    assertNotServed(webTestClient.post().uri("/books/bulk").bodyValue(List.of()).exchange());
+  }
+
+  private static void assertNotServed(WebTestClient.ResponseSpec response) {
+    response.expectStatus().value(status -> assertThat(status).isGreaterThanOrEqualTo(400));
+  }
+
+  private Book create(Book book) {
+    return webTestClient
+        .post()
+        .uri("/books")
+        .bodyValue(book)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody(Book.class)
+        .returnResult()
+        .getResponseBody();
+  }
+
+  private static Book book(String title) {
+    return new Book(null, title, "Reactive Author", TestIsbns.next(), 2024, "About " + title);
+  }
+}
@@ -0,0 +1,124 @@
+package com.jpereira30.library_api.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.service.AIService;
+import com.jpereira30.library_api.service.BookService;
+import com.jpereira30.library_api.service.InsightService;
+import com.jpereira30.library_api.support.TestIsbns;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+// Runs the JPA, H2 and connection pool paths on many more virtual threads than there are pooled
+// connections, and fails if JFR records a virtual thread blocking while pinned to its carrier
+@SpringBootTest(
+    properties = {
+      "spring.threads.virtual.enabled=true",
+      "spring.jpa.show-sql=false",
+      "spring.datasource.hikari.maximum-pool-size=4"
+    })
+@ActiveProfiles("test")
+class VirtualThreadPinningIntegrationTest {
+
+  private static final int TASKS = 200;
+
+  @Autowired private BookService bookService;
+
+  @Autowired private InsightService insightService;
+
+  @Autowired private Scheduler blockingScheduler;
+
+  @MockBean private AIService aiService;
+
+  @BeforeEach
+  void setUp() {
+    when(aiService.getModel()).thenReturn("test-model");
+    when(aiService.promptFor(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(aiService.requestInsights(anyString())).thenReturn(Mono.just("A tagline"));
+  }
+
+  @Test
+  void testBlockingSchedulerUsesVirtualThreads() {
+    assertThat(
+            Mono.fromCallable(() -> Thread.currentThread().isVirtual())
+                .subscribeOn(blockingScheduler)
+                .block())
+        .isTrue();
+  }
+
+  @Test
+  void testCatalogAndInsightPathsDoNotPinVirtualThreads() throws Exception {
+    List<String> pinned = new CopyOnWriteArrayList<>();
+    try (RecordingStream recording = new RecordingStream()) {
+      recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+      recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.add(describe(event)));
+      recording.startAsync();
+
+      try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+          int task = i;
+          tasks.add(executor.submit(() -> exerciseCatalog(task)));
+        }
+        for (Future<?> future : tasks) {
+          future.get();
+        }
+      }
+      recording.stop();
+    }
+
+    assertThat(pinned).isEmpty();
+  }
+
+  private void exerciseCatalog(int task) {
+    Book book = new Book();
+    book.setTitle("Pinning Check " + task);
+    book.setAuthor("Carrier Author");
+    book.setIsbn(TestIsbns.next());
+    book.setPublicationYear(2024);
+    book.setDescription("Virtual thread check number " + task);
+    Book created = bookService.createBook(book);
+
+    Book loaded = bookService.retrieveBookById(created.getId()).orElseThrow();
+    loaded.setDescription("Updated virtual thread check number " + task);
+    bookService.updateBook(loaded.getId(), loaded);
+    bookService.retrieveBookByIsbn(created.getIsbn()).orElseThrow();
+    bookService.browseBooks("pinning check", "", 10);
+    bookService.searchBooks("pinning", 50);
+    insightService.generateInsights(loaded.getDescription()).block();
+    bookService.deleteBook(created.getId());
+  }
+
+  private static String describe(RecordedEvent event) {
+    StringBuilder description = new StringBuilder("Pinned for " + event.getDuration());
+    if (event.getStackTrace() != null) {
+      for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+        description
+            .append("\n  at ")
+            .append(frame.getMethod().getType().getName())
+            .append('.')
+            .append(frame.getMethod().getName());
+      }
+    }
+    return description.toString();
+  }
+}
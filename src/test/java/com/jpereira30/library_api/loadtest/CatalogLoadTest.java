@@ -0,0 +1,288 @@
+package com.jpereira30.library_api.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.support.OpenAIStubServer;
+import com.jpereira30.library_api.support.TestIsbns;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * End-to-end load test of every book route against a stub OpenAI endpoint.
+ *
+ * <p>Closed-loop workers send a weighted mix of reads, writes, searches, exports and insight
+ * requests for a fixed duration. Latency percentiles and errors per endpoint are written as JSON to
+ * {@code load.report}. Excluded from the default build; run with {@code mvn -Pload-test test}.
+ *
+ * <p>Tuning (system properties): {@code load.duration}, {@code load.warmup}, {@code
+ * load.concurrency}, {@code load.catalog-size}, {@code load.stub.latency}, {@code
+ * load.stub.error-rate}, {@code load.report}.
+ */
+@Tag("load")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+class CatalogLoadTest {
+
+  private static final Duration DURATION = duration("load.duration", "30s");
+
+  private static final Duration WARMUP = duration("load.warmup", "5s");
+
+  private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 32);
+
+  private static final int CATALOG_SIZE = Integer.getInteger("load.catalog-size", 2_000);
+
+  private static final Duration STUB_LATENCY = duration("load.stub.latency", "200ms");
+
+  private static final double STUB_ERROR_RATE =
+      Double.parseDouble(System.getProperty("load.stub.error-rate", "0.01"));
+
+  private static final Path REPORT =
+      Path.of(System.getProperty("load.report", "target/load-test-report.json"));
+
+  private static final OpenAIStubServer stub = new OpenAIStubServer();
+
+  // Relative weights of each operation in the traffic mix
+  private static final Map<String, Integer> MIX = new LinkedHashMap<>();
+
+  static {
+    MIX.put("GET /books/{id}", 30);
+    MIX.put("GET /books?after&limit", 10);
+    MIX.put("GET /books/search", 15);
+    MIX.put("POST /books", 8);
+    MIX.put("PUT /books/{id}", 8);
+    MIX.put("DELETE /books/{id}", 4);
+    MIX.put("POST /books/bulk", 2);
+    MIX.put("GET /books/{id}/ai-insights", 20);
+    MIX.put("GET /books/export", 1);
+    MIX.put("GET /books/stream", 1);
+    MIX.put("GET /books", 1);
+  }
+
+  private static final String[] TERMS = {
+    "history", "garden", "river", "night", "code", "ocean", "winter", "stone", "light", "city"
+  };
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @LocalServerPort private int port;
+
+  private final HttpClient client =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+  private long minSeededId;
+
+  private long maxSeededId;
+
+  @DynamicPropertySource
+  static void openAIProperties(DynamicPropertyRegistry registry) {
+    registry.add("openai.api.url", stub::url);
+  }
+
+  @AfterAll
+  static void stopStub() {
+    stub.close();
+  }
+
+  @Test
+  void testMixedTraffic() throws Exception {
+    seedCatalog();
+    stub.latency(STUB_LATENCY).errorRate(STUB_ERROR_RATE, 500);
+
+    runPhase(WARMUP, new LatencyRecorder());
+    stub.reset();
+    stub.latency(STUB_LATENCY).errorRate(STUB_ERROR_RATE, 500);
+
+    LatencyRecorder recorder = new LatencyRecorder();
+    Instant start = Instant.now();
+    runPhase(DURATION, recorder);
+    double elapsed = Duration.between(start, Instant.now()).toMillis() / 1000.0;
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("durationSeconds", elapsed);
+    report.put("concurrency", CONCURRENCY);
+    report.put("catalogSize", CATALOG_SIZE);
+    report.put(
+        "stub",
+        Map.of(
+            "latencyMs", STUB_LATENCY.toMillis(),
+            "errorRate", STUB_ERROR_RATE,
+            "requests", stub.requestCount()));
+    Map<String, Map<String, Object>> endpoints = recorder.summarize(elapsed);
+    report.put("endpoints", endpoints);
+    Files.createDirectories(REPORT.toAbsolutePath().getParent());
+    objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT.toFile(), report);
+
+    assertThat(endpoints).containsKeys(MIX.keySet().toArray(String[]::new));
+    endpoints.forEach(
+        (endpoint, stats) -> assertThat(stats.get("errors")).as(endpoint).isEqualTo(0));
+  }
+
+  private void seedCatalog() throws Exception {
+    for (int seeded = 0; seeded < CATALOG_SIZE; seeded += 500) {
+      List<Book> books = new ArrayList<>();
+      for (int i = 0; i < Math.min(500, CATALOG_SIZE - seeded); i++) {
+        books.add(randomBook());
+      }
+      HttpResponse<String> response = send(post("/books/bulk", books));
+      for (JsonNode result : objectMapper.readTree(response.body())) {
+        long id = result.get("id").asLong();
+        minSeededId = minSeededId == 0 ? id : Math.min(minSeededId, id);
+        maxSeededId = Math.max(maxSeededId, id);
+      }
+    }
+  }
+
+  private void runPhase(Duration duration, LatencyRecorder recorder) throws Exception {
+    long deadline = System.nanoTime() + duration.toNanos();
+    ExecutorService workers = Executors.newFixedThreadPool(CONCURRENCY);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < CONCURRENCY; i++) {
+        futures.add(workers.submit(() -> runWorker(deadline, recorder)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      workers.shutdownNow();
+    }
+  }
+
+  // Each worker updates and deletes only books it created itself, so write errors are real errors
+  private Void runWorker(long deadline, LatencyRecorder recorder) throws Exception {
+    Deque<Long> owned = new ArrayDeque<>();
+    int totalWeight = MIX.values().stream().mapToInt(Integer::intValue).sum();
+    while (System.nanoTime() < deadline) {
+      String operation = pick(totalWeight);
+      if ((operation.startsWith("PUT") || operation.startsWith("DELETE")) && owned.isEmpty()) {
+        operation = "POST /books";
+      }
+      HttpRequest request = request(operation, owned);
+      long start = System.nanoTime();
+      HttpResponse<String> response;
+      try {
+        response = send(request);
+      } catch (IOException e) {
+        recorder.record(operation, System.nanoTime() - start, true);
+        continue;
+      }
+      long elapsed = System.nanoTime() - start;
+      boolean error = response.statusCode() >= 400;
+      recorder.record(operation, elapsed, error);
+      if (operation.equals("POST /books") && !error) {
+        owned.addLast(objectMapper.readTree(response.body()).get("id").asLong());
+      }
+    }
+    return null;
+  }
+
+  private HttpRequest request(String operation, Deque<Long> owned) throws Exception {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return switch (operation) {
+      case "GET /books/{id}" -> get("/books/" + seededId());
+      case "GET /books?after&limit" -> get("/books?after=" + seededId() + "&limit=50");
+      case "GET /books/search" -> get("/books/search?q=" + TERMS[random.nextInt(TERMS.length)]);
+      case "POST /books" -> post("/books", randomBook());
+      case "PUT /books/{id}" -> {
+        Long id = owned.peekFirst();
+        yield HttpRequest.newBuilder(uri("/books/" + id))
+            .header("Content-Type", "application/json")
+            .PUT(
+                HttpRequest.BodyPublishers.ofByteArray(
+                    objectMapper.writeValueAsBytes(randomBook())))
+            .build();
+      }
+      case "DELETE /books/{id}" ->
+          HttpRequest.newBuilder(uri("/books/" + owned.pollFirst())).DELETE().build();
+      case "POST /books/bulk" -> post("/books/bulk", List.of(randomBook(), randomBook()));
+      case "GET /books/{id}/ai-insights" -> get("/books/" + seededId() + "/ai-insights");
+      case "GET /books/export" -> get("/books/export?format=csv&gzip=true");
+      case "GET /books/stream" -> get("/books/stream");
+      case "GET /books" -> get("/books");
+      default -> throw new IllegalArgumentException(operation);
+    };
+  }
+
+  private String pick(int totalWeight) {
+    int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+    for (Map.Entry<String, Integer> entry : MIX.entrySet()) {
+      roll -= entry.getValue();
+      if (roll < 0) {
+        return entry.getKey();
+      }
+    }
+    throw new IllegalStateException();
+  }
+
+  private long seededId() {
+    return ThreadLocalRandom.current().nextLong(minSeededId, maxSeededId + 1);
+  }
+
+  private Book randomBook() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String term = TERMS[random.nextInt(TERMS.length)];
+    String other = TERMS[random.nextInt(TERMS.length)];
+    return new Book(
+        null,
+        "The " + term + " of " + other,
+        "Author " + random.nextInt(500),
+        TestIsbns.next(),
+        1900 + random.nextInt(125),
+        "A story about " + term + " and " + other + " number " + random.nextInt(1_000_000));
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(uri(path)).GET().build();
+  }
+
+  private HttpRequest post(String path, Object body) throws Exception {
+    return HttpRequest.newBuilder(uri(path))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+        .build();
+  }
+
+  private HttpResponse<String> send(HttpRequest request) throws Exception {
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + path);
+  }
+
+  private static Duration duration(String property, String defaultValue) {
+    return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+  }
+}
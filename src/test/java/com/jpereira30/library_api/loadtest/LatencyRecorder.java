@@ -0,0 +1,74 @@
+package com.jpereira30.library_api.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Collects per-endpoint latencies and outcomes and summarizes them as percentiles
+class LatencyRecorder {
+
+  private final Map<String, Samples> endpoints = new ConcurrentHashMap<>();
+
+  void record(String endpoint, long nanos, boolean error) {
+    endpoints.computeIfAbsent(endpoint, e -> new Samples()).add(nanos, error);
+  }
+
+  // endpoint -> requests, errors, throughput and latency percentiles in milliseconds
+  Map<String, Map<String, Object>> summarize(double elapsedSeconds) {
+    Map<String, Map<String, Object>> summary = new TreeMap<>();
+    endpoints.forEach(
+        (endpoint, samples) -> summary.put(endpoint, samples.summarize(elapsedSeconds)));
+    return summary;
+  }
+
+  private static class Samples {
+
+    private long[] latencies = new long[1024];
+
+    private int count;
+
+    private int errors;
+
+    synchronized void add(long nanos, boolean error) {
+      if (count == latencies.length) {
+        latencies = Arrays.copyOf(latencies, count * 2);
+      }
+      latencies[count++] = nanos;
+      if (error) {
+        errors++;
+      }
+    }
+
+    synchronized Map<String, Object> summarize(double elapsedSeconds) {
+      long[] sorted = Arrays.copyOf(latencies, count);
+      Arrays.sort(sorted);
+      Map<String, Object> stats = new LinkedHashMap<>();
+      stats.put("requests", count);
+      stats.put("errors", errors);
+      stats.put("throughputPerSecond", round(count / elapsedSeconds));
+      stats.put("p50Ms", percentile(sorted, 0.50));
+      stats.put("p99Ms", percentile(sorted, 0.99));
+      stats.put("p999Ms", percentile(sorted, 0.999));
+      stats.put("maxMs", count > 0 ? millis(sorted[count - 1]) : 0.0);
+      return stats;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+      if (sorted.length == 0) {
+        return 0.0;
+      }
+      int index = (int) Math.ceil(quantile * sorted.length) - 1;
+      return millis(sorted[Math.max(0, index)]);
+    }
+
+    private static double millis(long nanos) {
+      return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+      return Math.round(value * 1000) / 1000.0;
+    }
+  }
+}
@@ -0,0 +1,289 @@
+package com.jpereira30.library_api.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpereira30.library_api.LibraryApiApplication;
+import com.jpereira30.library_api.dto.BulkItemResult;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.service.BookBulkService;
+import com.jpereira30.library_api.support.OpenAIStubServer;
+import com.jpereira30.library_api.support.TestIsbns;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Compares request handling on platform threads, on virtual threads ({@code
+ * spring.threads.virtual.enabled}), and on the reactive stack ({@code
+ * spring.main.web-application-type=reactive}: functional routes over R2DBC on Reactor Netty).
+ *
+ * <p>The application is started once per mode, and {@code load.concurrency} closed-loop clients,
+ * more than Tomcat's platform thread pool, send a mix of database-bound reads and insight requests
+ * against a stub OpenAI endpoint, limited to routes that both stacks serve. The report at {@code
+ * load.report} holds, per mode, the highest number of requests being handled at once (sampled from
+ * {@code http.server.requests.active}) and latency percentiles per endpoint. Excluded from the
+ * default build; run with {@code mvn -Pload-test test -Dtest=ThreadModeLoadTest}.
+ *
+ * <p>Tuning (system properties): {@code load.duration}, {@code load.warmup}, {@code
+ * load.concurrency}, {@code load.catalog-size}, {@code load.stub.latency}, {@code load.report}.
+ */
+@Tag("load")
+class ThreadModeLoadTest {
+
+  private static final Duration DURATION = duration("load.duration", "30s");
+
+  private static final Duration WARMUP = duration("load.warmup", "5s");
+
+  private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 1_000);
+
+  private static final int CATALOG_SIZE = Integer.getInteger("load.catalog-size", 2_000);
+
+  private static final Duration STUB_LATENCY = duration("load.stub.latency", "200ms");
+
+  private static final Path REPORT =
+      Path.of(System.getProperty("load.report", "target/thread-mode-report.json"));
+
+  private static final OpenAIStubServer stub = new OpenAIStubServer();
+
+  // Relative weights of each operation in the traffic mix
+  private static final Map<String, Integer> MIX = new LinkedHashMap<>();
+
+  static {
+    MIX.put("GET /books/{id}", 42);
+    MIX.put("GET /books/search", 15);
+    MIX.put("GET /books/browse", 15);
+    MIX.put("GET /books/{id}/ai-insights", 28);
+  }
+
+  private static final String[] TERMS = {
+    "history", "garden", "river", "night", "code", "ocean", "winter", "stone", "light", "city"
+  };
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final HttpClient client =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+  @AfterAll
+  static void stopStub() {
+    stub.close();
+  }
+
+  @Test
+  void testPlatformVersusVirtualThreadsVersusReactive() throws Exception {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("concurrency", CONCURRENCY);
+    report.put("catalogSize", CATALOG_SIZE);
+    report.put("stubLatencyMs", STUB_LATENCY.toMillis());
+    for (String mode : List.of("platform", "virtual", "reactive")) {
+      report.put(mode, runMode(mode));
+    }
+    Files.createDirectories(REPORT.toAbsolutePath().getParent());
+    objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT.toFile(), report);
+
+    assertThat(report).containsKeys("platform", "virtual", "reactive");
+  }
+
+  private Map<String, Object> runMode(String mode) throws Exception {
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(LibraryApiApplication.class)
+            .profiles("test")
+            .run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                "--spring.main.web-application-type="
+                    + (mode.equals("reactive") ? "reactive" : "servlet"),
+                "--spring.datasource.url=jdbc:h2:mem:threads-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.r2dbc.url=r2dbc:h2:mem:///threads-" + mode,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--library.insights.max-concurrent=" + CONCURRENCY,
+                "--openai.api.url=" + stub.url())) {
+      Target target =
+          new Target(
+              ((WebServerApplicationContext) context).getWebServer().getPort(),
+              context.getBean(MeterRegistry.class));
+      seedCatalog(target, context.getBean(BookBulkService.class));
+      stub.reset();
+      stub.latency(STUB_LATENCY);
+
+      runPhase(target, WARMUP, new LatencyRecorder());
+      // Insights generated during warmup are stored; new lookups keep reaching the stub
+      target.maxInFlight.set(0);
+      LatencyRecorder recorder = new LatencyRecorder();
+      Instant start = Instant.now();
+      runPhase(target, DURATION, recorder);
+      double elapsed = Duration.between(start, Instant.now()).toMillis() / 1000.0;
+
+      Map<String, Map<String, Object>> endpoints = recorder.summarize(elapsed);
+      long requests =
+          endpoints.values().stream().mapToLong(stats -> (Integer) stats.get("requests")).sum();
+      Map<String, Object> result = new LinkedHashMap<>();
+      result.put("durationSeconds", elapsed);
+      result.put("throughputPerSecond", Math.round(requests / elapsed));
+      result.put("maxInFlight", target.maxInFlight.get());
+      result.put("endpoints", endpoints);
+      return result;
+    }
+  }
+
+  // Seeded through the service, as the reactive stack does not serve the bulk route
+  private void seedCatalog(Target target, BookBulkService bookBulkService) {
+    for (int seeded = 0; seeded < CATALOG_SIZE; seeded += 500) {
+      List<Book> books = new ArrayList<>();
+      for (int i = 0; i < Math.min(500, CATALOG_SIZE - seeded); i++) {
+        books.add(randomBook());
+      }
+      for (BulkItemResult result : bookBulkService.createBooks(books)) {
+        long id = result.getId();
+        target.minId = target.minId == 0 ? id : Math.min(target.minId, id);
+        target.maxId = Math.max(target.maxId, id);
+      }
+    }
+  }
+
+  private void runPhase(Target target, Duration duration, LatencyRecorder recorder)
+      throws Exception {
+    long deadline = System.nanoTime() + duration.toNanos();
+    try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<?> sampler = workers.submit(() -> sampleInFlight(target, deadline));
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < CONCURRENCY; i++) {
+        futures.add(workers.submit(() -> runWorker(target, deadline, recorder)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      sampler.get();
+    }
+  }
+
+  private Void runWorker(Target target, long deadline, LatencyRecorder recorder) throws Exception {
+    int totalWeight = MIX.values().stream().mapToInt(Integer::intValue).sum();
+    while (System.nanoTime() < deadline) {
+      String operation = pick(totalWeight);
+      long start = System.nanoTime();
+      try {
+        HttpResponse<String> response = send(request(target, operation));
+        recorder.record(operation, System.nanoTime() - start, response.statusCode() >= 400);
+      } catch (IOException e) {
+        recorder.record(operation, System.nanoTime() - start, true);
+      }
+    }
+    return null;
+  }
+
+  // Highest number of requests the server was handling at once, sampled every few milliseconds
+  private Void sampleInFlight(Target target, long deadline) throws InterruptedException {
+    while (System.nanoTime() < deadline) {
+      int active =
+          target.meterRegistry.find("http.server.requests.active").longTaskTimers().stream()
+              .mapToInt(LongTaskTimer::activeTasks)
+              .sum();
+      target.maxInFlight.accumulateAndGet(active, Math::max);
+      Thread.sleep(5);
+    }
+    return null;
+  }
+
+  private HttpRequest request(Target target, String operation) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String term = TERMS[random.nextInt(TERMS.length)];
+    return switch (operation) {
+      case "GET /books/{id}" -> get(target, "/books/" + target.randomId());
+      case "GET /books/search" -> get(target, "/books/search?q=" + term);
+      case "GET /books/browse" -> get(target, "/books/browse?title=the%20" + term);
+      case "GET /books/{id}/ai-insights" ->
+          get(target, "/books/" + target.randomId() + "/ai-insights");
+      default -> throw new IllegalArgumentException(operation);
+    };
+  }
+
+  private String pick(int totalWeight) {
+    int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+    for (Map.Entry<String, Integer> entry : MIX.entrySet()) {
+      roll -= entry.getValue();
+      if (roll < 0) {
+        return entry.getKey();
+      }
+    }
+    throw new IllegalStateException();
+  }
+
+  private Book randomBook() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String term = TERMS[random.nextInt(TERMS.length)];
+    String other = TERMS[random.nextInt(TERMS.length)];
+    return new Book(
+        null,
+        "The " + term + " of " + other,
+        "Author " + random.nextInt(500),
+        TestIsbns.next(),
+        1900 + random.nextInt(125),
+        "A story about " + term + " and " + other + " number " + random.nextInt(1_000_000));
+  }
+
+  private HttpRequest get(Target target, String path) {
+    return HttpRequest.newBuilder(target.uri(path)).GET().build();
+  }
+
+  private HttpResponse<String> send(HttpRequest request) throws Exception {
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static Duration duration(String property, String defaultValue) {
+    return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+  }
+
+  // The application started for one mode
+  private static class Target {
+
+    private final int port;
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private long minId;
+
+    private long maxId;
+
+    Target(int port, MeterRegistry meterRegistry) {
+      this.port = port;
+      this.meterRegistry = meterRegistry;
+    }
+
+    long randomId() {
+      return ThreadLocalRandom.current().nextLong(minId, maxId + 1);
+    }
+
+    URI uri(String path) {
+      return URI.create("http://localhost:" + port + path);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.jpereira30.library_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BookExportServiceTest {
+
+  @Test
+  void testWriteCsvFieldQuotesOnlyWhenNeeded() throws IOException {
+    StringWriter writer = new StringWriter();
+    BookExportService.writeCsvField(writer, "plain");
+    writer.write('|');
+    BookExportService.writeCsvField(writer, "a, \"b\"");
+    assertThat(writer.toString()).isEqualTo("plain|\"a, \"\"b\"\"\"");
+  }
+
+  @Test
+  void testCsvFieldsRoundTripThroughImportReader() throws IOException {
+    StringWriter writer = new StringWriter();
+    BookExportService.writeCsvField(writer, "line one\nline \"two\", end");
+    writer.write(',');
+    BookExportService.writeCsvField(writer, "x");
+
+    List<String> record = new CsvRecordReader(new StringReader(writer.toString())).next();
+    assertThat(record).containsExactly("line one\nline \"two\", end", "x");
+  }
+}
@@ -0,0 +1,124 @@
+package com.jpereira30.library_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpereira30.library_api.dto.BulkItemResult;
+import com.jpereira30.library_api.dto.ImportReport;
+import com.jpereira30.library_api.entity.Book;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class BookImportServiceTest {
+
+  @Mock private BookBulkService bookBulkService;
+
+  private BookImportService importService;
+
+  private final List<Integer> batchSizes = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    // Accept every book with a title, reject the rest as the bulk service would
+    when(bookBulkService.createBooks(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Book> books = invocation.getArgument(0);
+              batchSizes.add(books.size());
+              return IntStream.range(0, books.size())
+                  .mapToObj(
+                      i ->
+                          books.get(i).getTitle() == null || books.get(i).getTitle().isBlank()
+                              ? BulkItemResult.builder()
+                                  .index(i)
+                                  .status(BulkItemResult.Status.INVALID)
+                                  .errors(Map.of("title", "Title is required"))
+                                  .build()
+                              : BulkItemResult.builder()
+                                  .index(i)
+                                  .id((long) i)
+                                  .status(BulkItemResult.Status.CREATED)
+                                  .build())
+                  .toList();
+            });
+    importService = new BookImportService(bookBulkService, new ObjectMapper(), 2);
+  }
+
+  @Test
+  void testImportCsvInFixedSizeBatches() throws IOException {
+    String csv =
+        """
+        title,author,isbn,publicationYear,description
+        Book One,Author,1234567890,2020,"First, with comma"
+        ,Author,1234567890,2020,Missing title
+        Book Three,Author,1234567890,not-a-year,Bad year
+        Book Four,Author,1234567890,2021,Fourth
+        Book Five,Author,1234567890,2022,Fifth
+        """;
+
+    ImportReport report = importService.importBooks(stream(csv), CatalogFormat.CSV);
+
+    assertThat(report.getImported()).isEqualTo(3);
+    assertThat(report.getRejected()).isEqualTo(2);
+    assertThat(report.getRejectedLines())
+        .extracting(ImportReport.RejectedLine::getLine)
+        .containsExactlyInAnyOrder(3L, 4L);
+    assertThat(batchSizes).containsExactly(2, 2);
+  }
+
+  @Test
+  void testImportNdjsonReportsMalformedLines() throws IOException {
+    String ndjson =
+        """
+        {"title":"Book One","author":"Author","isbn":"1234567890","publicationYear":2020,"description":"d"}
+        {not json}
+
+        {"title":"","author":"Author","isbn":"1234567890","publicationYear":2020,"description":"d"}
+        """;
+
+    ImportReport report = importService.importBooks(stream(ndjson), CatalogFormat.NDJSON);
+
+    assertThat(report.getImported()).isEqualTo(1);
+    assertThat(report.getRejected()).isEqualTo(2);
+    assertThat(report.getRejectedLines())
+        .extracting(ImportReport.RejectedLine::getLine)
+        .containsExactlyInAnyOrder(2L, 4L);
+  }
+
+  @Test
+  void testRejectedLinesAreCapped() throws IOException {
+    StringBuilder csv = new StringBuilder("title,author,isbn,publicationYear,description\n");
+    for (int i = 0; i < BookImportService.MAX_REPORTED_REJECTIONS + 10; i++) {
+      csv.append("only,three,fields\n");
+    }
+
+    ImportReport report = importService.importBooks(stream(csv.toString()), CatalogFormat.CSV);
+
+    assertThat(report.getRejected()).isEqualTo(BookImportService.MAX_REPORTED_REJECTIONS + 10);
+    assertThat(report.getRejectedLines()).hasSize(BookImportService.MAX_REPORTED_REJECTIONS);
+    verify(bookBulkService, never()).createBooks(anyList());
+  }
+
+  @Test
+  void testFormatFromFileName() {
+    assertThat(CatalogFormat.fromFileName("books.CSV")).isEqualTo(CatalogFormat.CSV);
+    assertThat(CatalogFormat.fromFileName("books.ndjson")).isEqualTo(CatalogFormat.NDJSON);
+  }
+
+  private static InputStream stream(String text) {
+    return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,145 @@
+package com.jpereira30.library_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.jpereira30.library_api.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BookSearchIndexTest {
+
+  private BookSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new BookSearchIndex();
+    index.index(new Book(1L, "Spring Boot in Action", "Craig Walls", "1", 2016, "Spring guide"));
+    index.index(new Book(2L, "Effective Java", "Joshua Bloch", "2", 2018, "Java best practices"));
+    index.index(new Book(3L, "Java Concurrency", "Brian Goetz", "3", 2006, "Threads in Java"));
+  }
+
+  @Test
+  void testTokenizeFoldsCaseAndSplitsOnPunctuation() {
+    assertThat(BookSearchIndex.tokenize("Spring-Boot, IN Action!"))
+        .containsExactly("spring", "boot", "in", "action");
+    assertThat(BookSearchIndex.tokenize(null)).isEmpty();
+  }
+
+  @Test
+  void testSearchMatchesPrefixesCaseInsensitively() {
+    assertThat(index.search("SPR", "")).containsExactly(1L);
+    assertThat(index.search("", "josh")).containsExactly(2L);
+  }
+
+  @Test
+  void testSearchRequiresAllTokens() {
+    assertThat(index.search("java eff", "")).containsExactly(2L);
+    assertThat(index.search("java spring", "")).isEmpty();
+  }
+
+  @Test
+  void testSearchCombinesTitleAndAuthorQueries() {
+    assertThat(index.search("spring", "goetz")).containsExactlyInAnyOrder(1L, 3L);
+  }
+
+  @Test
+  void testFreeTextSearchRanksByFieldAndFrequency() {
+    // Books 2 and 3 both mention java in title and description, so the id breaks the tie
+    assertThat(index.search("java")).containsExactly(2L, 3L);
+    // Only the description of book 1 contains "guide"
+    assertThat(index.search("guide")).containsExactly(1L);
+  }
+
+  @Test
+  void testExactMatchesRankAboveDescriptionMatches() {
+    index.index(new Book(4L, "Cooking", "Ann Smith", "4", 2020, "Not about spring at all"));
+    assertThat(index.search("spring")).containsExactly(1L, 4L);
+  }
+
+  @Test
+  void testReindexReplacesPreviousTokens() {
+    index.index(new Book(1L, "Kotlin in Action", "Dmitry Jemerov", "1", 2017, "Kotlin guide"));
+    assertThat(index.search("spring", "")).isEmpty();
+    assertThat(index.search("kotlin", "")).containsExactly(1L);
+    assertThat(index.size()).isEqualTo(3);
+  }
+
+  @Test
+  void testRemoveAndClear() {
+    index.remove(2L);
+    assertThat(index.search("effective", "")).isEmpty();
+    assertThat(index.size()).isEqualTo(2);
+
+    index.clear();
+    assertThat(index.search("java")).isEmpty();
+    assertThat(index.size()).isZero();
+  }
+
+  @Test
+  void testRebuildReplacesIndexWhenPublished() {
+    BookSearchIndex.Rebuild rebuild = index.rebuild();
+    rebuild.add(new Book(5L, "Kotlin in Action", "Dmitry Jemerov", "5", 2017, "Kotlin guide"));
+    rebuild.add(new Book(2L, "Effective Java", "Joshua Bloch", "2", 2018, "Java best practices"));
+    assertThat(index.search("kotlin")).isEmpty();
+
+    rebuild.publish();
+    assertThat(index.search("kotlin")).containsExactly(5L);
+    assertThat(index.search("java")).containsExactly(2L);
+    assertThat(index.search("spring")).isEmpty();
+    assertThat(index.size()).isEqualTo(2);
+
+    // Later updates apply to the rebuilt index
+    index.index(new Book(5L, "Scala in Action", "Nilanjan Raychaudhuri", "5", 2013, "Scala"));
+    assertThat(index.search("ko", "")).isEmpty();
+    assertThat(index.search("scala")).containsExactly(5L);
+  }
+
+  @Test
+  void testRebuildKeepsWritesMadeWhileItRuns() {
+    BookSearchIndex.Rebuild rebuild = index.rebuild();
+    rebuild.add(new Book(1L, "Spring Boot in Action", "Craig Walls", "1", 2016, "Spring guide"));
+    rebuild.add(new Book(2L, "Effective Java", "Joshua Bloch", "2", 2018, "Java best practices"));
+    index.index(new Book(1L, "Kotlin in Action", "Dmitry Jemerov", "1", 2017, "Kotlin guide"));
+    index.index(new Book(6L, "Clean Code", "Robert Martin", "6", 2008, "Craftsmanship"));
+    index.remove(2L);
+
+    rebuild.publish();
+    assertThat(index.search("spring")).isEmpty();
+    assertThat(index.search("kotlin")).containsExactly(1L);
+    assertThat(index.search("clean")).containsExactly(6L);
+    assertThat(index.search("effective")).isEmpty();
+    assertThat(index.size()).isEqualTo(2);
+  }
+
+  @Test
+  void testLimitKeepsTheBestMatches() {
+    index.index(new Book(4L, "Java Java", "Ann Smith", "4", 2020, "Java"));
+    assertThat(index.search("java", 2)).containsExactly(4L, 2L);
+    assertThat(index.search("java", "", 1)).containsExactly(4L);
+    assertThat(index.search("java", 0)).isEmpty();
+  }
+
+  @Test
+  void testNarrowQueriesOverALargeCatalogMergePostings() {
+    for (long id = 10; id < 200; id++) {
+      index.index(new Book(id, "Volume " + id, "Writer " + id, "i" + id, 2000, "Filler text"));
+    }
+    index.index(new Book(300L, "Walrus", "Anne Walrusson", "300", 2001, "About walruses"));
+    index.index(new Book(301L, "Seals", "Bo Smith", "301", 2002, "Walrus cousins"));
+
+    assertThat(index.search("walrus")).containsExactly(300L, 301L);
+    assertThat(index.search("walrus cousins")).containsExactly(301L);
+    assertThat(index.search("walrus", "walrus")).containsExactly(300L);
+    assertThat(index.search("volume 42")).containsExactly(42L);
+    assertThat(index.size()).isEqualTo(195);
+
+    index.remove(300L);
+    assertThat(index.search("walrus")).containsExactly(301L);
+  }
+
+  @Test
+  void testBlankQueryMatchesNothing() {
+    assertThat(index.search("", "")).isEmpty();
+    assertThat(index.search("  ")).isEmpty();
+  }
+}
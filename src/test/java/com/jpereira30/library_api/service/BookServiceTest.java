@@ -2,34 +2,66 @@ package com.jpereira30.library_api.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jpereira30.library_api.dto.BookBatchResult;
+import com.jpereira30.library_api.dto.BookSummary;
 import com.jpereira30.library_api.entity.Book;
 import com.jpereira30.library_api.exception.BookNotFoundException;
+import com.jpereira30.library_api.exception.BookVersionConflictException;
+import com.jpereira30.library_api.exception.DuplicateIsbnException;
 import com.jpereira30.library_api.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.util.Streamable;
 
 class BookServiceTest {
 
   @Mock private BookRepository bookRepository;
 
+  @Mock private EntityManager entityManager;
+
+  private BookSearchIndex searchIndex;
+
+  private AsyncCache<Long, Book> bookCache;
+
+  private CatalogVersion catalogVersion;
+
   private BookService bookService;
 
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
-    bookService = new BookService(bookRepository);
+    searchIndex = new BookSearchIndex();
+    bookCache = Caffeine.newBuilder().maximumSize(100).recordStats().buildAsync();
+    catalogVersion = new CatalogVersion();
+    bookService =
+        new BookService(bookRepository, entityManager, searchIndex, bookCache, catalogVersion, 2);
   }
 
   @Test
   void testCreateBook() {
     Book book = new Book(1L, "Test Book", "Author", "12345", 2023, "Test Description");
-    when(bookRepository.save(book)).thenReturn(book);
+    Book saved = new Book(1L, "Test Book", "Author", "12345", 2023, "Test Description");
+    when(bookRepository.save(book)).thenReturn(saved);
     Book createdBook = bookService.createBook(book);
     assertNotNull(createdBook);
     assertEquals("Test Book", createdBook.getTitle());
@@ -44,6 +76,32 @@ class BookServiceTest {
     assertEquals("Book1", result.getFirst().getTitle());
   }
 
+  @Test
+  void testRetrieveBooksAfter() {
+    List<Book> page = List.of(new Book(6L, "Book6", "Author6", "666", 2021, "Desc6"));
+    when(bookRepository.findByIdGreaterThanOrderByIdAsc(5L, Limit.of(10))).thenReturn(page);
+    List<Book> result = bookService.retrieveBooksAfter(5L, 10);
+    assertEquals(page, result);
+  }
+
+  @Test
+  void testRetrieveBooksAfter_ClampsLimitAndDefaultsCursor() {
+    bookService.retrieveBooksAfter(null, 50_000);
+    verify(bookRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(BookService.MAX_PAGE_SIZE));
+  }
+
+  @Test
+  void testStreamAllBooks_DetachesEachBook() {
+    Book book1 = new Book(1L, "Book1", "Author1", "111", 2021, "Desc1");
+    Book book2 = new Book(2L, "Book2", "Author2", "222", 2022, "Desc2");
+    when(bookRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(book1, book2));
+    List<Book> seen = new ArrayList<>();
+    bookService.streamAllBooks(seen::add);
+    assertEquals(List.of(book1, book2), seen);
+    verify(entityManager).detach(book1);
+    verify(entityManager).detach(book2);
+  }
+
   @Test
   void testGetBookById_BookFound() {
     Long id = 1L;
@@ -62,49 +120,317 @@ class BookServiceTest {
     assertThat(result).isEmpty();
   }
 
+  @Test
+  void testGetBooksByIds_KeepsOrderAndReportsMissing() {
+    Book cached = new Book(1L, "Cached", "Author", "111", 2022, "Desc");
+    Book loaded = new Book(2L, "Loaded", "Author", "222", 2022, "Desc");
+    when(bookRepository.findById(1L)).thenReturn(Optional.of(cached));
+    bookService.retrieveBookById(1L);
+    when(bookRepository.findAllById(any())).thenReturn(List.of(loaded));
+
+    BookBatchResult result = bookService.retrieveBooksByIds(List.of(3L, 2L, 1L, 2L));
+
+    assertThat(result.getBooks()).containsExactly(loaded, cached);
+    assertThat(result.getMissing()).containsExactly(3L);
+    // Only the uncached IDs reach the database, in one query
+    verify(bookRepository)
+        .findAllById(argThat(ids -> Streamable.of(ids).toSet().equals(Set.of(2L, 3L))));
+  }
+
+  @Test
+  void testGetBooksByIds_LoadsInChunksAndCaches() {
+    when(bookRepository.findAllById(any()))
+        .thenAnswer(
+            invocation -> {
+              List<Book> books = new ArrayList<>();
+              for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                books.add(new Book(id, "Book " + id, "Author", "isbn" + id, 2022, "Desc"));
+              }
+              return books;
+            });
+
+    BookBatchResult first = bookService.retrieveBooksByIds(List.of(5L, 4L, 3L, 2L, 1L));
+    BookBatchResult second = bookService.retrieveBooksByIds(List.of(1L, 5L));
+
+    assertThat(first.getBooks()).extracting(Book::getId).containsExactly(5L, 4L, 3L, 2L, 1L);
+    assertThat(second.getBooks()).extracting(Book::getId).containsExactly(1L, 5L);
+    verify(bookRepository, times(3)).findAllById(any());
+    assertThat(bookService.retrieveBookById(4L)).isPresent();
+    verify(bookRepository, never()).findById(any());
+  }
+
+  @Test
+  void testGetBookById_ServedFromCache() {
+    Long id = 1L;
+    Book book = new Book(id, "Book", "Author", "111", 2022, "Desc");
+    when(bookRepository.findById(id)).thenReturn(Optional.of(book));
+    bookService.retrieveBookById(id);
+    Optional<Book> result = bookService.retrieveBookById(id);
+    assertThat(result).contains(book);
+    verify(bookRepository, times(1)).findById(id);
+    assertEquals(1, bookService.bookCacheStats().hitCount());
+    assertEquals(1, bookService.bookCacheStats().missCount());
+  }
+
+  @Test
+  void testGetBookById_MissesAreNotCached() {
+    Long id = 1L;
+    Book book = new Book(id, "Book", "Author", "111", 2022, "Desc");
+    when(bookRepository.findById(id)).thenReturn(Optional.empty(), Optional.of(book));
+    assertThat(bookService.retrieveBookById(id)).isEmpty();
+    assertThat(bookService.retrieveBookById(id)).contains(book);
+  }
+
+  @Test
+  void testGetBookById_FailedLoadIsRethrownAndNotCached() {
+    Long id = 1L;
+    Book book = new Book(id, "Book", "Author", "111", 2022, "Desc");
+    when(bookRepository.findById(id))
+        .thenThrow(new DataAccessResourceFailureException("connection lost"))
+        .thenReturn(Optional.of(book));
+    assertThrows(DataAccessResourceFailureException.class, () -> bookService.retrieveBookById(id));
+    assertThat(bookService.retrieveBookById(id)).contains(book);
+  }
+
+  @Test
+  void testUpdateAndDeleteInvalidateCache() {
+    Long id = 1L;
+    Book book = new Book(id, "Book", "Author", "111", 2022, "Desc");
+    Book updated = new Book(id, "Updated", "Author", "111", 2022, "Desc");
+    when(bookRepository.findById(id)).thenReturn(Optional.of(book));
+    when(bookRepository.updateBook(id, updated)).thenReturn(1);
+    when(bookRepository.findVersionById(id)).thenReturn(Optional.of(1L));
+    when(bookRepository.deleteBookById(id)).thenReturn(1);
+
+    bookService.retrieveBookById(id);
+    bookService.updateBook(id, updated);
+    assertThat(bookCache.synchronous().getIfPresent(id)).isNull();
+
+    bookService.retrieveBookById(id);
+    bookService.deleteBook(id);
+    assertThat(bookCache.synchronous().getIfPresent(id)).isNull();
+  }
+
+  @Test
+  void testRacingReadDoesNotResurrectStaleEntry() throws Exception {
+    Long id = 1L;
+    Book stale = new Book(id, "Stale", "Author", "111", 2022, "Desc");
+    Book fresh = new Book(id, "Fresh", "Author", "111", 2022, "Desc");
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(bookRepository.findById(id))
+        .thenAnswer(
+            invocation -> {
+              loading.countDown();
+              release.await();
+              return Optional.of(stale);
+            })
+        .thenReturn(Optional.of(fresh));
+    when(bookRepository.updateBook(id, fresh)).thenReturn(1);
+    when(bookRepository.findVersionById(id)).thenReturn(Optional.of(1L));
+
+    // A read loads the old row while an update commits and invalidates concurrently
+    CompletableFuture<Optional<Book>> read =
+        CompletableFuture.supplyAsync(() -> bookService.retrieveBookById(id));
+    loading.await();
+    CompletableFuture<Book> write =
+        CompletableFuture.supplyAsync(() -> bookService.updateBook(id, fresh));
+    release.countDown();
+    read.get(5, TimeUnit.SECONDS);
+    write.get(5, TimeUnit.SECONDS);
+
+    assertThat(bookService.retrieveBookById(id)).contains(fresh);
+  }
+
+  @Test
+  void testCreateBook_DuplicateIsbn() {
+    Book book = new Book(null, "Copy", "Author", "12345", 2023, "Desc");
+    Book existing = new Book(7L, "Original", "Author", "12345", 2020, "Desc");
+    when(bookRepository.save(book)).thenThrow(new DataIntegrityViolationException("uk_books_isbn"));
+    when(bookRepository.findByIsbn("12345")).thenReturn(Optional.of(existing));
+    assertThrows(DuplicateIsbnException.class, () -> bookService.createBook(book));
+  }
+
+  @Test
+  void testCreateBook_OtherIntegrityViolationIsRethrown() {
+    Book book = new Book(null, "Title", "Author", "12345", 2023, "Desc");
+    when(bookRepository.save(book)).thenThrow(new DataIntegrityViolationException("too long"));
+    when(bookRepository.findByIsbn("12345")).thenReturn(Optional.empty());
+    assertThrows(DataIntegrityViolationException.class, () -> bookService.createBook(book));
+  }
+
+  @Test
+  void testUpdateBook_DuplicateIsbn() {
+    Book book = new Book(1L, "Title", "Author", "12345", 2023, "Desc");
+    when(bookRepository.updateBook(1L, book))
+        .thenThrow(new DataIntegrityViolationException("uk_books_isbn"));
+    when(bookRepository.findByIsbn("12345"))
+        .thenReturn(Optional.of(new Book(2L, "Other", "Author", "12345", 2020, "Desc")));
+    assertThrows(DuplicateIsbnException.class, () -> bookService.updateBook(1L, book));
+  }
+
+  @Test
+  void testBrowseBooks_UsesLowercasedEscapedPrefix() {
+    bookService.browseBooks("Dune_50%", "", 10);
+    verify(bookRepository).findByTitlePrefix("dune\\_50\\%%", 10);
+
+    bookService.browseBooks(" ", "Herbert", 50_000);
+    verify(bookRepository).findByAuthorPrefix("herbert%", BookService.MAX_PAGE_SIZE);
+
+    assertThat(bookService.browseBooks("", "", 10)).isEmpty();
+  }
+
   @Test
   void testUpdateBook_Success() {
     Long id = 1L;
     Book updatedBook = new Book(id, "New Title", "Author", "111", 2020, "New Desc");
-    when(bookRepository.existsById(id)).thenReturn(true);
-    when(bookRepository.save(updatedBook)).thenReturn(updatedBook);
+    when(bookRepository.updateBook(id, updatedBook)).thenReturn(1);
+    when(bookRepository.findVersionById(id)).thenReturn(Optional.of(5L));
     Book result = bookService.updateBook(id, updatedBook);
     assertEquals("New Title", result.getTitle());
+    // An update without a version still moves the stored one on, and reports it
+    assertEquals(5L, result.getVersion());
+    verify(bookRepository, never()).existsById(id);
+    verify(bookRepository, never()).save(any());
+  }
+
+  @Test
+  void testUpdateBook_WithVersion() {
+    Long id = 1L;
+    Book updatedBook = new Book(id, "New Title", "Author", "111", 2020, "New Desc", 3L);
+    when(bookRepository.updateBookIfVersion(id, updatedBook)).thenReturn(1);
+    Book result = bookService.updateBook(id, updatedBook);
+    assertEquals(4L, result.getVersion());
+  }
+
+  @Test
+  void testUpdateBook_StampsUpdatedAtAndAdvancesCatalogVersion() {
+    Long id = 1L;
+    Book updatedBook = new Book(id, "New Title", "Author", "111", 2020, "New Desc", 3L);
+    when(bookRepository.updateBookIfVersion(id, updatedBook)).thenReturn(1);
+    String etag = catalogVersion.current().etag();
+
+    Book result = bookService.updateBook(id, updatedBook);
+
+    assertNotNull(result.getUpdatedAt());
+    assertNotEquals(etag, catalogVersion.current().etag());
+  }
+
+  @Test
+  void testFailedWritesKeepCatalogVersion() {
+    when(bookRepository.updateBook(eq(2L), any())).thenReturn(0);
+    when(bookRepository.deleteBookById(2L)).thenReturn(0);
+    String etag = catalogVersion.current().etag();
+
+    assertThrows(
+        BookNotFoundException.class,
+        () -> bookService.updateBook(2L, new Book(2L, "Title", "Author", "222", 2021, "Desc")));
+    assertThrows(BookNotFoundException.class, () -> bookService.deleteBook(2L));
+
+    assertEquals(etag, catalogVersion.current().etag());
   }
 
   @Test
   void testUpdateBook_NotFound() {
     Long id = 2L;
     Book book = new Book(id, "Title", "Author", "222", 2021, "Desc");
-    when(bookRepository.existsById(id)).thenReturn(false);
+    when(bookRepository.updateBook(id, book)).thenReturn(0);
     assertThrows(BookNotFoundException.class, () -> bookService.updateBook(id, book));
   }
 
+  @Test
+  void testUpdateBook_StaleVersion() {
+    Long id = 2L;
+    Book book = new Book(id, "Title", "Author", "222", 2021, "Desc", 1L);
+    when(bookRepository.updateBookIfVersion(id, book)).thenReturn(0);
+    when(bookRepository.existsById(id)).thenReturn(true);
+    assertThrows(BookVersionConflictException.class, () -> bookService.updateBook(id, book));
+  }
+
   @Test
   void testDeleteBook_Success() {
     Long id = 1L;
-    when(bookRepository.existsById(id)).thenReturn(true);
+    when(bookRepository.deleteBookById(id)).thenReturn(1);
     assertDoesNotThrow(() -> bookService.deleteBook(id));
-    verify(bookRepository, times(1)).deleteById(id);
+    verify(bookRepository, times(1)).deleteBookById(id);
+    verify(bookRepository, never()).existsById(id);
   }
 
   @Test
   void testDeleteBook_NotFound() {
     Long id = 2L;
-    when(bookRepository.existsById(id)).thenReturn(false);
+    when(bookRepository.deleteBookById(id)).thenReturn(0);
     assertThrows(BookNotFoundException.class, () -> bookService.deleteBook(id));
   }
 
   @Test
   void testSearchBooks() {
-    String title = "Spring";
-    String author = "Josh";
-    List<Book> expectedBooks =
-        List.of(new Book(1L, "Spring Boot", "Josh Long", "123", 2021, "Desc"));
-    when(bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(title, author))
-        .thenReturn(expectedBooks);
-    List<Book> result = bookService.searchBooks(title, author);
+    Book match = new Book(1L, "Spring Boot", "Josh Long", "123", 2021, "Desc");
+    Book other = new Book(2L, "Effective Java", "Joshua Bloch", "456", 2018, "Desc");
+    when(bookRepository.save(any(Book.class))).thenReturn(match, other);
+    bookService.createBook(new Book(null, "Spring Boot", "Josh Long", "123", 2021, "Desc"));
+    bookService.createBook(new Book(null, "Effective Java", "Joshua Bloch", "456", 2018, "Desc"));
+    when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(match));
+    List<Book> result = bookService.searchBooks("Spring", "", 50);
     assertEquals(1, result.size());
     assertEquals("Spring Boot", result.get(0).getTitle());
   }
+
+  @Test
+  void testSearchBooks_PreservesRanking() {
+    Book weak = new Book(1L, "Cooking", "Ann", "123", 2021, "A book that mentions java once");
+    Book strong = new Book(2L, "Java Basics", "Bob", "456", 2018, "Desc");
+    searchIndex.index(weak);
+    searchIndex.index(strong);
+    when(bookRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(weak, strong));
+    List<Book> result = bookService.searchBooks("java", 50);
+    assertEquals(List.of(strong, weak), result);
+  }
+
+  @Test
+  void testSearchBooks_LoadsOnlyTheBestMatches() {
+    searchIndex.index(new Book(1L, "Cooking", "Ann", "123", 2021, "Mentions java once"));
+    searchIndex.index(new Book(2L, "Java Basics", "Bob", "456", 2018, "Desc"));
+    searchIndex.index(new Book(3L, "Java Java", "Cy", "789", 2019, "Java"));
+    when(bookRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of());
+
+    bookService.searchBooks("java", 2);
+    verify(bookRepository).findAllById(List.of(3L, 2L));
+  }
+
+  @Test
+  void testSearchBookSummaries_PreservesRankingWithoutLoadingBooks() {
+    searchIndex.index(
+        new Book(1L, "Cooking", "Ann", "123", 2021, "A book that mentions java once"));
+    searchIndex.index(new Book(2L, "Java Basics", "Bob", "456", 2018, "Desc"));
+    BookSummary weak = new BookSummary(1L, "Cooking", "Ann", "123", 2021, 0L, null);
+    BookSummary strong = new BookSummary(2L, "Java Basics", "Bob", "456", 2018, 0L, null);
+    when(bookRepository.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(List.of(weak, strong));
+
+    assertEquals(List.of(strong, weak), bookService.searchBookSummaries("java", 50));
+    verify(bookRepository, never()).findAllById(any());
+  }
+
+  @Test
+  void testSearchBooks_NoTermsSkipsRepository() {
+    assertThat(bookService.searchBooks("", "", 50)).isEmpty();
+    verify(bookRepository, never()).findAllById(any());
+  }
+
+  @Test
+  void testUpdateAndDeleteKeepIndexInSync() {
+    Book book = new Book(1L, "Old Title", "Author", "111", 2020, "Desc");
+    searchIndex.index(book);
+    Book updated = new Book(1L, "New Title", "Author", "111", 2020, "Desc");
+    when(bookRepository.updateBook(1L, updated)).thenReturn(1);
+    when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(1L));
+    when(bookRepository.deleteBookById(1L)).thenReturn(1);
+
+    bookService.updateBook(1L, updated);
+    assertThat(searchIndex.search("old", "")).isEmpty();
+    assertThat(searchIndex.search("new", "")).containsExactly(1L);
+
+    bookService.deleteBook(1L);
+    assertThat(searchIndex.search("new", "")).isEmpty();
+  }
 }
@@ -0,0 +1,88 @@
+package com.jpereira30.library_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpereira30.library_api.dto.ChatCompletion;
+import com.jpereira30.library_api.dto.Usage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+// Parses responses recorded from the chat completions endpoint
+class ChatCompletionParserTest {
+
+  private final ChatCompletionParser parser = new ChatCompletionParser(new ObjectMapper());
+
+  @Test
+  void testParsesMessageContentAndUsage() throws IOException {
+    ChatCompletion completion = parser.parse(fixture("chat-completion.json"));
+
+    assertThat(completion.getContent())
+        .isEqualTo("\"One ring to rule them all — and a fellowship to carry it.\"");
+    assertThat(completion.getUsage()).isEqualTo(new Usage(42, 17, 59));
+  }
+
+  @Test
+  void testReadsOnlyTheFirstChoice() throws IOException {
+    ChatCompletion completion = parser.parse(fixture("chat-completion-multiple-choices.json"));
+
+    assertThat(completion.getContent()).isEqualTo("A quiet war fought one page at a time.");
+    assertThat(completion.getUsage()).isEqualTo(new Usage(38, 19, 57));
+  }
+
+  @Test
+  void testRefusalHasNoContent() throws IOException {
+    ChatCompletion completion = parser.parse(fixture("chat-completion-refusal.json"));
+
+    assertThat(completion.getContent()).isNull();
+    assertThat(completion.getUsage()).isEqualTo(new Usage(31, 7, 38));
+  }
+
+  @Test
+  void testParsesStreamedChunks() throws IOException {
+    StringBuilder content = new StringBuilder();
+    List<Usage> usage = new ArrayList<>();
+    for (String line :
+        new String(fixture("chat-completion-stream.txt"), StandardCharsets.UTF_8).split("\n")) {
+      if (!line.startsWith("data: ") || line.equals("data: [DONE]")) {
+        continue;
+      }
+      ChatCompletion chunk = parser.parse(line.substring("data: ".length()));
+      if (chunk.getContent() != null) {
+        content.append(chunk.getContent());
+      }
+      if (chunk.getUsage() != null) {
+        usage.add(chunk.getUsage());
+      }
+    }
+
+    assertThat(content).hasToString("Where maps end, stories begin.");
+    assertThat(usage).containsExactly(new Usage(36, 8, 44));
+  }
+
+  @Test
+  void testMissingFieldsAreEmpty() throws IOException {
+    assertThat(parser.parse("{}")).isEqualTo(new ChatCompletion(null, null));
+    assertThat(parser.parse("{\"choices\":[]}")).isEqualTo(new ChatCompletion(null, null));
+  }
+
+  @Test
+  void testRejectsMalformedResponses() {
+    assertThatThrownBy(() -> parser.parse("[]")).isInstanceOf(JsonProcessingException.class);
+    assertThatThrownBy(() -> parser.parse("{\"choices\":[{\"message\":"))
+        .isInstanceOf(JsonProcessingException.class);
+  }
+
+  private static byte[] fixture(String name) throws IOException {
+    try (InputStream in = ChatCompletionParserTest.class.getResourceAsStream("/openai/" + name)) {
+      assertThat(in).as(name).isNotNull();
+      return in.readAllBytes();
+    }
+  }
+}
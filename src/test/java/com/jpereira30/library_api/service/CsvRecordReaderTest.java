@@ -0,0 +1,42 @@
+package com.jpereira30.library_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.jupiter.api.Test;
+
+class CsvRecordReaderTest {
+
+  @Test
+  void testReadsPlainAndQuotedFields() throws IOException {
+    CsvRecordReader reader =
+        new CsvRecordReader(new StringReader("a,b,c\r\n\"x, y\",\"say \"\"hi\"\"\",\n"));
+
+    assertThat(reader.next()).containsExactly("a", "b", "c");
+    assertThat(reader.recordLine()).isEqualTo(1);
+    assertThat(reader.next()).containsExactly("x, y", "say \"hi\"", "");
+    assertThat(reader.recordLine()).isEqualTo(2);
+    assertThat(reader.next()).isNull();
+  }
+
+  @Test
+  void testQuotedFieldMaySpanLines() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(new StringReader("\"one\ntwo\",3\nnext,4"));
+
+    assertThat(reader.next()).containsExactly("one\ntwo", "3");
+    assertThat(reader.recordLine()).isEqualTo(1);
+    assertThat(reader.next()).containsExactly("next", "4");
+    assertThat(reader.recordLine()).isEqualTo(3);
+  }
+
+  @Test
+  void testSkipsBlankLines() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(new StringReader("a\n\n\nb\n"));
+
+    assertThat(reader.next()).containsExactly("a");
+    assertThat(reader.next()).containsExactly("b");
+    assertThat(reader.recordLine()).isEqualTo(4);
+    assertThat(reader.next()).isNull();
+  }
+}
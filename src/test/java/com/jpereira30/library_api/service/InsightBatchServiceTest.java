@@ -0,0 +1,282 @@
+package com.jpereira30.library_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import com.jpereira30.library_api.dto.BookBatchResult;
+import com.jpereira30.library_api.dto.InsightJobStatus;
+import com.jpereira30.library_api.entity.Book;
+import com.jpereira30.library_api.entity.InsightJob;
+import com.jpereira30.library_api.entity.InsightJobFailure;
+import com.jpereira30.library_api.repository.InsightJobFailureRepository;
+import com.jpereira30.library_api.repository.InsightJobRepository;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+class InsightBatchServiceTest {
+
+  @Mock private BookService bookService;
+
+  @Mock private InsightService insightService;
+
+  @Mock private InsightJobRepository jobRepository;
+
+  @Mock private InsightJobFailureRepository failureRepository;
+
+  private InsightBatchService batchService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(jobRepository.save(any(InsightJob.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    batchService =
+        new InsightBatchService(
+            bookService,
+            insightService,
+            jobRepository,
+            failureRepository,
+            2,
+            4,
+            Duration.ofSeconds(5),
+            Duration.ZERO);
+  }
+
+  @AfterEach
+  void tearDown() {
+    batchService.shutdown();
+  }
+
+  @Test
+  void testRunResumesFromCheckpointAndCountsFailures() {
+    Instant started = Instant.now().minusSeconds(10);
+    InsightJob job =
+        new InsightJob(
+            InsightBatchService.JOB_ID, InsightJob.Status.RUNNING, 5L, 5L, 0L, started, started);
+    when(jobRepository.findById(InsightBatchService.JOB_ID)).thenReturn(Optional.of(job));
+    Book book6 = new Book(6L, "Book6", "Author", "666", 2021, "Desc6");
+    Book book7 = new Book(7L, "Book7", "Author", "777", 2021, "Desc7");
+    Book book8 = new Book(8L, "Book8", "Author", "888", 2021, "Desc8");
+    when(bookService.retrieveBooksAfter(5L, 2)).thenReturn(List.of(book6, book7));
+    when(bookService.retrieveBooksAfter(7L, 2)).thenReturn(List.of(book8));
+    when(bookService.retrieveBooksAfter(8L, 2)).thenReturn(List.of());
+    when(insightService.resolveInsights("Desc6")).thenReturn(Mono.just("Tagline"));
+    when(insightService.resolveInsights("Desc7"))
+        .thenReturn(Mono.error(new IllegalStateException("upstream down")));
+    when(insightService.resolveInsights("Desc8")).thenReturn(Mono.empty());
+    when(failureRepository.count()).thenReturn(1L, 2L);
+
+    batchService.run();
+
+    verify(bookService, never()).retrieveBooksAfter(0L, 2);
+    verify(failureRepository).saveAll(argThat(failures -> bookIds(failures).equals(List.of(7L))));
+    verify(failureRepository).saveAll(argThat(failures -> bookIds(failures).equals(List.of(8L))));
+    assertThat(job.getStatus()).isEqualTo(InsightJob.Status.COMPLETED);
+    assertThat(job.getLastBookId()).isEqualTo(8L);
+    assertThat(job.getProcessed()).isEqualTo(8L);
+    assertThat(job.getFailed()).isEqualTo(2L);
+  }
+
+  @Test
+  void testUnavailableProviderPausesWithoutPassingTheBook() {
+    InsightJob job = runningJob(5L);
+    Book book6 = new Book(6L, "Book6", "Author", "666", 2021, "Desc6");
+    Book book7 = new Book(7L, "Book7", "Author", "777", 2021, "Desc7");
+    when(bookService.retrieveBooksAfter(5L, 2)).thenReturn(List.of(book6, book7));
+    when(bookService.retrieveBooksAfter(6L, 2)).thenReturn(List.of(book7));
+    when(bookService.retrieveBooksAfter(7L, 2)).thenReturn(List.of());
+    when(insightService.resolveInsights("Desc6")).thenReturn(Mono.just("Tagline"));
+    when(insightService.resolveInsights("Desc7"))
+        .thenReturn(
+            Mono.error(
+                CallNotPermittedException.createCallNotPermittedException(
+                    CircuitBreaker.ofDefaults("openai"))),
+            Mono.just("Tagline"));
+
+    batchService.run();
+
+    // Book 7 is tried again after the pause rather than counted as failed
+    verify(bookService).retrieveBooksAfter(6L, 2);
+    verify(failureRepository, never()).saveAll(argThat(failures -> failures.iterator().hasNext()));
+    assertThat(job.getStatus()).isEqualTo(InsightJob.Status.COMPLETED);
+    assertThat(job.getLastBookId()).isEqualTo(7L);
+    assertThat(job.getProcessed()).isEqualTo(7L);
+  }
+
+  @Test
+  void testProviderTimeoutPausesInsteadOfRecordingFailures() {
+    InsightBatchService batchService =
+        new InsightBatchService(
+            bookService,
+            insightService,
+            jobRepository,
+            failureRepository,
+            2,
+            4,
+            Duration.ofMillis(50),
+            Duration.ZERO);
+    InsightJob job = runningJob(5L);
+    Book book6 = new Book(6L, "Book6", "Author", "666", 2021, "Desc6");
+    Book book7 = new Book(7L, "Book7", "Author", "777", 2021, "Desc7");
+    when(bookService.retrieveBooksAfter(5L, 2)).thenReturn(List.of(book6, book7));
+    when(bookService.retrieveBooksAfter(7L, 2)).thenReturn(List.of());
+    // The provider hangs on the first attempt at each book and answers once it recovers
+    when(insightService.resolveInsights("Desc6")).thenReturn(Mono.never(), Mono.just("Tagline"));
+    when(insightService.resolveInsights("Desc7")).thenReturn(Mono.never(), Mono.just("Tagline"));
+
+    batchService.run();
+
+    verify(bookService, times(2)).retrieveBooksAfter(5L, 2);
+    verify(failureRepository, never()).saveAll(argThat(failures -> failures.iterator().hasNext()));
+    assertThat(job.getStatus()).isEqualTo(InsightJob.Status.COMPLETED);
+    assertThat(job.getLastBookId()).isEqualTo(7L);
+  }
+
+  @Test
+  void testServerErrorsPauseWhileClientErrorsFailTheBook() {
+    InsightJob job = runningJob(5L);
+    Book book6 = new Book(6L, "Book6", "Author", "666", 2021, "Desc6");
+    Book book7 = new Book(7L, "Book7", "Author", "777", 2021, "Desc7");
+    when(bookService.retrieveBooksAfter(5L, 2)).thenReturn(List.of(book6, book7));
+    when(bookService.retrieveBooksAfter(7L, 2)).thenReturn(List.of());
+    when(insightService.resolveInsights("Desc6"))
+        .thenReturn(
+            Mono.error(WebClientResponseException.create(503, "Unavailable", null, null, null)),
+            Mono.just("Tagline"));
+    when(insightService.resolveInsights("Desc7"))
+        .thenReturn(
+            Mono.error(WebClientResponseException.create(400, "Bad Request", null, null, null)));
+
+    batchService.run();
+
+    verify(bookService, times(2)).retrieveBooksAfter(5L, 2);
+    verify(failureRepository).saveAll(argThat(failures -> bookIds(failures).equals(List.of(7L))));
+    assertThat(job.getStatus()).isEqualTo(InsightJob.Status.COMPLETED);
+  }
+
+  @Test
+  void testFailedBooksAreRetriedBeforeCompleting() {
+    InsightJob job = runningJob(5L);
+    Book book6 = new Book(6L, "Book6", "Author", "666", 2021, "Desc6");
+    Book book7 = new Book(7L, "Book7", "Author", "777", 2021, "Desc7");
+    when(bookService.retrieveBooksAfter(5L, 2)).thenReturn(List.of(book6, book7));
+    when(bookService.retrieveBooksAfter(7L, 2)).thenReturn(List.of());
+    when(insightService.resolveInsights("Desc6"))
+        .thenReturn(Mono.error(new IllegalStateException("bad response")), Mono.just("Tagline"));
+    when(insightService.resolveInsights("Desc7"))
+        .thenReturn(Mono.error(new IllegalStateException("bad response")));
+    when(failureRepository.findByBookIdGreaterThanOrderByBookIdAsc(0L, Limit.of(2)))
+        .thenReturn(List.of(new InsightJobFailure(6L), new InsightJobFailure(7L)));
+    when(bookService.retrieveBooksByIds(List.of(6L, 7L)))
+        .thenReturn(
+            BookBatchResult.builder().books(List.of(book6, book7)).missing(List.of()).build());
+    when(failureRepository.count()).thenReturn(2L, 1L);
+
+    batchService.run();
+
+    verify(failureRepository).deleteAllByIdInBatch(List.of(6L));
+    assertThat(job.getStatus()).isEqualTo(InsightJob.Status.COMPLETED);
+    assertThat(job.getFailed()).isEqualTo(1L);
+  }
+
+  @Test
+  void testStartResumesAStoppedRun() {
+    InsightJob job = runningJob(5L);
+    when(bookService.retrieveBooksAfter(5L, 2)).thenReturn(List.of());
+
+    batchService.start();
+
+    verify(bookService, timeout(5000)).retrieveBooksAfter(5L, 2);
+    verify(failureRepository, never()).deleteAllInBatch();
+    assertThat(job.getLastBookId()).isEqualTo(5L);
+  }
+
+  @Test
+  void testStartAfterCompletionStartsOver() {
+    Instant started = Instant.now();
+    InsightJob job =
+        new InsightJob(
+            InsightBatchService.JOB_ID, InsightJob.Status.COMPLETED, 9L, 9L, 1L, started, started);
+    when(jobRepository.findById(InsightBatchService.JOB_ID)).thenReturn(Optional.of(job));
+
+    batchService.start();
+
+    verify(failureRepository).deleteAllInBatch();
+    verify(jobRepository).save(argThat(saved -> saved.getLastBookId() == 0L));
+  }
+
+  @Test
+  void testFailedPageKeepsCheckpointForResume() {
+    Instant started = Instant.now();
+    InsightJob job =
+        new InsightJob(
+            InsightBatchService.JOB_ID, InsightJob.Status.RUNNING, 0L, 0L, 0L, started, started);
+    when(jobRepository.findById(InsightBatchService.JOB_ID)).thenReturn(Optional.of(job));
+    when(bookService.retrieveBooksAfter(0L, 2)).thenThrow(new IllegalStateException("db down"));
+
+    batchService.run();
+
+    assertThat(job.getStatus()).isEqualTo(InsightJob.Status.RUNNING);
+    assertThat(batchService.status().isActive()).isFalse();
+  }
+
+  @Test
+  void testStatusWithoutRun() {
+    when(jobRepository.findById(InsightBatchService.JOB_ID)).thenReturn(Optional.empty());
+    InsightJobStatus status = batchService.status();
+    assertThat(status.getStatus()).isNull();
+    assertThat(status.getProcessed()).isZero();
+  }
+
+  @Test
+  void testStatusReportsThroughput() {
+    Instant started = Instant.now();
+    InsightJob job =
+        new InsightJob(
+            InsightBatchService.JOB_ID,
+            InsightJob.Status.COMPLETED,
+            100L,
+            100L,
+            1L,
+            started,
+            started.plusSeconds(4));
+    when(jobRepository.findById(InsightBatchService.JOB_ID)).thenReturn(Optional.of(job));
+    assertThat(batchService.status().getBooksPerSecond()).isEqualTo(25.0);
+  }
+
+  private InsightJob runningJob(long lastBookId) {
+    Instant started = Instant.now();
+    InsightJob job =
+        new InsightJob(
+            InsightBatchService.JOB_ID,
+            InsightJob.Status.RUNNING,
+            lastBookId,
+            lastBookId,
+            0L,
+            started,
+            started);
+    when(jobRepository.findById(InsightBatchService.JOB_ID)).thenReturn(Optional.of(job));
+    return job;
+  }
+
+  private static List<Long> bookIds(Iterable<InsightJobFailure> failures) {
+    List<Long> ids = new ArrayList<>();
+    failures.forEach(failure -> ids.add(failure.getBookId()));
+    return ids;
+  }
+}
@@ -0,0 +1,297 @@
+package com.jpereira30.library_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import com.jpereira30.library_api.entity.BookInsight;
+import com.jpereira30.library_api.exception.InsightsUnavailableException;
+import com.jpereira30.library_api.repository.BookInsightRepository;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+class InsightServiceTest {
+
+  @Mock private AIService aiService;
+
+  @Mock private BookInsightRepository insightRepository;
+
+  private MeterRegistry meterRegistry;
+
+  private InsightService insightService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    meterRegistry = new SimpleMeterRegistry();
+    when(aiService.getModel()).thenReturn("gpt-test");
+    when(aiService.promptFor(any()))
+        .thenAnswer(invocation -> "prompt: " + invocation.getArgument(0));
+    when(insightRepository.findById(any())).thenReturn(Optional.empty());
+    insightService =
+        new InsightService(
+            aiService,
+            insightRepository,
+            Schedulers.boundedElastic(),
+            meterRegistry,
+            500,
+            Duration.ofSeconds(5),
+            Duration.ofDays(30));
+  }
+
+  @Test
+  void testCachedInsightSkipsUpstream() {
+    String key = InsightService.cacheKey("gpt-test", "prompt: Desc");
+    when(insightRepository.findById(key))
+        .thenReturn(Optional.of(new BookInsight(key, "gpt-test", "Cached tagline", Instant.now())));
+
+    assertThat(insightService.generateInsights("Desc").block()).isEqualTo("Cached tagline");
+    verify(aiService, never()).requestInsights(any());
+  }
+
+  @Test
+  void testExpiredInsightIsGeneratedAgain() {
+    String key = InsightService.cacheKey("gpt-test", "prompt: Desc");
+    Instant expired = Instant.now().minus(Duration.ofDays(31));
+    when(insightRepository.findById(key))
+        .thenReturn(Optional.of(new BookInsight(key, "gpt-test", "Old tagline", expired)));
+    when(aiService.requestInsights("Desc")).thenReturn(Mono.just("Fresh tagline"));
+
+    assertThat(insightService.generateInsights("Desc").block()).isEqualTo("Fresh tagline");
+    verify(insightRepository).save(argThat(saved -> saved.getCreatedAt().isAfter(expired)));
+  }
+
+  @Test
+  void testPurgeDeletesInsightsOlderThanTheTtl() {
+    when(insightRepository.deleteByCreatedAtBefore(any())).thenReturn(3);
+
+    assertThat(insightService.purgeExpiredInsights()).isEqualTo(3);
+
+    ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+    verify(insightRepository).deleteByCreatedAtBefore(cutoff.capture());
+    assertThat(cutoff.getValue())
+        .isBetween(
+            Instant.now().minus(Duration.ofDays(30)).minusSeconds(5),
+            Instant.now().minus(Duration.ofDays(30)));
+  }
+
+  @Test
+  void testGeneratedInsightIsStored() {
+    when(aiService.requestInsights("Desc")).thenReturn(Mono.just("Fresh tagline"));
+
+    assertThat(insightService.generateInsights("Desc").block()).isEqualTo("Fresh tagline");
+
+    ArgumentCaptor<BookInsight> saved = ArgumentCaptor.forClass(BookInsight.class);
+    verify(insightRepository).save(saved.capture());
+    assertThat(saved.getValue().getCacheKey())
+        .isEqualTo(InsightService.cacheKey("gpt-test", "prompt: Desc"));
+    assertThat(saved.getValue().getInsight()).isEqualTo("Fresh tagline");
+  }
+
+  @Test
+  void testConcurrentRequestsShareOneUpstreamCall() {
+    // Requests arriving after the shared call completes find the stored insight
+    String key = InsightService.cacheKey("gpt-test", "prompt: Desc");
+    List<BookInsight> saved = new CopyOnWriteArrayList<>();
+    when(insightRepository.save(any()))
+        .thenAnswer(
+            invocation -> {
+              saved.add(invocation.getArgument(0));
+              return invocation.getArgument(0);
+            });
+    when(insightRepository.findById(key)).thenAnswer(invocation -> saved.stream().findFirst());
+    AtomicInteger calls = new AtomicInteger();
+    when(aiService.requestInsights("Desc"))
+        .thenReturn(
+            Mono.defer(
+                () -> {
+                  calls.incrementAndGet();
+                  return Mono.just("Shared tagline").delayElement(Duration.ofMillis(200));
+                }));
+
+    List<String> results =
+        Flux.range(0, 500)
+            .flatMap(i -> insightService.generateInsights("Desc"), 500)
+            .collectList()
+            .block();
+
+    assertThat(results).hasSize(500).containsOnly("Shared tagline");
+    assertThat(calls.get()).isEqualTo(1);
+    verify(insightRepository, times(1)).save(any());
+  }
+
+  @Test
+  void testFailuresAreNotStored() {
+    when(aiService.requestInsights("Desc"))
+        .thenReturn(Mono.error(new IllegalStateException("upstream down")));
+
+    assertThatThrownBy(() -> insightService.generateInsights("Desc").block())
+        .isInstanceOf(InsightsUnavailableException.class)
+        .hasMessage("The AI provider failed to generate insights.");
+    verify(insightRepository, never()).save(any());
+  }
+
+  @Test
+  void testEmptyResponseIsNotStored() {
+    when(aiService.requestInsights("Desc")).thenReturn(Mono.empty());
+
+    assertThat(insightService.generateInsights("Desc").block())
+        .isEqualTo(InsightService.NO_INSIGHTS);
+    verify(insightRepository, never()).save(any());
+  }
+
+  @Test
+  void testRequestsBeyondCapAreRejected() {
+    meterRegistry = new SimpleMeterRegistry();
+    insightService =
+        new InsightService(
+            aiService,
+            insightRepository,
+            Schedulers.boundedElastic(),
+            meterRegistry,
+            1,
+            Duration.ofSeconds(5),
+            Duration.ofDays(30));
+    when(aiService.requestInsights(any())).thenReturn(Mono.never());
+
+    insightService.generateInsights("First").subscribe();
+    assertThat(insightService.outstandingRequests()).isEqualTo(1);
+
+    assertThatThrownBy(() -> insightService.generateInsights("Second").block())
+        .isInstanceOf(InsightsUnavailableException.class);
+    assertThat(insightService.outstandingRequests()).isEqualTo(1);
+    assertThat(meterRegistry.counter("library.insights.rejected").count()).isEqualTo(1);
+    assertThat(meterRegistry.get("library.insights.outstanding").gauge().value()).isEqualTo(1);
+  }
+
+  @Test
+  void testSlowUpstreamTimesOut() throws Exception {
+    meterRegistry = new SimpleMeterRegistry();
+    insightService =
+        new InsightService(
+            aiService,
+            insightRepository,
+            Schedulers.boundedElastic(),
+            meterRegistry,
+            500,
+            Duration.ofMillis(100),
+            Duration.ofDays(30));
+    when(aiService.requestInsights("Desc")).thenReturn(Mono.never());
+
+    assertThatThrownBy(() -> insightService.generateInsights("Desc").block())
+        .isInstanceOf(InsightsUnavailableException.class)
+        .hasMessage("Timed out waiting for the AI provider.");
+    awaitNoOutstandingRequests();
+    assertThat(meterRegistry.counter("library.insights.timeouts").count()).isEqualTo(1);
+  }
+
+  @Test
+  void testOpenCircuitFailsFast() throws Exception {
+    CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("openai");
+    circuitBreaker.transitionToOpenState();
+    when(aiService.requestInsights("Desc"))
+        .thenReturn(
+            Mono.error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker)));
+
+    assertThatThrownBy(() -> insightService.generateInsights("Desc").block())
+        .isInstanceOf(InsightsUnavailableException.class)
+        .hasMessage("The AI provider is unavailable; try again later.");
+    awaitNoOutstandingRequests();
+  }
+
+  @Test
+  void testStreamedInsightIsStoredOnCompletion() {
+    when(aiService.streamInsights("Desc")).thenReturn(Flux.just("Fresh ", "tagline"));
+
+    assertThat(insightService.streamInsights("Desc").collectList().block())
+        .containsExactly("Fresh ", "tagline");
+
+    ArgumentCaptor<BookInsight> saved = ArgumentCaptor.forClass(BookInsight.class);
+    verify(insightRepository).save(saved.capture());
+    assertThat(saved.getValue().getInsight()).isEqualTo("Fresh tagline");
+    assertThat(meterRegistry.counter("library.insights.lookups", "source", "generated").count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void testStreamReplaysStoredInsight() {
+    String key = InsightService.cacheKey("gpt-test", "prompt: Desc");
+    when(insightRepository.findById(key))
+        .thenReturn(Optional.of(new BookInsight(key, "gpt-test", "Cached tagline", Instant.now())));
+
+    assertThat(insightService.streamInsights("Desc").collectList().block())
+        .containsExactly("Cached tagline");
+    verify(aiService, never()).streamInsights(any());
+  }
+
+  @Test
+  void testFailedStreamIsNotStored() throws Exception {
+    when(aiService.streamInsights("Desc"))
+        .thenReturn(
+            Flux.concat(Flux.just("Partial "), Flux.error(new IllegalStateException("dropped"))));
+
+    assertThatThrownBy(() -> insightService.streamInsights("Desc").collectList().block())
+        .isInstanceOf(InsightsUnavailableException.class)
+        .hasMessage("The AI provider failed to generate insights.");
+    verify(insightRepository, never()).save(any());
+    awaitNoOutstandingRequests();
+  }
+
+  @Test
+  void testStalledStreamTimesOut() throws Exception {
+    meterRegistry = new SimpleMeterRegistry();
+    insightService =
+        new InsightService(
+            aiService,
+            insightRepository,
+            Schedulers.boundedElastic(),
+            meterRegistry,
+            500,
+            Duration.ofMillis(100),
+            Duration.ofDays(30));
+    when(aiService.streamInsights("Desc"))
+        .thenReturn(Flux.concat(Flux.just("First "), Flux.never()));
+
+    assertThatThrownBy(() -> insightService.streamInsights("Desc").collectList().block())
+        .isInstanceOf(InsightsUnavailableException.class)
+        .hasMessage("Timed out waiting for the AI provider.");
+    awaitNoOutstandingRequests();
+    assertThat(meterRegistry.counter("library.insights.timeouts").count()).isEqualTo(1);
+  }
+
+  @Test
+  void testCacheKeyChangesWithDescriptionAndModel() {
+    String key = InsightService.cacheKey("gpt-test", "prompt: Desc");
+    assertThat(key).hasSize(64);
+    assertThat(InsightService.cacheKey("gpt-test", "prompt: Other")).isNotEqualTo(key);
+    assertThat(InsightService.cacheKey("gpt-other", "prompt: Desc")).isNotEqualTo(key);
+  }
+
+  // The count is released in doFinally, which may run just after the caller sees the error
+  private void awaitNoOutstandingRequests() throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+    while (insightService.outstandingRequests() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(insightService.outstandingRequests()).isZero();
+  }
+}
@@ -0,0 +1,192 @@
+package com.jpereira30.library_api.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Local stand-in for the chat completions endpoint with configurable latency and error rate.
+// Requests asking for "stream": true get the tagline back as server-sent events, one word per
+// chunk, followed by a usage chunk and [DONE].
+public class OpenAIStubServer implements AutoCloseable {
+
+  public static final String COMPLETIONS_PATH = "/v1/chat/completions";
+
+  // Token usage reported with every successful completion
+  public static final int PROMPT_TOKENS = 40;
+
+  public static final int COMPLETION_TOKENS = 12;
+
+  private final HttpServer server;
+
+  private final AtomicInteger requestCount = new AtomicInteger();
+
+  private volatile Duration latency = Duration.ZERO;
+
+  private volatile double errorRate;
+
+  private volatile int errorStatus = 500;
+
+  // Requests still to be failed deterministically, each with failNextStatus
+  private final AtomicInteger failNext = new AtomicInteger();
+
+  private volatile int failNextStatus = 500;
+
+  private volatile String tagline = "Stub tagline";
+
+  // Delay between streamed chunks, after the initial latency
+  private volatile Duration tokenDelay = Duration.ZERO;
+
+  public OpenAIStubServer() {
+    try {
+      server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not start OpenAI stub server", e);
+    }
+    server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    server.createContext(COMPLETIONS_PATH, this::handleCompletion);
+    server.start();
+  }
+
+  public String url() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  public int requestCount() {
+    return requestCount.get();
+  }
+
+  public OpenAIStubServer latency(Duration latency) {
+    this.latency = latency;
+    return this;
+  }
+
+  public OpenAIStubServer errorRate(double errorRate, int errorStatus) {
+    this.errorRate = errorRate;
+    this.errorStatus = errorStatus;
+    return this;
+  }
+
+  // Fail the next count requests with the given status, then behave as configured
+  public OpenAIStubServer failNext(int count, int status) {
+    this.failNextStatus = status;
+    this.failNext.set(count);
+    return this;
+  }
+
+  public OpenAIStubServer tagline(String tagline) {
+    this.tagline = tagline;
+    return this;
+  }
+
+  public OpenAIStubServer tokenDelay(Duration tokenDelay) {
+    this.tokenDelay = tokenDelay;
+    return this;
+  }
+
+  public void reset() {
+    requestCount.set(0);
+    latency = Duration.ZERO;
+    errorRate = 0;
+    errorStatus = 500;
+    failNext.set(0);
+    tagline = "Stub tagline";
+    tokenDelay = Duration.ZERO;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  private void handleCompletion(HttpExchange exchange) throws IOException {
+    requestCount.incrementAndGet();
+    String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+    boolean stream = request.replace(" ", "").contains("\"stream\":true");
+    // Decide the outcome on arrival, so requests still sleeping after a reconfiguration keep theirs
+    int status = 200;
+    if (failNext.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+      status = failNextStatus;
+    } else if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+      status = errorStatus;
+    }
+    String body = tagline;
+    sleep(latency);
+    if (status != 200) {
+      respond(exchange, status, "{\"error\":{\"message\":\"stub failure\"}}");
+      return;
+    }
+    if (stream) {
+      stream(exchange, body);
+      return;
+    }
+    respond(
+        exchange,
+        200,
+        "{\"object\":\"chat.completion\",\"choices\":[{\"index\":0,\"message\":{\"role\":"
+            + "\"assistant\",\"content\":\""
+            + body
+            + "\"},\"finish_reason\":\"stop\"}],"
+            + usage()
+            + "}");
+  }
+
+  private void stream(HttpExchange exchange, String body) throws IOException {
+    exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+    exchange.sendResponseHeaders(200, 0);
+    try (OutputStream out = exchange.getResponseBody()) {
+      for (String token : body.split("(?<= )")) {
+        event(
+            out,
+            "{\"object\":\"chat.completion.chunk\",\"choices\":[{\"index\":0,\"delta\":{"
+                + "\"content\":\""
+                + token
+                + "\"}}]}");
+        sleep(tokenDelay);
+      }
+      event(out, "{\"object\":\"chat.completion.chunk\",\"choices\":[]," + usage() + "}");
+      event(out, "[DONE]");
+    }
+  }
+
+  private static void event(OutputStream out, String data) throws IOException {
+    out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+    out.flush();
+  }
+
+  private static String usage() {
+    return "\"usage\":{\"prompt_tokens\":"
+        + PROMPT_TOKENS
+        + ",\"completion_tokens\":"
+        + COMPLETION_TOKENS
+        + ",\"total_tokens\":"
+        + (PROMPT_TOKENS + COMPLETION_TOKENS)
+        + "}";
+  }
+
+  private static void sleep(Duration duration) {
+    if (duration.isZero()) {
+      return;
+    }
+    try {
+      Thread.sleep(duration);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.jpereira30.library_api.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Distinct ISBNs for test books; the catalog shares one database across test contexts and ISBNs
+// must be unique
+public final class TestIsbns {
+
+  private static final AtomicLong NEXT = new AtomicLong(9_790_000_000_000L);
+
+  private TestIsbns() {}
+
+  public static String next() {
+    return String.valueOf(NEXT.getAndIncrement());
+  }
+}